@@ -40,6 +40,7 @@ public interface GoIcons {
   Icon PACKAGE = AllIcons.Nodes.Package;
   Icon MODULE_ICON = IconLoader.findIcon("/icons/goModule.png");
   Icon DEBUG = ICON;
+  Icon PROFILE = Helper.createIconWithShift(ICON, AllIcons.Vcs.History);
   Icon DIRECTORY = PlatformIcons.DIRECTORY_CLOSED_ICON;
 
   class Helper {
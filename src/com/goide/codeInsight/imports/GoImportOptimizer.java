@@ -120,78 +120,89 @@ public class GoImportOptimizer implements ImportOptimizer {
 
   public static MultiMap<String, GoImportSpec> filterUnusedImports(@NotNull PsiFile file, 
                                                                    @NotNull MultiMap<String, GoImportSpec> importMap) {
-    final MultiMap<String, GoImportSpec> result = MultiMap.create();
+    MultiMap<String, GoImportSpec> result = MultiMap.create();
     result.putAllValues(importMap);
     result.remove("_"); // imports for side effects are always used
-    
+    if (!(file instanceof GoFile)) {
+      return result;
+    }
+    GoImportUsageSummary summary = GoImportUsageSummary.getInstance((GoFile)file);
+
     Collection<GoImportSpec> implicitImports = ContainerUtil.newArrayList(result.get("."));
     for (GoImportSpec importEntry : implicitImports) {
       GoImportSpec spec = getImportSpec(importEntry);
-      if (spec != null && spec.isDot()) {
-        List<? extends PsiElement> list = spec.getUserData(GoReference.IMPORT_USERS);
-        if (list != null) {
-          for (PsiElement e : list) {
-            if (e.isValid()) {
-              result.remove(".", importEntry);
-              break;
-            }
-            ProgressManager.checkCanceled();
-          }
-        }
+      if (spec != null && spec.isDot() && isDotImportUsed(spec, summary)) {
+        result.remove(".", importEntry);
       }
     }
-    
-    file.accept(new GoRecursiveVisitor() {
-      @Override
-      public void visitTypeReferenceExpression(@NotNull GoTypeReferenceExpression o) {
-        GoTypeReferenceExpression lastQualifier = o.getQualifier();
-        if (lastQualifier != null) {
-          GoTypeReferenceExpression previousQualifier;
-          while ((previousQualifier = lastQualifier.getQualifier()) != null) {
-            lastQualifier = previousQualifier;
-          }
-          markAsUsed(lastQualifier.getIdentifier(), lastQualifier.getReference());
-        }
+
+    for (String qualifier : summary.getQualifierNames()) {
+      if (!result.containsKey(qualifier)) {
+        // not an import name or already marked
+        continue;
+      }
+      if (summary.isAmbiguousQualifier(qualifier) && !resolvesToImport(summary.getQualifierUsages(qualifier))) {
+        continue;
       }
+      markAsUsed(qualifier, result);
+    }
+    return result;
+  }
 
-      @Override
-      public void visitReferenceExpression(@NotNull GoReferenceExpression o) {
-        GoReferenceExpression lastQualifier = o.getQualifier();
-        if (lastQualifier != null) {
-          GoReferenceExpression previousQualifier;
-          while ((previousQualifier = lastQualifier.getQualifier()) != null) {
-            lastQualifier = previousQualifier;
-          }
-          markAsUsed(lastQualifier.getIdentifier(), lastQualifier.getReference());
+  private static boolean isDotImportUsed(@NotNull GoImportSpec spec, @NotNull GoImportUsageSummary summary) {
+    List<? extends PsiElement> list = spec.getUserData(GoReference.IMPORT_USERS);
+    if (list != null) {
+      for (PsiElement e : list) {
+        if (e.isValid()) {
+          return true;
         }
+        ProgressManager.checkCanceled();
       }
+    }
+    PsiDirectory directory = spec.getImportString().resolve();
+    if (directory == null) {
+      return false;
+    }
+    // only references named after something the package exports have to be resolved
+    for (GoReferenceExpressionBase candidate : summary.getDotImportCandidates(GoImportUsageSummary.getExportedNames(directory))) {
+      ProgressManager.checkCanceled();
+      PsiReference reference = candidate.getReference();
+      PsiElement resolve = reference != null ? reference.resolve() : null;
+      PsiFile resolveFile = resolve != null ? resolve.getContainingFile() : null;
+      PsiDirectory resolveDirectory = resolveFile != null ? resolveFile.getOriginalFile().getParent() : null;
+      if (resolveDirectory != null && Comparing.equal(resolveDirectory.getVirtualFile(), directory.getVirtualFile())) {
+        return true;
+      }
+    }
+    return false;
+  }
 
-      private void markAsUsed(@NotNull PsiElement qualifier, @NotNull PsiReference reference) {
-        String qualifierText = qualifier.getText();
-        if (!result.containsKey(qualifierText)) {
-          // already marked
-          return;
-        }
-        PsiElement resolve = reference.resolve();
-        if (!(resolve instanceof PsiDirectory || resolve instanceof GoImportSpec || resolve instanceof PsiDirectoryContainer)) {
-          return;
-        }
-        Collection<String> qualifiersToDelete = ContainerUtil.newHashSet();
-        for (GoImportSpec spec : result.get(qualifierText)) {
-          for (Map.Entry<String, Collection<GoImportSpec>> entry : result.entrySet()) {
-            for (GoImportSpec importSpec : entry.getValue()) {
-              if (importSpec == spec) {
-                qualifiersToDelete.add(entry.getKey());
-              }
-            }
+  private static boolean resolvesToImport(@NotNull Collection<GoReferenceExpressionBase> qualifiers) {
+    for (GoReferenceExpressionBase qualifier : qualifiers) {
+      ProgressManager.checkCanceled();
+      PsiReference reference = qualifier.getReference();
+      PsiElement resolve = reference != null ? reference.resolve() : null;
+      if (resolve instanceof PsiDirectory || resolve instanceof GoImportSpec || resolve instanceof PsiDirectoryContainer) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void markAsUsed(@NotNull String qualifierText, @NotNull MultiMap<String, GoImportSpec> result) {
+    Collection<String> qualifiersToDelete = ContainerUtil.newHashSet();
+    for (GoImportSpec spec : result.get(qualifierText)) {
+      for (Map.Entry<String, Collection<GoImportSpec>> entry : result.entrySet()) {
+        for (GoImportSpec importSpec : entry.getValue()) {
+          if (importSpec == spec) {
+            qualifiersToDelete.add(entry.getKey());
           }
         }
-        for (String qualifierToDelete : qualifiersToDelete) {
-          result.remove(qualifierToDelete);
-        }
       }
-    });
-    return result;
+    }
+    for (String qualifierToDelete : qualifiersToDelete) {
+      result.remove(qualifierToDelete);
+    }
   }
 
   @NotNull
@@ -54,7 +54,6 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiReference;
 import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.psi.stubs.StubIndex;
 import com.intellij.ui.IdeBorderFactory;
 import com.intellij.ui.components.JBLabel;
 import com.intellij.ui.components.JBList;
@@ -168,7 +167,7 @@ public class GoImportPackageQuickFix extends LocalQuickFixAndIntentionActionOnPs
     final Module module = contextFile != null ? ModuleUtilCore.findModuleForPsiElement(contextFile) : null;
     final boolean vendoringEnabled = GoVendoringUtil.isVendoringEnabled(module);
     GlobalSearchScope scope = GoUtil.goPathResolveScope(context);
-    Collection<GoFile> packages = StubIndex.getElements(GoPackagesIndex.KEY, packageName, project, scope, GoFile.class);
+    Collection<GoFile> packages = GoPackagesIndex.find(packageName, project, scope);
     return sorted(skipNulls(map2Set(
       packages,
       new Function<GoFile, String>() {
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.codeInsight.imports;
+
+import com.goide.psi.*;
+import com.goide.runconfig.testing.GoTestFinder;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.SyntaxTraverser;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.containers.MultiMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lexical summary of how a file may use its imports, collected in a single pass without resolving anything.
+ * Names that cannot be told apart lexically are reported as ambiguous and have to be resolved by the caller.
+ */
+public class GoImportUsageSummary {
+  private final MultiMap<String, GoReferenceExpressionBase> myQualifiers;
+  private final MultiMap<String, GoReferenceExpressionBase> myUnqualified;
+  private final Set<String> myDeclaredNames;
+
+  private GoImportUsageSummary(@NotNull MultiMap<String, GoReferenceExpressionBase> qualifiers,
+                               @NotNull MultiMap<String, GoReferenceExpressionBase> unqualified,
+                               @NotNull Set<String> declaredNames) {
+    myQualifiers = qualifiers;
+    myUnqualified = unqualified;
+    myDeclaredNames = declaredNames;
+  }
+
+  @NotNull
+  public static GoImportUsageSummary getInstance(@NotNull final GoFile file) {
+    return CachedValuesManager.getCachedValue(file, new CachedValueProvider<GoImportUsageSummary>() {
+      @Nullable
+      @Override
+      public Result<GoImportUsageSummary> compute() {
+        return Result.create(calcSummary(file), file);
+      }
+    });
+  }
+
+  @NotNull
+  private static GoImportUsageSummary calcSummary(@NotNull GoFile file) {
+    MultiMap<String, GoReferenceExpressionBase> qualifiers = MultiMap.create();
+    MultiMap<String, GoReferenceExpressionBase> unqualified = MultiMap.create();
+    Set<String> declaredNames = ContainerUtil.newHashSet();
+    for (PsiElement element : SyntaxTraverser.psiTraverser(file)) {
+      if (element instanceof GoReferenceExpressionBase) {
+        GoReferenceExpressionBase reference = (GoReferenceExpressionBase)element;
+        GoReferenceExpressionBase qualifier = reference.getQualifier();
+        if (qualifier == null) {
+          unqualified.putValue(reference.getIdentifier().getText(), reference);
+          continue;
+        }
+        GoReferenceExpressionBase previousQualifier;
+        while ((previousQualifier = qualifier.getQualifier()) != null) {
+          qualifier = previousQualifier;
+        }
+        qualifiers.putValue(qualifier.getIdentifier().getText(), qualifier);
+      }
+      else if (element instanceof GoNamedElement && !(element instanceof GoImportSpec)) {
+        // any declaration in the file may shadow an import name
+        String name = ((GoNamedElement)element).getName();
+        if (name != null) {
+          declaredNames.add(name);
+        }
+      }
+    }
+    return new GoImportUsageSummary(qualifiers, unqualified, declaredNames);
+  }
+
+  /**
+   * Names used as the leftmost qualifier of a qualified reference, e.g. {@code fmt} in {@code fmt.Println}
+   */
+  @NotNull
+  public Set<String> getQualifierNames() {
+    return myQualifiers.keySet();
+  }
+
+  @NotNull
+  public Collection<GoReferenceExpressionBase> getQualifierUsages(@NotNull String name) {
+    return myQualifiers.get(name);
+  }
+
+  /**
+   * Whether a qualifier with the given name may refer to something other than an import
+   */
+  public boolean isAmbiguousQualifier(@NotNull String name) {
+    return myDeclaredNames.contains(name);
+  }
+
+  /**
+   * Unqualified references which may be satisfied by a dot-import of a package exporting the given names
+   */
+  @NotNull
+  public List<GoReferenceExpressionBase> getDotImportCandidates(@NotNull Set<String> exportedNames) {
+    List<GoReferenceExpressionBase> result = ContainerUtil.newArrayList();
+    for (String name : myUnqualified.keySet()) {
+      if (exportedNames.contains(name)) {
+        result.addAll(myUnqualified.get(name));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Names of package-level declarations visible through a dot-import of the directory
+   */
+  @NotNull
+  public static Set<String> getExportedNames(@NotNull final PsiDirectory directory) {
+    return CachedValuesManager.getCachedValue(directory, new CachedValueProvider<Set<String>>() {
+      @Nullable
+      @Override
+      public Result<Set<String>> compute() {
+        return Result.create(calcExportedNames(directory), PsiModificationTracker.MODIFICATION_COUNT);
+      }
+    });
+  }
+
+  @NotNull
+  private static Set<String> calcExportedNames(@NotNull PsiDirectory directory) {
+    Set<String> result = ContainerUtil.newHashSet();
+    for (PsiFile file : directory.getFiles()) {
+      if (!(file instanceof GoFile) || GoTestFinder.isTestFile(file)) continue;
+      GoFile goFile = (GoFile)file;
+      addExported(goFile.getFunctions(), result);
+      addExported(goFile.getTypes(), result);
+      addExported(goFile.getVars(), result);
+      addExported(goFile.getConstants(), result);
+    }
+    return Collections.unmodifiableSet(result);
+  }
+
+  private static void addExported(@NotNull Collection<? extends GoNamedElement> elements, @NotNull Set<String> result) {
+    for (GoNamedElement element : elements) {
+      String name = element.getName();
+      if (name != null && element.isPublic()) {
+        result.add(name);
+      }
+    }
+  }
+}
@@ -22,6 +22,7 @@ import com.goide.psi.impl.GoPsiImplUtil;
 import com.goide.psi.impl.GoTypeReference;
 import com.goide.runconfig.testing.GoTestFinder;
 import com.goide.stubs.index.GoIdFilter;
+import com.goide.util.GoStatistics;
 import com.goide.util.GoUtil;
 import com.intellij.codeInsight.completion.*;
 import com.intellij.openapi.module.Module;
@@ -184,6 +185,17 @@ public class GoAutoImportCompletionContributor extends CompletionContributor {
     return alias != null ? alias + "." + substringAfter(qualifiedName, '.') : qualifiedName;
   }
 
+  @Override
+  public void fillCompletionVariants(@NotNull CompletionParameters parameters, @NotNull CompletionResultSet result) {
+    long start = GoStatistics.startTimer();
+    try {
+      super.fillCompletionVariants(parameters, result);
+    }
+    finally {
+      GoStatistics.stopTimer("GoAutoImportCompletionContributor", start);
+    }
+  }
+
   private interface ElementProcessor {
     boolean process(@NotNull String name,
                     @NotNull GoNamedElement element,
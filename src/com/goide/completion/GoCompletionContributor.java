@@ -24,6 +24,7 @@ import com.goide.psi.impl.GoCachedReference;
 import com.goide.psi.impl.GoPsiImplUtil;
 import com.goide.runconfig.testing.GoTestFinder;
 import com.goide.sdk.GoPackageUtil;
+import com.goide.util.GoStatistics;
 import com.intellij.codeInsight.completion.CompletionContributor;
 import com.intellij.codeInsight.completion.CompletionParameters;
 import com.intellij.codeInsight.completion.CompletionResultSet;
@@ -66,6 +67,17 @@ public class GoCompletionContributor extends CompletionContributor {
 
   @Override
   public void fillCompletionVariants(@NotNull CompletionParameters parameters, @NotNull CompletionResultSet result) {
+    long start = GoStatistics.startTimer();
+    try {
+      addPackageClauseVariants(parameters, result);
+      super.fillCompletionVariants(parameters, result);
+    }
+    finally {
+      GoStatistics.stopTimer("GoCompletionContributor", start);
+    }
+  }
+
+  private static void addPackageClauseVariants(@NotNull CompletionParameters parameters, @NotNull CompletionResultSet result) {
     PsiElement position = parameters.getPosition();
     PsiFile file = parameters.getOriginalFile();
     ASTNode node = position.getNode();
@@ -91,7 +103,6 @@ public class GoCompletionContributor extends CompletionContributor {
       }
       result.addElement(packageLookup(GoConstants.MAIN, GoCompletionUtil.PACKAGE_PRIORITY - 2));
     }
-    super.fillCompletionVariants(parameters, result);
   }
 
   @NotNull
@@ -18,6 +18,7 @@ package com.goide.completion;
 
 import com.goide.GoTypes;
 import com.goide.psi.*;
+import com.goide.util.GoStatistics;
 import com.intellij.codeInsight.completion.*;
 import com.intellij.codeInsight.lookup.AutoCompletionPolicy;
 import com.intellij.codeInsight.lookup.LookupElement;
@@ -76,11 +77,17 @@ public class GoKeywordCompletionContributor extends CompletionContributor implem
 
   @Override
   public void fillCompletionVariants(@NotNull CompletionParameters parameters, @NotNull CompletionResultSet result) {
-    super.fillCompletionVariants(parameters, result);
-    PsiElement position = parameters.getPosition();
-    if (insideGoOrDeferStatements().accepts(position) || anonymousFunction().accepts(position)) {
-      InsertHandler<LookupElement> insertHandler = GoKeywordCompletionProvider.createTemplateBasedInsertHandler("go_lang_anonymous_func");
-      result.addElement(GoKeywordCompletionProvider.createKeywordLookupElement("func", CONTEXT_KEYWORD_PRIORITY, insertHandler));
+    long start = GoStatistics.startTimer();
+    try {
+      super.fillCompletionVariants(parameters, result);
+      PsiElement position = parameters.getPosition();
+      if (insideGoOrDeferStatements().accepts(position) || anonymousFunction().accepts(position)) {
+        InsertHandler<LookupElement> insertHandler = GoKeywordCompletionProvider.createTemplateBasedInsertHandler("go_lang_anonymous_func");
+        result.addElement(GoKeywordCompletionProvider.createKeywordLookupElement("func", CONTEXT_KEYWORD_PRIORITY, insertHandler));
+      }
+    }
+    finally {
+      GoStatistics.stopTimer("GoKeywordCompletionContributor", start);
     }
   }
 
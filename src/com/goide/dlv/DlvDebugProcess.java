@@ -22,10 +22,15 @@ import com.goide.dlv.breakpoint.DlvBreakpointProperties;
 import com.goide.dlv.breakpoint.DlvBreakpointType;
 import com.goide.dlv.protocol.DlvApi;
 import com.goide.dlv.protocol.DlvRequest;
+import com.goide.util.GoStatistics;
 import com.goide.util.GoUtil;
 import com.intellij.execution.ExecutionResult;
 import com.intellij.execution.ui.ExecutionConsole;
 import com.intellij.icons.AllIcons;
+import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.actionSystem.ToggleAction;
 import com.intellij.openapi.Disposable;
 import com.intellij.openapi.application.AccessToken;
 import com.intellij.openapi.application.ReadAction;
@@ -34,6 +39,7 @@ import com.intellij.openapi.fileTypes.FileType;
 import com.intellij.openapi.fileTypes.PlainTextLanguage;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
@@ -43,7 +49,9 @@ import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.io.socketConnection.ConnectionStatus;
 import com.intellij.util.io.socketConnection.SocketConnectionListener;
 import com.intellij.xdebugger.XDebugSession;
+import com.intellij.xdebugger.XExpression;
 import com.intellij.xdebugger.XSourcePosition;
+import com.intellij.xdebugger.breakpoints.SuspendPolicy;
 import com.intellij.xdebugger.breakpoints.XBreakpoint;
 import com.intellij.xdebugger.breakpoints.XBreakpointHandler;
 import com.intellij.xdebugger.breakpoints.XLineBreakpoint;
@@ -57,10 +65,13 @@ import org.jetbrains.debugger.Location;
 import org.jetbrains.debugger.StepAction;
 import org.jetbrains.debugger.connection.VmConnection;
 
+import javax.swing.*;
+
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.goide.dlv.protocol.DlvApi.*;
 import static com.intellij.util.ObjectUtils.assertNotNull;
@@ -72,6 +83,7 @@ public final class DlvDebugProcess extends DebugProcessImpl<VmConnection<?>> imp
   private final static Logger LOG = Logger.getInstance(DlvDebugProcess.class);
   private final AtomicBoolean breakpointsInitiated = new AtomicBoolean();
   private final AtomicBoolean connectedListenerAdded = new AtomicBoolean();
+  @Nullable private volatile RegistrationBatch myRegistrationBatch;
   private static final Consumer<Throwable> THROWABLE_CONSUMER = new Consumer<Throwable>() {
     @Override
     public void consume(@NotNull Throwable throwable) {
@@ -89,22 +101,34 @@ public final class DlvDebugProcess extends DebugProcessImpl<VmConnection<?>> imp
       }
 
       final XBreakpoint<DlvBreakpointProperties> find = findBreak(o.breakPoint);
-      send(new DlvRequest.StacktraceGoroutine())
+      final int goroutineId = o.currentGoroutine != null ? o.currentGoroutine.id : -1;
+      send(new DlvRequest.StacktraceGoroutine(-1))
         .done(new Consumer<List<DlvApi.Location>>() {
           @Override
           public void consume(@NotNull List<DlvApi.Location> locations) {
-            DlvSuspendContext context = new DlvSuspendContext(DlvDebugProcess.this, o.currentThread.id, locations, getProcessor());
+            DlvSuspendContext context = new DlvSuspendContext(DlvDebugProcess.this, o.currentThread.id, goroutineId, locations,
+                                                              getProcessor());
             XDebugSession session = getSession();
             if (find == null) {
               session.positionReached(context);
             }
-            else {
-              session.breakpointReached(find, null, context);
+            else if (!session.breakpointReached(find, getLogMessage(o.breakPointInfo), context)) {
+              command(CONTINUE);
             }
           }
         });
     }
 
+    @Nullable
+    private String getLogMessage(@Nullable BreakpointInfo info) {
+      if (info == null || ContainerUtil.isEmpty(info.variables)) return null;
+      List<String> values = ContainerUtil.newArrayListWithCapacity(info.variables.size());
+      for (Variable variable : info.variables) {
+        values.add(variable.value);
+      }
+      return StringUtil.join(values, ", ");
+    }
+
     @Nullable
     private XBreakpoint<DlvBreakpointProperties> findBreak(@Nullable Breakpoint point) {
       return point == null ? null : breakpoints.get(point.id);
@@ -118,7 +142,18 @@ public final class DlvDebugProcess extends DebugProcessImpl<VmConnection<?>> imp
 
   @NotNull
   static <T> Promise<T> send(@NotNull DlvRequest<T> request, @NotNull DlvCommandProcessor processor) {
-    return processor.send(request).rejected(THROWABLE_CONSUMER);
+    Promise<T> promise = processor.send(request).rejected(THROWABLE_CONSUMER);
+    final long start = GoStatistics.startTimer();
+    if (GoStatistics.isEnabled()) {
+      final String name = "Delve." + request.getClass().getSimpleName();
+      promise.processed(new Consumer<T>() {
+        @Override
+        public void consume(T t) {
+          GoStatistics.stopTimer(name, start);
+        }
+      });
+    }
+    return promise;
   }
 
   @NotNull
@@ -143,6 +178,25 @@ public final class DlvDebugProcess extends DebugProcessImpl<VmConnection<?>> imp
     return executionResult == null ? super.createConsole() : executionResult.getExecutionConsole();
   }
 
+  @Override
+  public void registerAdditionalActions(@NotNull DefaultActionGroup leftToolbar,
+                                        @NotNull DefaultActionGroup topToolbar,
+                                        @NotNull DefaultActionGroup settings) {
+    super.registerAdditionalActions(leftToolbar, topToolbar, settings);
+    settings.add(new ToggleAction("Group Goroutines by Start Location") {
+      @Override
+      public boolean isSelected(AnActionEvent e) {
+        return DlvSuspendContext.isGroupedByStartLocation();
+      }
+
+      @Override
+      public void setSelected(AnActionEvent e, boolean state) {
+        PropertiesComponent.getInstance().setValue(DlvSuspendContext.GROUP_BY_START_LOCATION, Boolean.toString(state));
+        getSession().rebuildViews();
+      }
+    });
+  }
+
   @Override
   protected boolean isVmStepOutCorrect() {
     return false;
@@ -179,13 +233,50 @@ public final class DlvDebugProcess extends DebugProcessImpl<VmConnection<?>> imp
     assert getVm() != null : "Vm should be initialized";
 
     if (setBreakpoints) {
-      doSetBreakpoints();
-      resume();
+      RegistrationBatch batch = new RegistrationBatch();
+      myRegistrationBatch = batch;
+      try {
+        doSetBreakpoints();
+      }
+      finally {
+        myRegistrationBatch = null;
+      }
+      batch.allSent();
     }
 
     return true;
   }
 
+  /**
+   * Initial breakpoints are sent without waiting for each other, their presentations are updated together
+   * and the process is resumed once Delve has answered all of them.
+   */
+  private class RegistrationBatch {
+    private final AtomicInteger myPending = new AtomicInteger(1);
+    private final List<Runnable> myUpdates = ContainerUtil.createLockFreeCopyOnWriteList();
+
+    void started() {
+      myPending.incrementAndGet();
+    }
+
+    void finished(@NotNull Runnable presentationUpdate) {
+      myUpdates.add(presentationUpdate);
+      release();
+    }
+
+    void allSent() {
+      release();
+    }
+
+    private void release() {
+      if (myPending.decrementAndGet() != 0) return;
+      for (Runnable update : myUpdates) {
+        update.run();
+      }
+      resume();
+    }
+  }
+
   private void doSetBreakpoints() {
     AccessToken token = ReadAction.start();
     try {
@@ -269,24 +360,64 @@ public final class DlvDebugProcess extends DebugProcessImpl<VmConnection<?>> imp
       if (breakpointPosition == null) return;
       VirtualFile file = breakpointPosition.getFile();
       int line = breakpointPosition.getLine();
-      send(new DlvRequest.CreateBreakpoint(file.getPath(), line + 1))
+      final RegistrationBatch batch = myRegistrationBatch;
+      if (batch != null) batch.started();
+      send(createBreakpointRequest(breakpoint, file, line))
         .done(new Consumer<Breakpoint>() {
           @Override
           public void consume(@NotNull Breakpoint b) {
             breakpoint.putUserData(ID, b.id);
             breakpoints.put(b.id, breakpoint);
-            getSession().updateBreakpointPresentation(breakpoint, AllIcons.Debugger.Db_verified_breakpoint, null);
+            updatePresentation(batch, breakpoint, AllIcons.Debugger.Db_verified_breakpoint, null);
           }
         })
         .rejected(new Consumer<Throwable>() {
           @Override
           public void consume(@Nullable Throwable t) {
             String message = t == null ? null : t.getMessage();
-            getSession().updateBreakpointPresentation(breakpoint, AllIcons.Debugger.Db_invalid_breakpoint, message);
+            updatePresentation(batch, breakpoint, AllIcons.Debugger.Db_invalid_breakpoint, message);
           }
         });
     }
 
+    private void updatePresentation(@Nullable RegistrationBatch batch,
+                                    @NotNull final XLineBreakpoint<DlvBreakpointProperties> breakpoint,
+                                    @NotNull final Icon icon,
+                                    @Nullable final String message) {
+      Runnable update = new Runnable() {
+        @Override
+        public void run() {
+          getSession().updateBreakpointPresentation(breakpoint, icon, message);
+        }
+      };
+      if (batch != null) {
+        batch.finished(update);
+      }
+      else {
+        update.run();
+      }
+    }
+
+    /**
+     * Conditions and log expressions are sent to Delve; a server that doesn't support conditions still stops
+     * and the session checks the condition itself when the breakpoint is reached. Non-suspending breakpoints are sent as tracepoints. Delve still stops on them, the process is resumed
+     * once the session reports the breakpoint as not suspending, see {@link DlvDebugProcess#myStateConsumer}.
+     */
+    @NotNull
+    private DlvRequest.CreateBreakpoint createBreakpointRequest(@NotNull XLineBreakpoint<DlvBreakpointProperties> breakpoint,
+                                                               @NotNull VirtualFile file,
+                                                               int line) {
+      XExpression condition = breakpoint.getConditionExpression();
+      XExpression log = breakpoint.getLogExpressionObject();
+      return new DlvRequest.CreateBreakpoint(file.getPath(), line + 1,
+                                             condition != null ? StringUtil.nullize(condition.getExpression(), true) : null,
+                                             breakpoint.getSuspendPolicy() == SuspendPolicy.NONE,
+                                             breakpoint.isLogStack() ? 100 : 0,
+                                             log != null && !StringUtil.isEmptyOrSpaces(log.getExpression())
+                                             ? Collections.singletonList(log.getExpression())
+                                             : Collections.<String>emptyList());
+    }
+
     @Override
     public void unregisterBreakpoint(@NotNull XLineBreakpoint<DlvBreakpointProperties> breakpoint, boolean temporary) {
       XSourcePosition breakpointPosition = breakpoint.getSourcePosition();
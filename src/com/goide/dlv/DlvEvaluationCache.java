@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.dlv;
+
+import com.goide.dlv.protocol.DlvApi;
+import com.goide.dlv.protocol.DlvRequest;
+import com.intellij.util.Consumer;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.concurrency.Promise;
+
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Results of {@code EvalSymbol} for one suspend context, keyed by goroutine, frame and expression.
+ * Pending evaluations are shared too, so watches and hovers asking for the same expression send a single request.
+ * A new cache is created on every stop; it's also cleared when a variable is modified.
+ */
+class DlvEvaluationCache {
+  @NotNull private final DlvCommandProcessor myProcessor;
+  @NotNull private final ConcurrentMap<String, Promise<DlvApi.Variable>> myResults = ContainerUtil.newConcurrentMap();
+
+  public DlvEvaluationCache(@NotNull DlvCommandProcessor processor) {
+    myProcessor = processor;
+  }
+
+  @NotNull
+  public Promise<DlvApi.Variable> evaluate(@NotNull String expression, int goroutineId, int frameId) {
+    final String key = goroutineId + ":" + frameId + ":" + expression;
+    Promise<DlvApi.Variable> cached = myResults.get(key);
+    if (cached != null) return cached;
+
+    final Promise<DlvApi.Variable> promise = DlvDebugProcess.send(new DlvRequest.EvalSymbol(expression, goroutineId, frameId), myProcessor);
+    Promise<DlvApi.Variable> previous = myResults.putIfAbsent(key, promise);
+    if (previous != null) return previous;
+    promise.rejected(new Consumer<Throwable>() {
+      @Override
+      public void consume(Throwable throwable) {
+        myResults.remove(key, promise);
+      }
+    });
+    return promise;
+  }
+
+  public void clear() {
+    myResults.clear();
+  }
+}
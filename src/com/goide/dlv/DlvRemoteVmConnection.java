@@ -16,27 +16,60 @@
 
 package com.goide.dlv;
 
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.util.concurrency.PooledThreadExecutor;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.concurrency.AsyncPromise;
 import org.jetbrains.debugger.Vm;
 import org.jetbrains.debugger.connection.RemoteVmConnection;
-import org.jetbrains.io.NettyKt;
 
 import java.net.InetSocketAddress;
 
 public class DlvRemoteVmConnection extends RemoteVmConnection {
+  /**
+   * All debug sessions share this loop instead of a blocking thread per connection, it is created on the first connection
+   * and shut down with the application. Requests are not serialized: responses are matched to their callbacks by id
+   * in {@link DlvCommandProcessor}, and the callbacks themselves run off the loop, see {@link DlvVm}.
+   */
+  private static EventLoopGroup ourEventLoopGroup;
+
+  @NotNull
+  private static synchronized EventLoopGroup getEventLoopGroup() {
+    if (ourEventLoopGroup == null) {
+      final EventLoopGroup group = new NioEventLoopGroup(2, PooledThreadExecutor.INSTANCE);
+      Disposer.register(ApplicationManager.getApplication(), new Disposable() {
+        @Override
+        public void dispose() {
+          group.shutdownGracefully();
+        }
+      });
+      ourEventLoopGroup = group;
+    }
+    return ourEventLoopGroup;
+  }
+
   @NotNull
   @Override
   public Bootstrap createBootstrap(@NotNull InetSocketAddress address, @NotNull final AsyncPromise<Vm> vmResult) {
-    return NettyKt.oioClientBootstrap().handler(new ChannelInitializer() {
-      @Override
-      protected void initChannel(@NotNull Channel channel) throws Exception {
-        vmResult.setResult(new DlvVm(getDebugEventListener(), channel));
-      }
-    });
+    return new Bootstrap()
+      .group(getEventLoopGroup())
+      .channel(NioSocketChannel.class)
+      .option(ChannelOption.TCP_NODELAY, true)
+      .handler(new ChannelInitializer() {
+        @Override
+        protected void initChannel(@NotNull Channel channel) throws Exception {
+          vmResult.setResult(new DlvVm(getDebugEventListener(), channel));
+        }
+      });
   }
 
   @NotNull
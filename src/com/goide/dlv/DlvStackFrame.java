@@ -59,15 +59,21 @@ class DlvStackFrame extends XStackFrame {
   private final DlvDebugProcess myProcess;
   private final DlvApi.Location myLocation;
   private final DlvCommandProcessor myProcessor;
+  private final DlvEvaluationCache myCache;
+  private final int myGoroutineId;
   private final int myId;
 
   public DlvStackFrame(@NotNull DlvDebugProcess process, 
                        @NotNull DlvApi.Location location, 
                        @NotNull DlvCommandProcessor processor, 
+                       @NotNull DlvEvaluationCache cache,
+                       int goroutineId,
                        int id) {
     myProcess = process;
     myLocation = location;
     myProcessor = processor;
+    myCache = cache;
+    myGoroutineId = goroutineId;
     myId = id;
   }
 
@@ -76,14 +82,15 @@ class DlvStackFrame extends XStackFrame {
   public XDebuggerEvaluator getEvaluator() {
     return new XDebuggerEvaluator() {
       @Override
-      public void evaluate(@NotNull String expression,
+      public void evaluate(@NotNull final String expression,
                            @NotNull final XEvaluationCallback callback,
                            @Nullable XSourcePosition expressionPosition) {
-        myProcessor.send(new DlvRequest.EvalSymbol(expression, myId))
+        myCache.evaluate(expression, myGoroutineId, myId)
           .done(new Consumer<DlvApi.Variable>() {
             @Override
             public void consume(@NotNull DlvApi.Variable variable) {
-              callback.evaluated(createXValue(variable, AllIcons.Debugger.Watch));
+              callback.evaluated(new DlvXValue(myProcess, variable, variable.name, expression, myProcessor, myCache,
+                                               myGoroutineId, myId, AllIcons.Debugger.Watch));
             }
           })
           .rejected(new Consumer<Throwable>() {
@@ -127,7 +134,7 @@ class DlvStackFrame extends XStackFrame {
 
   @NotNull
   private XValue createXValue(@NotNull DlvApi.Variable variable, @Nullable Icon icon) {
-    return new DlvXValue(myProcess, variable, myProcessor, myId, icon);
+    return new DlvXValue(myProcess, variable, myProcessor, myCache, myGoroutineId, myId, icon);
   }
 
   @Nullable
@@ -167,12 +174,12 @@ class DlvStackFrame extends XStackFrame {
 
   @Override
   public void computeChildren(@NotNull final XCompositeNode node) {
-    send(new DlvRequest.ListLocalVars(myId)).done(new Consumer<List<DlvApi.Variable>>() {
+    send(new DlvRequest.ListLocalVars(myGoroutineId, myId)).done(new Consumer<List<DlvApi.Variable>>() {
       @Override
       public void consume(@NotNull List<DlvApi.Variable> variables) {
         final XValueChildrenList xVars = new XValueChildrenList(variables.size());
         for (DlvApi.Variable v : variables) xVars.add(v.name, createXValue(v, GoIcons.VARIABLE));
-        send(new DlvRequest.ListFunctionArgs(myId)).done(new Consumer<List<DlvApi.Variable>>() {
+        send(new DlvRequest.ListFunctionArgs(myGoroutineId, myId)).done(new Consumer<List<DlvApi.Variable>>() {
           @Override
           public void consume(@NotNull List<DlvApi.Variable> args) {
             for (DlvApi.Variable v : args) xVars.add(v.name, createXValue(v, GoIcons.PARAMETER));
@@ -17,23 +17,48 @@
 package com.goide.dlv;
 
 import com.goide.dlv.protocol.DlvApi;
+import com.goide.dlv.protocol.DlvRequest;
+import com.intellij.icons.AllIcons;
+import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.ui.ColoredTextContainer;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.util.Consumer;
 import com.intellij.util.containers.ContainerUtil;
-import com.intellij.xdebugger.frame.XExecutionStack;
-import com.intellij.xdebugger.frame.XStackFrame;
-import com.intellij.xdebugger.frame.XSuspendContext;
+import com.intellij.util.containers.MultiMap;
+import com.intellij.xdebugger.XSourcePosition;
+import com.intellij.xdebugger.evaluation.XDebuggerEvaluator;
+import com.intellij.xdebugger.frame.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.List;
+import java.util.*;
 
 class DlvSuspendContext extends XSuspendContext {
+  static final String GROUP_BY_START_LOCATION = "go.debugger.group.goroutines.by.start.location";
+  private static final int PAGE_SIZE = 100;
+
+  @NotNull private final DlvDebugProcess myProcess;
+  @NotNull private final DlvCommandProcessor myProcessor;
+  @NotNull private final DlvEvaluationCache myCache;
   @NotNull private final DlvExecutionStack myStack;
+  private final int myGoroutineId;
 
   public DlvSuspendContext(@NotNull DlvDebugProcess process,
                            int threadId,
+                           int goroutineId,
                            @NotNull List<DlvApi.Location> locations,
                            @NotNull DlvCommandProcessor processor) {
-    myStack = new DlvExecutionStack(process, threadId, locations, processor);
+    myProcess = process;
+    myProcessor = processor;
+    myGoroutineId = goroutineId;
+    myCache = new DlvEvaluationCache(processor);
+    String name = goroutineId > 0 ? "Goroutine #" + goroutineId : "Thread #" + threadId;
+    myStack = new DlvExecutionStack(process, name, -1, locations, processor, myCache);
+  }
+
+  static boolean isGroupedByStartLocation() {
+    return PropertiesComponent.getInstance().getBoolean(GROUP_BY_START_LOCATION, false);
   }
 
   @Nullable
@@ -48,24 +73,273 @@ class DlvSuspendContext extends XSuspendContext {
     return new XExecutionStack[]{myStack};
   }
 
+  /**
+   * Goroutines are grouped by their current user function or, if chosen in the debugger settings, by the place they were
+   * started at; larger groups go first. The current goroutine and single goroutines get stacks of their own, a larger group
+   * is a single stack listing its goroutines page by page, and a goroutine's frames are requested only when it is expanded.
+   * The v1 API has no paging for the goroutine list itself, so it is received at once and paged on the client.
+   */
+  @Override
+  public void computeExecutionStacks(@NotNull final XExecutionStackContainer container) {
+    DlvDebugProcess.send(new DlvRequest.ListGoroutines(), myProcessor)
+      .done(new Consumer<List<DlvApi.Goroutine>>() {
+        @Override
+        public void consume(@NotNull List<DlvApi.Goroutine> goroutines) {
+          if (container.isObsolete()) return;
+          List<XExecutionStack> stacks = createStacks(goroutines, isGroupedByStartLocation());
+          container.addExecutionStack(stacks.isEmpty() ? Collections.<XExecutionStack>singletonList(myStack) : stacks, true);
+        }
+      })
+      .rejected(new Consumer<Throwable>() {
+        @Override
+        public void consume(@NotNull Throwable throwable) {
+          container.errorOccurred(StringUtil.notNullize(throwable.getMessage()));
+        }
+      });
+  }
+
+  @NotNull
+  private List<XExecutionStack> createStacks(@NotNull List<DlvApi.Goroutine> goroutines, boolean byStartLocation) {
+    final MultiMap<String, DlvApi.Goroutine> groups = MultiMap.createLinked();
+    for (DlvApi.Goroutine goroutine : goroutines) {
+      groups.putValue(byStartLocation ? getStartLocationGroupName(goroutine) : getFunctionGroupName(goroutine), goroutine);
+    }
+    List<String> keys = ContainerUtil.newArrayList(groups.keySet());
+    Collections.sort(keys, new Comparator<String>() {
+      @Override
+      public int compare(@NotNull String o1, @NotNull String o2) {
+        int result = groups.get(o2).size() - groups.get(o1).size();
+        return result != 0 ? result : o1.compareTo(o2);
+      }
+    });
+
+    List<XExecutionStack> result = ContainerUtil.newArrayListWithCapacity(keys.size() + 1);
+    for (String key : keys) {
+      List<DlvApi.Goroutine> group = ContainerUtil.newArrayList();
+      for (DlvApi.Goroutine goroutine : groups.get(key)) {
+        if (goroutine.id == myGoroutineId) {
+          result.add(myStack);
+        }
+        else {
+          group.add(goroutine);
+        }
+      }
+      if (group.size() == 1) {
+        DlvApi.Goroutine goroutine = group.get(0);
+        result.add(new DlvExecutionStack(myProcess, "Goroutine #" + goroutine.id + " " + key, goroutine.id, null, myProcessor, myCache));
+      }
+      else if (group.size() > 1) {
+        result.add(new DlvGoroutineGroupStack(group.size() + " goroutines " + key, group));
+      }
+    }
+    return result;
+  }
+
+  @NotNull
+  private static String getFunctionGroupName(@NotNull DlvApi.Goroutine goroutine) {
+    DlvApi.Location location = getLocation(goroutine);
+    String function = location != null && location.function != null ? location.function.name : null;
+    return "in " + StringUtil.notNullize(function, "<unknown>");
+  }
+
+  @NotNull
+  private static String getStartLocationGroupName(@NotNull DlvApi.Goroutine goroutine) {
+    DlvApi.Location start = goroutine.goStatementLoc;
+    return start != null && start.file != null
+           ? "started at " + StringUtil.getShortName(start.file, '/') + ":" + start.line
+           : "started at <unknown>";
+  }
+
+  @Nullable
+  private static DlvApi.Location getLocation(@NotNull DlvApi.Goroutine goroutine) {
+    return goroutine.userCurrentLoc != null ? goroutine.userCurrentLoc : goroutine.currentLoc;
+  }
+
+  /**
+   * A group of goroutines shown as one stack: its "frames" are the goroutines themselves, added in pages.
+   */
+  private class DlvGoroutineGroupStack extends XExecutionStack {
+    @NotNull private final List<DlvApi.Goroutine> myGoroutines;
+
+    public DlvGoroutineGroupStack(@NotNull String name, @NotNull List<DlvApi.Goroutine> goroutines) {
+      super(name);
+      myGoroutines = goroutines;
+    }
+
+    @Nullable
+    @Override
+    public XStackFrame getTopFrame() {
+      return null;
+    }
+
+    @Override
+    public void computeStackFrames(int firstFrameIndex, @NotNull XStackFrameContainer container) {
+      if (firstFrameIndex >= myGoroutines.size()) {
+        container.addStackFrames(Collections.<XStackFrame>emptyList(), true);
+        return;
+      }
+      for (int from = firstFrameIndex; from < myGoroutines.size(); from += PAGE_SIZE) {
+        if (container.isObsolete()) return;
+        int to = Math.min(myGoroutines.size(), from + PAGE_SIZE);
+        List<XStackFrame> frames = ContainerUtil.newArrayListWithCapacity(to - from);
+        for (DlvApi.Goroutine goroutine : myGoroutines.subList(from, to)) {
+          frames.add(new DlvGoroutineFrame(goroutine));
+        }
+        container.addStackFrames(frames, to == myGoroutines.size());
+      }
+    }
+  }
+
+  /**
+   * A member of a goroutine group: shows the goroutine at its current location, its own frames are loaded when expanded.
+   */
+  private class DlvGoroutineFrame extends XStackFrame {
+    @NotNull private final DlvApi.Goroutine myGoroutine;
+    @Nullable private final DlvStackFrame myTopFrame;
+
+    public DlvGoroutineFrame(@NotNull DlvApi.Goroutine goroutine) {
+      myGoroutine = goroutine;
+      // variables of the top frame are available right away, as for any other stack
+      myTopFrame = goroutine.currentLoc != null
+                   ? new DlvStackFrame(myProcess, goroutine.currentLoc, myProcessor, myCache, goroutine.id, 0)
+                   : null;
+    }
+
+    @Nullable
+    @Override
+    public XDebuggerEvaluator getEvaluator() {
+      return myTopFrame != null ? myTopFrame.getEvaluator() : null;
+    }
+
+    @Nullable
+    @Override
+    public XSourcePosition getSourcePosition() {
+      return myTopFrame != null && myGoroutine.currentLoc.file != null ? myTopFrame.getSourcePosition() : null;
+    }
+
+    @Override
+    public void customizePresentation(@NotNull ColoredTextContainer component) {
+      component.append("Goroutine #" + myGoroutine.id, SimpleTextAttributes.REGULAR_ATTRIBUTES);
+      DlvApi.Location location = getLocation(myGoroutine);
+      if (location != null && location.function != null) {
+        component.append(" at " + location.function.name, SimpleTextAttributes.GRAYED_ATTRIBUTES);
+      }
+      component.setIcon(AllIcons.Debugger.ThreadSuspended);
+    }
+
+    @Override
+    public void computeChildren(@NotNull XCompositeNode node) {
+      XValueChildrenList children = new XValueChildrenList(1);
+      children.add(new DlvGoroutineStackValue(myGoroutine.id));
+      if (myTopFrame == null) {
+        node.addChildren(children, true);
+        return;
+      }
+      node.addChildren(children, false);
+      myTopFrame.computeChildren(node);
+    }
+  }
+
+  /**
+   * Frames of a grouped goroutine, requested on the first expansion; every frame expands to its variables.
+   */
+  private class DlvGoroutineStackValue extends XNamedValue {
+    private final int myId;
+
+    public DlvGoroutineStackValue(int id) {
+      super("stack");
+      myId = id;
+    }
+
+    @Override
+    public void computePresentation(@NotNull XValueNode node, @NotNull XValuePlace place) {
+      node.setPresentation(AllIcons.Debugger.StackFrame, null, "Goroutine #" + myId, true);
+    }
+
+    @Override
+    public void computeChildren(@NotNull final XCompositeNode node) {
+      DlvDebugProcess.send(new DlvRequest.StacktraceGoroutine(myId), myProcessor)
+        .done(new Consumer<List<DlvApi.Location>>() {
+          @Override
+          public void consume(@NotNull List<DlvApi.Location> locations) {
+            XValueChildrenList children = new XValueChildrenList(locations.size());
+            for (int i = 0; i < locations.size(); i++) {
+              DlvApi.Location location = locations.get(i);
+              String name = location.function != null ? location.function.name : "<unknown>";
+              children.add(new DlvFrameValue(name, new DlvStackFrame(myProcess, location, myProcessor, myCache, myId, i), location));
+            }
+            node.addChildren(children, true);
+          }
+        })
+        .rejected(new Consumer<Throwable>() {
+          @Override
+          public void consume(@NotNull Throwable throwable) {
+            node.setErrorMessage(StringUtil.notNullize(throwable.getMessage()));
+          }
+        });
+    }
+  }
+
+  private static class DlvFrameValue extends XNamedValue {
+    @NotNull private final DlvStackFrame myFrame;
+    @NotNull private final DlvApi.Location myLocation;
+
+    public DlvFrameValue(@NotNull String name, @NotNull DlvStackFrame frame, @NotNull DlvApi.Location location) {
+      super(name);
+      myFrame = frame;
+      myLocation = location;
+    }
+
+    @Override
+    public void computePresentation(@NotNull XValueNode node, @NotNull XValuePlace place) {
+      String position = myLocation.file != null ? StringUtil.getShortName(myLocation.file, '/') + ":" + myLocation.line : "";
+      node.setPresentation(AllIcons.Debugger.StackFrame, null, position, true);
+    }
+
+    @Override
+    public void computeChildren(@NotNull XCompositeNode node) {
+      myFrame.computeChildren(node);
+    }
+
+    @Override
+    public boolean canNavigateToSource() {
+      return myLocation.file != null;
+    }
+
+    @Override
+    public void computeSourcePosition(@NotNull XNavigatable navigatable) {
+      navigatable.setSourcePosition(myLocation.file != null ? myFrame.getSourcePosition() : null);
+    }
+  }
+
   private static class DlvExecutionStack extends XExecutionStack {
     @NotNull private final DlvDebugProcess myProcess;
-    @NotNull private final List<DlvApi.Location> myLocations;
     @NotNull private final DlvCommandProcessor myProcessor;
-    @NotNull private final List<DlvStackFrame> myStack;
+    @NotNull private final DlvEvaluationCache myCache;
+    private final int myGoroutineId;
+    @Nullable private volatile List<DlvStackFrame> myStack;
 
     public DlvExecutionStack(@NotNull DlvDebugProcess process,
-                             int threadId,
-                             @NotNull List<DlvApi.Location> locations,
-                             @NotNull DlvCommandProcessor processor) {
-      super("Thread #" + threadId);
+                             @NotNull String name,
+                             int goroutineId,
+                             @Nullable List<DlvApi.Location> locations,
+                             @NotNull DlvCommandProcessor processor,
+                             @NotNull DlvEvaluationCache cache) {
+      super(name);
       myProcess = process;
-      myLocations = locations;
       myProcessor = processor;
-      myStack = ContainerUtil.newArrayListWithCapacity(locations.size());
-      for (int i = 0; i < myLocations.size(); i++) {
-        myStack.add(new DlvStackFrame(myProcess, myLocations.get(i), myProcessor, i));
+      myCache = cache;
+      myGoroutineId = goroutineId;
+      myStack = locations != null ? createFrames(locations) : null;
+    }
+
+    @NotNull
+    private List<DlvStackFrame> createFrames(@NotNull List<DlvApi.Location> locations) {
+      List<DlvStackFrame> frames = ContainerUtil.newArrayListWithCapacity(locations.size());
+      for (int i = 0; i < locations.size(); i++) {
+        frames.add(new DlvStackFrame(myProcess, locations.get(i), myProcessor, myCache, myGoroutineId, i));
       }
+      return frames;
     }
 
     @Nullable
@@ -75,8 +349,27 @@ class DlvSuspendContext extends XSuspendContext {
     }
 
     @Override
-    public void computeStackFrames(int firstFrameIndex, @NotNull XStackFrameContainer container) {
-      container.addStackFrames(myStack, true);
+    public void computeStackFrames(int firstFrameIndex, @NotNull final XStackFrameContainer container) {
+      List<DlvStackFrame> stack = myStack;
+      if (stack != null) {
+        container.addStackFrames(stack, true);
+        return;
+      }
+      DlvDebugProcess.send(new DlvRequest.StacktraceGoroutine(myGoroutineId), myProcessor)
+        .done(new Consumer<List<DlvApi.Location>>() {
+          @Override
+          public void consume(@NotNull List<DlvApi.Location> locations) {
+            List<DlvStackFrame> frames = createFrames(locations);
+            myStack = frames;
+            container.addStackFrames(frames, true);
+          }
+        })
+        .rejected(new Consumer<Throwable>() {
+          @Override
+          public void consume(@NotNull Throwable throwable) {
+            container.errorOccurred(StringUtil.notNullize(throwable.getMessage()));
+          }
+        });
     }
   }
 }
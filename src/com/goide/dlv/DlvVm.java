@@ -18,6 +18,8 @@ package com.goide.dlv;
 
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.vfs.CharsetToolkit;
+import com.intellij.util.concurrency.PooledThreadExecutor;
+import com.intellij.util.concurrency.SequentialTaskExecutor;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
@@ -30,13 +32,19 @@ import org.jetbrains.io.SimpleChannelInboundHandlerAdapter;
 import org.jetbrains.jsonProtocol.Request;
 
 import java.io.IOException;
+import java.util.concurrent.Executor;
 
 public class DlvVm extends VmBase {
   private final static Logger LOG = Logger.getInstance(DlvVm.class);
+  private static final int MAX_MESSAGE_LENGTH = 64 * 1024 * 1024;
 
   @NotNull private final DlvCommandProcessor commandProcessor;
   @NotNull private final StandaloneVmHelper vmHelper;
   @NotNull private final DummyBreakpointManager breakpointManager = new DummyBreakpointManager();
+  /**
+   * Responses and their callbacks are processed here rather than on the shared event loop, in the order they arrive.
+   */
+  @NotNull private final Executor incomingExecutor = new SequentialTaskExecutor(PooledThreadExecutor.INSTANCE);
 
   public DlvVm(@NotNull DebugEventListener tabListener, @NotNull Channel channel) {
     super(tabListener);
@@ -45,20 +53,33 @@ public class DlvVm extends VmBase {
       @Override
       public boolean write(@NotNull Request message) throws IOException {
         ByteBuf content = message.getBuffer();
-        LOG.info("OUT: " + content.toString(CharsetToolkit.UTF8_CHARSET));
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("OUT: " + content.toString(CharsetToolkit.UTF8_CHARSET));
+        }
         return vmHelper.write(content);
       }
     };
     vmHelper = new StandaloneVmHelper(this, commandProcessor, channel);
 
-    channel.pipeline().addLast(new JsonObjectDecoder(), new SimpleChannelInboundHandlerAdapter() {
+    channel.pipeline().addLast(new JsonObjectDecoder(MAX_MESSAGE_LENGTH), new SimpleChannelInboundHandlerAdapter() {
       @Override
       protected void messageReceived(ChannelHandlerContext context, Object message) throws Exception {
         if (message instanceof ByteBuf) {
-          LOG.info("IN: " + ((ByteBuf)message).toString(CharsetToolkit.UTF8_CHARSET));
-          CharSequence string = ChannelBufferToString.readChars((ByteBuf)message);
-          JsonReaderEx ex = new JsonReaderEx(string);
-          getCommandProcessor().processIncomingJson(ex);
+          if (LOG.isDebugEnabled()) {
+            LOG.debug("IN: " + ((ByteBuf)message).toString(CharsetToolkit.UTF8_CHARSET));
+          }
+          final CharSequence string = ChannelBufferToString.readChars((ByteBuf)message);
+          incomingExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+              try {
+                getCommandProcessor().processIncomingJson(new JsonReaderEx(string));
+              }
+              catch (Throwable e) {
+                LOG.error(e);
+              }
+            }
+          });
         }
       }
     });
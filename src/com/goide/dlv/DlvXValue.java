@@ -57,48 +57,208 @@ import javax.swing.*;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 class DlvXValue extends XNamedValue {
+  /**
+   * The bundled Delve speaks the v1 API, where load limits are defined by the server: arrays, slices and maps come with
+   * at most 64 elements and nested structs and maps deeper than one level come without children.
+   */
+  private static final int PAGE_SIZE = 64;
+
   @NotNull
   private final DlvApi.Variable myVariable;
+  @Nullable
+  private final String myExpression;
   private final Icon myIcon;
   private final DlvDebugProcess myProcess;
   private final DlvCommandProcessor myProcessor;
+  private final DlvEvaluationCache myCache;
+  private final int myGoroutineId;
   private final int myFrameId;
+  /**
+   * The same value may be shown in several trees, e.g. after a rebuild or in a watch, every node pages on its own
+   */
+  private final ConcurrentMap<XCompositeNode, Paging> myPaging = ContainerUtil.createConcurrentWeakMap();
 
   public DlvXValue(@NotNull DlvDebugProcess process,
                    @NotNull DlvApi.Variable variable,
                    @NotNull DlvCommandProcessor processor, 
+                   @NotNull DlvEvaluationCache cache,
+                   int goroutineId,
                    int frameId, 
                    @Nullable Icon icon) {
-    super(variable.name);
+    this(process, variable, variable.name, variable.name, processor, cache, goroutineId, frameId, icon);
+  }
+
+  public DlvXValue(@NotNull DlvDebugProcess process,
+                   @NotNull DlvApi.Variable variable,
+                   @NotNull String name,
+                   @Nullable String expression,
+                   @NotNull DlvCommandProcessor processor,
+                   @NotNull DlvEvaluationCache cache,
+                   int goroutineId,
+                   int frameId,
+                   @Nullable Icon icon) {
+    super(name);
     myProcess = process;
     myVariable = variable;
+    myExpression = StringUtil.nullize(expression);
     myIcon = icon;
     myProcessor = processor;
+    myCache = cache;
+    myGoroutineId = goroutineId;
     myFrameId = frameId;
   }
 
   @Override
   public void computePresentation(@NotNull XValueNode node, @NotNull XValuePlace place) {
     XValuePresentation presentation = getPresentation();
-    boolean hasChildren = myVariable.children.length > 0;
+    Paging initial = new Paging(myVariable.children);
+    boolean hasChildren = initial.children.length > 0 || canLoadWindow(initial) || canReload(initial);
     node.setPresentation(myIcon, presentation, hasChildren);
   }
 
+  /**
+   * Children are added in pages of {@link #PAGE_SIZE}: first from the already loaded variable,
+   * then, for slices and arrays, from {@code x[i:j]} windows evaluated on demand.
+   */
   @Override
   public void computeChildren(@NotNull XCompositeNode node) {
-    DlvApi.Variable[] children = myVariable.children;
-    if (children.length == 0) {
-      super.computeChildren(node);
+    Paging paging = myPaging.get(node);
+    if (paging == null) {
+      paging = ContainerUtil.cacheOrGet(myPaging, node, new Paging(myVariable.children));
+    }
+    if (paging.loadedCount < paging.children.length) {
+      addLoadedChildren(node, paging);
+    }
+    else if (canLoadWindow(paging)) {
+      loadWindow(node, paging);
+    }
+    else if (canReload(paging)) {
+      reload(node, paging);
     }
     else {
-      XValueChildrenList list = new XValueChildrenList();
-      for (DlvApi.Variable child : children) {
-        list.add(child.name, new DlvXValue(myProcess, child, myProcessor, myFrameId, AllIcons.Nodes.Field));
-      }
-      node.addChildren(list, true);
+      super.computeChildren(node);
+    }
+  }
+
+  private boolean isIndexed() {
+    return myVariable.isSlice() || myVariable.isArray();
+  }
+
+  private boolean canLoadWindow(@NotNull Paging paging) {
+    return myExpression != null && isIndexed() && paging.loadedCount >= paging.children.length && paging.loadedCount < myVariable.len;
+  }
+
+  /**
+   * Structs and maps nested deeper than the server recursion limit come without children, re-evaluate them once
+   */
+  private boolean canReload(@NotNull Paging paging) {
+    return myExpression != null && !paging.reloaded && paging.children.length == 0 && myVariable.len > 0 &&
+           (myVariable.isStructure() || myVariable.isMap());
+  }
+
+  private void addLoadedChildren(@NotNull XCompositeNode node, @NotNull Paging paging) {
+    int end = Math.min(paging.children.length, paging.loadedCount + PAGE_SIZE);
+    XValueChildrenList list = new XValueChildrenList(end - paging.loadedCount);
+    for (int i = paging.loadedCount; i < end; i++) {
+      addChild(list, paging.children[i], i);
+    }
+    paging.loadedCount = end;
+    addChildren(node, paging, list);
+  }
+
+  private void loadWindow(@NotNull final XCompositeNode node, @NotNull final Paging paging) {
+    final int from = paging.loadedCount;
+    long to = Math.min(myVariable.len, from + PAGE_SIZE);
+    myCache.evaluate(myExpression + "[" + from + ":" + to + "]", myGoroutineId, myFrameId)
+      .done(new Consumer<DlvApi.Variable>() {
+        @Override
+        public void consume(@NotNull DlvApi.Variable window) {
+          DlvApi.Variable[] children = window.children;
+          if (children.length == 0) {
+            node.addChildren(XValueChildrenList.EMPTY, true);
+            return;
+          }
+          XValueChildrenList list = new XValueChildrenList(children.length);
+          for (int i = 0; i < children.length; i++) {
+            addChild(list, children[i], from + i);
+          }
+          paging.loadedCount = from + children.length;
+          addChildren(node, paging, list);
+        }
+      })
+      .rejected(new ErrorConsumer(node));
+  }
+
+  private void reload(@NotNull final XCompositeNode node, @NotNull final Paging paging) {
+    assert myExpression != null;
+    myCache.evaluate(myExpression, myGoroutineId, myFrameId)
+      .done(new Consumer<DlvApi.Variable>() {
+        @Override
+        public void consume(@NotNull DlvApi.Variable variable) {
+          paging.reloaded = true;
+          paging.children = variable.children;
+          if (paging.children.length == 0) {
+            node.addChildren(XValueChildrenList.EMPTY, true);
+          }
+          else {
+            addLoadedChildren(node, paging);
+          }
+        }
+      })
+      .rejected(new ErrorConsumer(node));
+  }
+
+  private void addChildren(@NotNull XCompositeNode node, @NotNull Paging paging, @NotNull XValueChildrenList list) {
+    long remaining = isIndexed() && myExpression != null ? myVariable.len - paging.loadedCount : paging.children.length - paging.loadedCount;
+    node.addChildren(list, remaining <= 0);
+    if (remaining > 0) {
+      node.tooManyChildren((int)Math.min(remaining, Integer.MAX_VALUE));
+    }
+  }
+
+  private void addChild(@NotNull XValueChildrenList list, @NotNull DlvApi.Variable child, int index) {
+    String name = child.name;
+    String expression = null;
+    if (isIndexed()) {
+      name = "[" + index + "]";
+      expression = myExpression != null ? myExpression + name : null;
+    }
+    else if (myVariable.isStructure()) {
+      expression = myExpression != null ? myExpression + "." + child.name : null;
+    }
+    else if (myVariable.isPtr()) {
+      expression = myExpression != null ? "(*" + myExpression + ")" : null;
+    }
+    list.add(name, new DlvXValue(myProcess, child, name, expression, myProcessor, myCache, myGoroutineId, myFrameId, AllIcons.Nodes.Field));
+  }
+
+  /**
+   * Children shown in a node so far
+   */
+  private static class Paging {
+    @NotNull private volatile DlvApi.Variable[] children;
+    private volatile int loadedCount;
+    private volatile boolean reloaded;
+
+    private Paging(@NotNull DlvApi.Variable[] children) {
+      this.children = children;
+    }
+  }
+
+  private static class ErrorConsumer implements Consumer<Throwable> {
+    @NotNull private final XCompositeNode myNode;
+
+    public ErrorConsumer(@NotNull XCompositeNode node) {
+      myNode = node;
+    }
+
+    @Override
+    public void consume(@NotNull Throwable throwable) {
+      myNode.setErrorMessage(StringUtil.notNullize(throwable.getMessage()));
     }
   }
 
@@ -108,10 +268,11 @@ class DlvXValue extends XNamedValue {
     return new XValueModifier() {
       @Override
       public void setValue(@NotNull String newValue, @NotNull final XModificationCallback callback) {
-        myProcessor.send(new DlvRequest.SetSymbol(myVariable.name, newValue, myFrameId))
+        DlvDebugProcess.send(new DlvRequest.SetSymbol(myVariable.name, newValue, myGoroutineId, myFrameId), myProcessor)
           .processed(new Consumer<Object>() {
             @Override
             public void consume(@Nullable Object o) {
+              myCache.clear();
               if (o != null) {
                 callback.valueModified();
               }
@@ -63,6 +63,9 @@ public class DlvApi {
     public boolean tracepoint;
     // number of stack frames to retrieve
     public int stacktrace;
+    // breakpoint condition
+    @SerializedName("Cond")
+    public String cond;
     // retrieve goroutine information
     public boolean goroutine;
     // variables to evaluate
@@ -185,6 +188,10 @@ public class DlvApi {
     public boolean isPtr() {
       return getKind() == Kind.Ptr;
     }
+
+    public boolean isMap() {
+      return getKind() == Kind.Map;
+    }
   }
 
   // Goroutine represents the information relevant to Delve from the runtime's
@@ -23,6 +23,7 @@ import org.jetbrains.jsonProtocol.OutMessage;
 import org.jetbrains.jsonProtocol.Request;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -103,34 +104,80 @@ public abstract class DlvRequest<T> extends OutMessage implements Request<T> {
 
   public final static class CreateBreakpoint extends DlvRequest<DlvApi.Breakpoint> {
     public CreateBreakpoint(String path, int line) {
+      this(path, line, null, false, 0, Collections.<String>emptyList());
+    }
+
+    /**
+     * @param tracepoint  marks the breakpoint as a tracepoint; Delve still stops the process on it,
+     *                    continuing is up to the client
+     * @param stacktrace  number of stack frames to retrieve on hit
+     */
+    public CreateBreakpoint(String path,
+                            int line,
+                            @Nullable String condition,
+                            boolean tracepoint,
+                            int stacktrace,
+                            @NotNull List<String> variables) {
       writeString("file", path);
       writeLong("line", line);
+      if (condition != null) writeString("Cond", condition);
+      if (tracepoint) writeBoolean("continue", true);
+      if (stacktrace > 0) writeLong("stacktrace", stacktrace);
+      if (!variables.isEmpty()) {
+        try {
+          JsonWriter writer = getWriter().name("variables").beginArray();
+          for (String variable : variables) {
+            writer.value(variable);
+          }
+          writer.endArray();
+        }
+        catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
     }
   }
 
   public final static class StacktraceGoroutine extends DlvRequest<List<DlvApi.Location>> {
-    public StacktraceGoroutine() {
-      writeLong("Id", -1);
+    public StacktraceGoroutine(int goroutineId) {
+      writeLong("Id", goroutineId);
       writeLong("Depth", 100);
     }
   }
 
+  public final static class ListGoroutines extends DlvRequest<List<DlvApi.Goroutine>> {
+    public ListGoroutines() {
+      try {
+        beginArguments();
+        getWriter().name(PARAMS).beginArray().nullValue().endArray();
+      }
+      catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override
+    protected boolean needObject() {
+      return false;
+    }
+  }
+
   private abstract static class Locals<T> extends DlvRequest<T> {
-    Locals(int frameId) {
-      writeLong("GoroutineID", -1);
+    Locals(int goroutineId, int frameId) {
+      writeLong("GoroutineID", goroutineId);
       writeLong("Frame", frameId);
     }
   }
 
   public final static class ListLocalVars extends Locals<List<DlvApi.Variable>> {
-    public ListLocalVars(int frameId) {
-      super(frameId);
+    public ListLocalVars(int goroutineId, int frameId) {
+      super(goroutineId, frameId);
     }
   }
 
   public final static class ListFunctionArgs extends Locals<List<DlvApi.Variable>> {
-    public ListFunctionArgs(int frameId) {
-      super(frameId);
+    public ListFunctionArgs(int goroutineId, int frameId) {
+      super(goroutineId, frameId);
     }
   }
 
@@ -158,10 +205,10 @@ public abstract class DlvRequest<T> extends OutMessage implements Request<T> {
   }
 
   public final static class EvalSymbol extends DlvRequest<DlvApi.Variable> {
-    public EvalSymbol(@NotNull String symbol, int frameId) {
+    public EvalSymbol(@NotNull String symbol, int goroutineId, int frameId) {
       try {
         getWriter().name(PARAMS).beginArray();
-        writeScope(frameId, getWriter())
+        writeScope(goroutineId, frameId, getWriter())
           .name("Symbol").value(symbol)
           .endObject().endArray();
       }
@@ -177,19 +224,19 @@ public abstract class DlvRequest<T> extends OutMessage implements Request<T> {
   }
 
   @NotNull
-  private static JsonWriter writeScope(int frameId, @NotNull JsonWriter writer) throws IOException {
+  private static JsonWriter writeScope(int goroutineId, int frameId, @NotNull JsonWriter writer) throws IOException {
     // todo: ask vladimir how to simplify this
     return writer.beginObject()
       .name("Scope").beginObject()
-      .name("GoroutineID").value(-1)
+      .name("GoroutineID").value(goroutineId)
       .name("Frame").value(frameId).endObject();
   }
 
   public final static class SetSymbol extends DlvRequest<Object> {
-    public SetSymbol(@NotNull String symbol, @NotNull String value, int frameId) {
+    public SetSymbol(@NotNull String symbol, @NotNull String value, int goroutineId, int frameId) {
       try {
         getWriter().name(PARAMS).beginArray();
-        writeScope(frameId, getWriter())
+        writeScope(goroutineId, frameId, getWriter())
           .name("Symbol").value(symbol)
           .name("Value").value(value)
           .endObject().endArray();
@@ -28,11 +28,10 @@ import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
 import com.intellij.psi.PsiWhiteSpace;
 import com.intellij.psi.TokenType;
-import com.intellij.psi.search.PsiElementProcessor;
 import com.intellij.psi.tree.IElementType;
-import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -93,7 +92,7 @@ public class GoFoldingBuilder extends CustomFoldingBuilder implements DumbAware
   protected void buildLanguageFoldRegions(@NotNull final List<FoldingDescriptor> result,
                                           @NotNull PsiElement root,
                                           @NotNull Document document,
-                                          boolean quick) {
+                                          final boolean quick) {
     if (!(root instanceof GoFile)) return;
     GoFile file = (GoFile)root;
     if (!file.isContentsLoaded()) return;
@@ -112,82 +111,96 @@ public class GoFoldingBuilder extends CustomFoldingBuilder implements DumbAware
       }
     }
 
-    for (GoBlock block : PsiTreeUtil.findChildrenOfType(file, GoBlock.class)) {
-      if (block.getTextRange().getLength() > 1) {
-        result.add(new NamedFoldingDescriptor(block.getNode(), block.getTextRange(), null, "{...}"));
+    final Set<PsiElement> processedComments = ContainerUtil.newHashSet();
+    file.accept(new PsiRecursiveElementWalkingVisitor() {
+      @Override
+      public void visitElement(PsiElement element) {
+        collectFoldRegions(element, quick, processedComments, result);
+        super.visitElement(element);
       }
-    }
+    });
+  }
 
-    for (GoExprSwitchStatement switchStatement : PsiTreeUtil.findChildrenOfType(file, GoExprSwitchStatement.class)) {
+  /**
+   * All the regions are collected by a single tree walk, comments and inner types are folded in non-quick mode only.
+   */
+  private static void collectFoldRegions(@NotNull PsiElement element,
+                                         boolean quick,
+                                         @NotNull Set<PsiElement> processedComments,
+                                         @NotNull List<FoldingDescriptor> result) {
+    if (element instanceof GoBlock) {
+      if (element.getTextRange().getLength() > 1) {
+        result.add(new NamedFoldingDescriptor(element.getNode(), element.getTextRange(), null, "{...}"));
+      }
+    }
+    else if (element instanceof GoExprSwitchStatement) {
+      GoExprSwitchStatement switchStatement = (GoExprSwitchStatement)element;
       fold(switchStatement, switchStatement.getLbrace(), switchStatement.getRbrace(), "{...}", result);
     }
-
-    for (GoSelectStatement selectStatement : PsiTreeUtil.findChildrenOfType(file, GoSelectStatement.class)) {
+    else if (element instanceof GoSelectStatement) {
+      GoSelectStatement selectStatement = (GoSelectStatement)element;
       fold(selectStatement, selectStatement.getLbrace(), selectStatement.getRbrace(), "{...}", result);
     }
-
-    for (GoTypeSpec type : file.getTypes()) {
-      foldTypes(type.getSpecType().getType(), result);
-    }
-
-    for (GoExprCaseClause caseClause : PsiTreeUtil.findChildrenOfType(file, GoExprCaseClause.class)) {
+    else if (element instanceof GoExprCaseClause) {
+      GoExprCaseClause caseClause = (GoExprCaseClause)element;
       PsiElement colon = caseClause.getColon();
       if (colon != null && !caseClause.getStatementList().isEmpty()) {
         fold(caseClause, colon.getNextSibling(), caseClause, "...", result);
       }
     }
-
-    for (GoCommClause commClause : PsiTreeUtil.findChildrenOfType(file, GoCommClause.class)) {
+    else if (element instanceof GoCommClause) {
+      GoCommClause commClause = (GoCommClause)element;
       PsiElement colon = commClause.getColon();
       if (colon != null && !commClause.getStatementList().isEmpty()) {
         fold(commClause, colon.getNextSibling(), commClause, "...", result);
       }
     }
-
-    for (GoVarDeclaration varDeclaration : PsiTreeUtil.findChildrenOfType(file, GoVarDeclaration.class)) {
+    else if (element instanceof GoVarDeclaration) {
+      GoVarDeclaration varDeclaration = (GoVarDeclaration)element;
       if (varDeclaration.getVarSpecList().size() > 1) {
         fold(varDeclaration, varDeclaration.getLparen(), varDeclaration.getRparen(), "(...)", result);
       }
     }
-
-    for (GoConstDeclaration constDeclaration : PsiTreeUtil.findChildrenOfType(file, GoConstDeclaration.class)) {
+    else if (element instanceof GoConstDeclaration) {
+      GoConstDeclaration constDeclaration = (GoConstDeclaration)element;
       if (constDeclaration.getConstSpecList().size() > 1) {
         fold(constDeclaration, constDeclaration.getLparen(), constDeclaration.getRparen(), "(...)", result);
       }
     }
-
-    for (GoTypeDeclaration typeDeclaration : PsiTreeUtil.findChildrenOfType(file, GoTypeDeclaration.class)) {
+    else if (element instanceof GoTypeDeclaration) {
+      GoTypeDeclaration typeDeclaration = (GoTypeDeclaration)element;
       if (typeDeclaration.getTypeSpecList().size() > 1) {
         fold(typeDeclaration, typeDeclaration.getLparen(), typeDeclaration.getRparen(), "(...)", result);
       }
     }
-
-    for (GoCompositeLit compositeLit : PsiTreeUtil.findChildrenOfType(file, GoCompositeLit.class)) {
-      GoLiteralValue literalValue = compositeLit.getLiteralValue();
+    else if (element instanceof GoCompositeLit) {
+      GoLiteralValue literalValue = ((GoCompositeLit)element).getLiteralValue();
       if (literalValue != null && literalValue.getElementList().size() > 1) {
         fold(literalValue, literalValue.getLbrace(), literalValue.getRbrace(), "{...}", result);
       }
     }
-
-    if (!quick) {
-      final Set<PsiElement> processedComments = ContainerUtil.newHashSet();
-      PsiTreeUtil.processElements(file, new PsiElementProcessor() {
-        @Override
-        public boolean execute(@NotNull PsiElement element) {
-          ASTNode node = element.getNode();
-          IElementType type = node.getElementType();
-          TextRange range = element.getTextRange();
-          if (type == GoParserDefinition.MULTILINE_COMMENT && range.getLength() > 2) {
-            result.add(new NamedFoldingDescriptor(node, range, null, "/*...*/"));
-          }
-          if (type == GoParserDefinition.LINE_COMMENT) {
-            addCommentFolds(element, processedComments, result);
-          }
-          foldTypes(element, result); // folding for inner types
-          return true;
-        }
-      });
+    else if (element instanceof GoStructType || element instanceof GoInterfaceType) {
+      if (!quick || isTopLevelType(element)) {
+        foldTypes(element, result);
+      }
     }
+    else if (!quick) {
+      ASTNode node = element.getNode();
+      IElementType type = node != null ? node.getElementType() : null;
+      if (type == GoParserDefinition.MULTILINE_COMMENT && element.getTextLength() > 2) {
+        result.add(new NamedFoldingDescriptor(node, element.getTextRange(), null, "/*...*/"));
+      }
+      if (type == GoParserDefinition.LINE_COMMENT) {
+        addCommentFolds(element, processedComments, result);
+      }
+    }
+  }
+
+  private static boolean isTopLevelType(@NotNull PsiElement type) {
+    PsiElement specType = type.getParent();
+    PsiElement typeSpec = specType instanceof GoSpecType ? specType.getParent() : null;
+    return typeSpec instanceof GoTypeSpec && typeSpec.getParent() instanceof GoTypeDeclaration &&
+           typeSpec.getParent().getParent() instanceof GoFile;
   }
 
   @Nullable
@@ -204,7 +217,8 @@ public class GoFoldingBuilder extends CustomFoldingBuilder implements DumbAware
     }
     if (type == GoTypes.BLOCK && CodeFoldingSettings.getInstance().COLLAPSE_METHODS) {
       ASTNode parent = node.getTreeParent();
-      return parent != null && parent.getPsi() instanceof GoFunctionOrMethodDeclaration;
+      IElementType parentType = parent != null ? parent.getElementType() : null;
+      return parentType == GoTypes.FUNCTION_DECLARATION || parentType == GoTypes.METHOD_DECLARATION;
     }
     return CodeFoldingSettings.getInstance().COLLAPSE_IMPORTS && node.getElementType() == GoTypes.IMPORT_LIST;
   }
@@ -34,6 +34,7 @@ import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.AbstractList;
 import java.util.Collections;
 import java.util.List;
 
@@ -178,7 +179,8 @@ public class GoFormattingModelBuilder implements FormattingModelBuilder {
     @Nullable private final Wrap myWrap;
     @NotNull private final CodeStyleSettings mySettings;
     @NotNull private final SpacingBuilder mySpacingBuilder;
-    @Nullable private List<Block> mySubBlocks;
+    @NotNull private final List<Block> mySubBlocks = new LazySubBlocks();
+    @Nullable private List<Block> myBuiltSubBlocks;
 
     private GoFormattingBlock(@NotNull ASTNode node,
                               @Nullable Alignment alignment,
@@ -257,10 +259,19 @@ public class GoFormattingModelBuilder implements FormattingModelBuilder {
     @NotNull
     @Override
     public List<Block> getSubBlocks() {
-      if (mySubBlocks == null) {
-        mySubBlocks = buildSubBlocks();
+      return mySubBlocks;
+    }
+
+    @NotNull
+    private List<Block> getBuiltSubBlocks() {
+      if (myBuiltSubBlocks == null) {
+        myBuiltSubBlocks = buildSubBlocks();
       }
-      return ContainerUtil.newArrayList(mySubBlocks);
+      return myBuiltSubBlocks;
+    }
+
+    private static boolean isFormattable(@NotNull ASTNode child) {
+      return child.getTextRange().getLength() != 0 && child.getElementType() != TokenType.WHITE_SPACE;
     }
 
     @NotNull
@@ -275,9 +286,8 @@ public class GoFormattingModelBuilder implements FormattingModelBuilder {
 
       List<Block> blocks = ContainerUtil.newArrayList();
       for (ASTNode child = myNode.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+        if (!isFormattable(child)) continue;
         IElementType childType = child.getElementType();
-        if (child.getTextRange().getLength() == 0) continue;
-        if (childType == TokenType.WHITE_SPACE) continue;
         IElementType substitutor = childType == MULTILINE_COMMENT ? LINE_COMMENT : childType;
         Alignment alignment = strategy != null ? strategy.getAlignment(substitutor) : null;
         GoFormattingBlock e = buildSubBlock(child, alignment);
@@ -401,5 +411,31 @@ public class GoFormattingModelBuilder implements FormattingModelBuilder {
     public boolean isLeaf() {
       return myNode.getFirstChildNode() == null;
     }
+
+    /**
+     * The formatter asks blocks outside of the formatted range only whether they have children and then treats them
+     * as leaves, so emptiness is answered from the tree and child blocks are built on the first real access.
+     * The list is shared between callers and is not modifiable.
+     */
+    private class LazySubBlocks extends AbstractList<Block> {
+      @Override
+      public Block get(int index) {
+        return getBuiltSubBlocks().get(index);
+      }
+
+      @Override
+      public int size() {
+        return getBuiltSubBlocks().size();
+      }
+
+      @Override
+      public boolean isEmpty() {
+        if (myBuiltSubBlocks != null) return myBuiltSubBlocks.isEmpty();
+        for (ASTNode child = myNode.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+          if (isFormattable(child)) return false;
+        }
+        return true;
+      }
+    }
   }
 }
\ No newline at end of file
@@ -18,10 +18,6 @@ package com.goide.inspections;
 
 import com.goide.psi.*;
 import com.goide.psi.impl.GoPsiImplUtil;
-import com.goide.sdk.GoPackageUtil;
-import com.goide.stubs.index.GoFunctionIndex;
-import com.goide.stubs.index.GoIdFilter;
-import com.goide.stubs.index.GoMethodIndex;
 import com.goide.stubs.types.GoMethodDeclarationStubElementType;
 import com.intellij.codeInspection.LocalInspectionToolSession;
 import com.intellij.codeInspection.ProblemsHolder;
@@ -29,10 +25,8 @@ import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.util.Comparing;
+import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.util.Processor;
-import com.intellij.util.indexing.IdFilter;
 import org.jetbrains.annotations.NotNull;
 
 import static com.goide.GoConstants.INIT;
@@ -44,64 +38,54 @@ public class GoDuplicateFunctionOrMethodInspection extends GoInspectionBase {
   protected GoVisitor buildGoVisitor(@NotNull final ProblemsHolder holder, @NotNull LocalInspectionToolSession session) {
     return new GoVisitor() {
       @Override
-      public void visitMethodDeclaration(@NotNull final GoMethodDeclaration method) {
+      public void visitMethodDeclaration(@NotNull GoMethodDeclaration method) {
         if (method.isBlank()) return;
 
-        final String methodName = method.getName();
+        String methodName = method.getName();
         if (methodName == null) return;
 
         String typeText = GoMethodDeclarationStubElementType.calcTypeText(method);
         if (typeText == null) return;
 
-        final GoFile file = method.getContainingFile();
-        GlobalSearchScope scope = GoPackageUtil.packageScope(file);
-        IdFilter idFilter = GoIdFilter.getFilesFilter(scope);
-        final Module module = ModuleUtilCore.findModuleForPsiElement(file);
-        String key = file.getPackageName() + "." + typeText;
-        GoMethodIndex.process(key, file.getProject(), scope, idFilter, new Processor<GoMethodDeclaration>() {
-          @Override
-          public boolean process(GoMethodDeclaration declaration) {
-            ProgressManager.checkCanceled();
-            if (!method.isEquivalentTo(declaration)) {
-              if (Comparing.equal(declaration.getName(), methodName)
-                  && GoPsiImplUtil.allowed(declaration.getContainingFile(), file, module)) {
-                PsiElement identifier = method.getNameIdentifier();
-                holder.registerProblem(identifier == null ? method : identifier, "Duplicate method name");
-                return false;
-              }
-            }
-            return true;
+        GoFile file = method.getContainingFile();
+        PsiDirectory directory = file.getParent();
+        if (directory == null) return;
+        Module module = ModuleUtilCore.findModuleForPsiElement(file);
+        GoPackageDeclarations declarations = GoPackageDeclarations.getInstance(directory);
+        for (GoMethodDeclaration declaration : declarations.getMethods(file.getPackageName(), typeText, methodName)) {
+          ProgressManager.checkCanceled();
+          if (!method.isEquivalentTo(declaration) && GoPsiImplUtil.allowed(declaration.getContainingFile(), file, module)) {
+            PsiElement identifier = method.getNameIdentifier();
+            holder.registerProblem(identifier == null ? method : identifier, "Duplicate method name");
+            return;
           }
-        });
+        }
       }
 
       @Override
-      public void visitFunctionDeclaration(@NotNull final GoFunctionDeclaration func) {
+      public void visitFunctionDeclaration(@NotNull GoFunctionDeclaration func) {
         if (func.isBlank()) return;
 
         String funcName = func.getName();
         if (funcName == null) return;
         if (INIT.equals(funcName) && zeroArity(func)) return;
 
-        final GoFile file = func.getContainingFile();
-        final boolean isMainFunction = MAIN.equals(funcName) && MAIN.equals(file.getPackageName()) && zeroArity(func);
-        final Module module = ModuleUtilCore.findModuleForPsiElement(file);
-        final GlobalSearchScope scope = GoPackageUtil.packageScope(file);
-        final IdFilter idFilter = GoIdFilter.getFilesFilter(scope);
-        GoFunctionIndex.process(funcName, file.getProject(), scope, idFilter, new Processor<GoFunctionDeclaration>() {
-          @Override
-          public boolean process(GoFunctionDeclaration declaration) {
-            ProgressManager.checkCanceled();
-            if (!func.isEquivalentTo(declaration) && GoPsiImplUtil.allowed(declaration.getContainingFile(), file, module)) {
-              if (!isMainFunction || Comparing.equal(declaration.getContainingFile(), file)) {
-                PsiElement identifier = func.getNameIdentifier();
-                holder.registerProblem(identifier == null ? func : identifier, "Duplicate function name");
-                return false;
-              }
+        GoFile file = func.getContainingFile();
+        PsiDirectory directory = file.getParent();
+        if (directory == null) return;
+        boolean isMainFunction = MAIN.equals(funcName) && MAIN.equals(file.getPackageName()) && zeroArity(func);
+        Module module = ModuleUtilCore.findModuleForPsiElement(file);
+        GoPackageDeclarations declarations = GoPackageDeclarations.getInstance(directory);
+        for (GoFunctionDeclaration declaration : declarations.getFunctions(file.getPackageName(), funcName)) {
+          ProgressManager.checkCanceled();
+          if (!func.isEquivalentTo(declaration) && GoPsiImplUtil.allowed(declaration.getContainingFile(), file, module)) {
+            if (!isMainFunction || Comparing.equal(declaration.getContainingFile(), file)) {
+              PsiElement identifier = func.getNameIdentifier();
+              holder.registerProblem(identifier == null ? func : identifier, "Duplicate function name");
+              return;
             }
-            return true;
           }
-        });
+        }
       }
     };
   }
@@ -20,7 +20,6 @@ import com.goide.GoConstants;
 import com.goide.psi.GoFile;
 import com.goide.psi.GoPackageClause;
 import com.goide.quickfix.GoMultiplePackagesQuickFix;
-import com.goide.sdk.GoPackageUtil;
 import com.intellij.codeInspection.LocalQuickFix;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.ide.scratch.ScratchFileType;
@@ -39,8 +38,8 @@ public class GoMultiplePackagesInspection extends GoInspectionBase {
       String packageName = file.getPackageName();
       if (packageName == null || packageName.equals(GoConstants.DOCUMENTATION)) return;
       PsiDirectory dir = file.getContainingDirectory();
-      Collection<String> packages = GoPackageUtil.getAllPackagesInDirectory(dir, null, true);
-      packages.remove(GoConstants.DOCUMENTATION);
+      if (dir == null) return;
+      Collection<String> packages = GoPackageDeclarations.getInstance(dir).getPackageNames();
       if (packages.size() > 1) {
         Collection<LocalQuickFix> fixes = ContainerUtil.newArrayList();
         if (problemsHolder.isOnTheFly()) {
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.inspections;
+
+import com.goide.GoConstants;
+import com.goide.project.GoBuildTargetSettings;
+import com.goide.project.GoModuleSettings;
+import com.goide.psi.GoFile;
+import com.goide.psi.GoFunctionDeclaration;
+import com.goide.psi.GoMethodDeclaration;
+import com.goide.psi.impl.GoPsiImplUtil;
+import com.goide.stubs.types.GoMethodDeclarationStubElementType;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.containers.MultiMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Top-level declarations of all packages in a directory, collected from file stubs in one pass
+ * and shared by the inspections looking for duplicates until the next PSI modification.
+ */
+public class GoPackageDeclarations {
+  private final MultiMap<String, GoFunctionDeclaration> myFunctions = MultiMap.create();
+  private final MultiMap<String, GoMethodDeclaration> myMethods = MultiMap.create();
+  private final Set<String> myPackageNames = ContainerUtil.newLinkedHashSet();
+
+  @NotNull
+  public static GoPackageDeclarations getInstance(@NotNull final PsiDirectory directory) {
+    return CachedValuesManager.getCachedValue(directory, new CachedValueProvider<GoPackageDeclarations>() {
+      @Nullable
+      @Override
+      public Result<GoPackageDeclarations> compute() {
+        Module module = ModuleUtilCore.findModuleForPsiElement(directory);
+        GoBuildTargetSettings buildTargetSettings = module != null ? GoModuleSettings.getInstance(module).getBuildTargetSettings() : null;
+        GoPackageDeclarations declarations = new GoPackageDeclarations(directory, module);
+        return buildTargetSettings != null
+               ? Result.create(declarations, PsiModificationTracker.MODIFICATION_COUNT, buildTargetSettings)
+               : Result.create(declarations, PsiModificationTracker.MODIFICATION_COUNT);
+      }
+    });
+  }
+
+  private GoPackageDeclarations(@NotNull PsiDirectory directory, @Nullable Module module) {
+    for (PsiFile psiFile : directory.getFiles()) {
+      if (!(psiFile instanceof GoFile)) continue;
+      GoFile file = (GoFile)psiFile;
+      String packageName = file.getPackageName();
+      if (StringUtil.isEmpty(packageName)) continue;
+      if (GoPsiImplUtil.allowed(file, null, module)) {
+        myPackageNames.add(file.getCanonicalPackageName());
+      }
+      for (GoFunctionDeclaration function : file.getFunctions()) {
+        String name = function.getName();
+        if (name != null) {
+          myFunctions.putValue(packageName + "." + name, function);
+        }
+      }
+      for (GoMethodDeclaration method : file.getMethods()) {
+        String name = method.getName();
+        String typeText = GoMethodDeclarationStubElementType.calcTypeText(method);
+        if (name != null && typeText != null) {
+          myMethods.putValue(packageName + "." + typeText + "." + name, method);
+        }
+      }
+    }
+  }
+
+  /**
+   * Package names of files matching the build target of the directory module, with test suffixes trimmed
+   */
+  @NotNull
+  public Collection<String> getPackageNames() {
+    Set<String> result = ContainerUtil.newLinkedHashSet(myPackageNames);
+    result.remove(GoConstants.DOCUMENTATION);
+    return result;
+  }
+
+  @NotNull
+  public Collection<GoFunctionDeclaration> getFunctions(@Nullable String packageName, @NotNull String name) {
+    return packageName != null ? myFunctions.get(packageName + "." + name) : Collections.<GoFunctionDeclaration>emptyList();
+  }
+
+  @NotNull
+  public Collection<GoMethodDeclaration> getMethods(@Nullable String packageName, @NotNull String typeText, @NotNull String name) {
+    return packageName != null
+           ? myMethods.get(packageName + "." + typeText + "." + name)
+           : Collections.<GoMethodDeclaration>emptyList();
+  }
+}
@@ -17,6 +17,7 @@
 package com.goide.inspections;
 
 import com.goide.psi.*;
+import com.goide.psi.impl.GoTypeUtil;
 import com.goide.quickfix.GoDeleteAmpersandAndTypeInCompositeLitQuickFix;
 import com.goide.quickfix.GoDeleteQuickFix;
 import com.intellij.codeInspection.CleanupLocalInspectionTool;
@@ -93,15 +94,9 @@ public class GoRedundantTypeDeclInCompositeLit extends GoInspectionBase implemen
     if (pattern == null || !pattern.isValid() || !value.isValid()) {
       return false;
     }
-
     if (pattern.getTypeReferenceExpression() == null || value.getTypeReferenceExpression() == null) {
       return false;
     }
-
-    if (pattern.getTypeReferenceExpression().resolve() != value.getTypeReferenceExpression().resolve()) {
-      return false;
-    }
-    //TODO Complex type comparison
-    return true;
+    return GoTypeUtil.areIdentical(pattern, value.getType());
   }
 }
\ No newline at end of file
@@ -19,7 +19,6 @@ package com.goide.inspections;
 import com.goide.codeInsight.imports.GoImportOptimizer;
 import com.goide.psi.GoFile;
 import com.goide.psi.GoImportSpec;
-import com.goide.psi.GoRecursiveVisitor;
 import com.goide.psi.impl.GoElementFactory;
 import com.goide.quickfix.GoRenameQuickFix;
 import com.intellij.codeInspection.*;
@@ -29,7 +28,6 @@ import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiReference;
 import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.containers.MultiMap;
 import org.jetbrains.annotations.NotNull;
@@ -71,17 +69,6 @@ public class GoUnusedImportInspection extends GoInspectionBase {
     }
   };
 
-  private static void resolveAllReferences(@NotNull GoFile file) {
-    file.accept(new GoRecursiveVisitor() {
-      @Override
-      public void visitElement(@NotNull PsiElement o) {
-        for (PsiReference reference : o.getReferences()) {
-          reference.resolve();
-        }
-      }
-    });
-  }
-
   @Override
   protected void checkFile(@NotNull GoFile file, @NotNull ProblemsHolder problemsHolder) {
     MultiMap<String, GoImportSpec> importMap = file.getImportMap();
@@ -112,9 +99,6 @@ public class GoUnusedImportInspection extends GoInspectionBase {
       }
     }
 
-    if (!problemsHolder.isOnTheFly()) {
-      resolveAllReferences(file);
-    }
     MultiMap<String, GoImportSpec> unusedImportsMap = GoImportOptimizer.filterUnusedImports(file, importMap);
     Set<GoImportSpec> unusedImportSpecs = ContainerUtil.newHashSet(unusedImportsMap.values());
     for (PsiElement importEntry : unusedImportSpecs) {
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.inspections.batch;
+
+import com.google.gson.stream.JsonWriter;
+import com.intellij.codeHighlighting.HighlightDisplayLevel;
+import com.intellij.codeInspection.LocalInspectionTool;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams problems found by {@link GoBatchInspectionRunner} as they are reported.
+ * Writing is synchronized, so the report may be shared between worker threads.
+ */
+public abstract class GoBatchInspectionReport {
+  public static final String JSON = "json";
+  public static final String SARIF = "sarif";
+
+  protected final JsonWriter myWriter;
+
+  protected GoBatchInspectionReport(@NotNull Writer writer) {
+    myWriter = new JsonWriter(writer);
+    myWriter.setIndent("  ");
+  }
+
+  @NotNull
+  public static GoBatchInspectionReport create(@NotNull String format, @NotNull Writer writer) {
+    if (SARIF.equals(format)) return new Sarif(writer);
+    if (JSON.equals(format)) return new Json(writer);
+    throw new IllegalArgumentException("Unknown report format: " + format + ", expected " + JSON + " or " + SARIF);
+  }
+
+  public abstract void start(@NotNull List<LocalInspectionTool> tools) throws IOException;
+
+  public abstract void problem(@NotNull LocalInspectionTool tool,
+                               @NotNull String path,
+                               int line,
+                               int column,
+                               @NotNull String message) throws IOException;
+
+  /**
+   * @param timings total time spent in every inspection, in milliseconds
+   */
+  public abstract void finish(@NotNull Map<String, Long> timings, int filesCount, long totalMs) throws IOException;
+
+  public void close() throws IOException {
+    myWriter.close();
+  }
+
+  protected void writeTimings(@NotNull Map<String, Long> timings, int filesCount, long totalMs) throws IOException {
+    myWriter.name("files").value(filesCount);
+    myWriter.name("totalMs").value(totalMs);
+    myWriter.name("timings").beginObject();
+    for (Map.Entry<String, Long> entry : timings.entrySet()) {
+      myWriter.name(entry.getKey()).value(entry.getValue());
+    }
+    myWriter.endObject();
+  }
+
+  private static class Json extends GoBatchInspectionReport {
+    private Json(@NotNull Writer writer) {
+      super(writer);
+    }
+
+    @Override
+    public void start(@NotNull List<LocalInspectionTool> tools) throws IOException {
+      myWriter.beginObject();
+      myWriter.name("problems").beginArray();
+    }
+
+    @Override
+    public synchronized void problem(@NotNull LocalInspectionTool tool,
+                                     @NotNull String path,
+                                     int line,
+                                     int column,
+                                     @NotNull String message) throws IOException {
+      myWriter.beginObject();
+      myWriter.name("inspection").value(tool.getShortName());
+      myWriter.name("severity").value(tool.getDefaultLevel().getName());
+      myWriter.name("file").value(path);
+      myWriter.name("line").value(line + 1);
+      myWriter.name("column").value(column + 1);
+      myWriter.name("message").value(message);
+      myWriter.endObject();
+      myWriter.flush();
+    }
+
+    @Override
+    public void finish(@NotNull Map<String, Long> timings, int filesCount, long totalMs) throws IOException {
+      myWriter.endArray();
+      writeTimings(timings, filesCount, totalMs);
+      myWriter.endObject();
+      myWriter.flush();
+    }
+  }
+
+  /**
+   * Static Analysis Results Interchange Format, http://docs.oasis-open.org/sarif/sarif/v2.1.0/sarif-v2.1.0.html
+   */
+  private static class Sarif extends GoBatchInspectionReport {
+    private Sarif(@NotNull Writer writer) {
+      super(writer);
+    }
+
+    @Override
+    public void start(@NotNull List<LocalInspectionTool> tools) throws IOException {
+      myWriter.beginObject();
+      myWriter.name("version").value("2.1.0");
+      myWriter.name("$schema").value("https://json.schemastore.org/sarif-2.1.0.json");
+      myWriter.name("runs").beginArray();
+      myWriter.beginObject();
+      myWriter.name("tool").beginObject();
+      myWriter.name("driver").beginObject();
+      myWriter.name("name").value("Go inspections");
+      myWriter.name("rules").beginArray();
+      for (LocalInspectionTool tool : tools) {
+        myWriter.beginObject();
+        myWriter.name("id").value(tool.getShortName());
+        myWriter.name("shortDescription").beginObject().name("text").value(tool.getDisplayName()).endObject();
+        myWriter.name("defaultConfiguration").beginObject().name("level").value(getLevel(tool)).endObject();
+        myWriter.endObject();
+      }
+      myWriter.endArray();
+      myWriter.endObject();
+      myWriter.endObject();
+      myWriter.name("results").beginArray();
+    }
+
+    @Override
+    public synchronized void problem(@NotNull LocalInspectionTool tool,
+                                     @NotNull String path,
+                                     int line,
+                                     int column,
+                                     @NotNull String message) throws IOException {
+      myWriter.beginObject();
+      myWriter.name("ruleId").value(tool.getShortName());
+      myWriter.name("level").value(getLevel(tool));
+      myWriter.name("message").beginObject().name("text").value(message).endObject();
+      myWriter.name("locations").beginArray().beginObject();
+      myWriter.name("physicalLocation").beginObject();
+      myWriter.name("artifactLocation").beginObject().name("uri").value(path).endObject();
+      myWriter.name("region").beginObject().name("startLine").value(line + 1).name("startColumn").value(column + 1).endObject();
+      myWriter.endObject();
+      myWriter.endObject().endArray();
+      myWriter.endObject();
+      myWriter.flush();
+    }
+
+    @Override
+    public void finish(@NotNull Map<String, Long> timings, int filesCount, long totalMs) throws IOException {
+      myWriter.endArray();
+      myWriter.name("properties").beginObject();
+      writeTimings(timings, filesCount, totalMs);
+      myWriter.endObject();
+      myWriter.endObject();
+      myWriter.endArray();
+      myWriter.endObject();
+      myWriter.flush();
+    }
+
+    @NotNull
+    private static String getLevel(@NotNull LocalInspectionTool tool) {
+      HighlightDisplayLevel level = tool.getDefaultLevel();
+      if (level == HighlightDisplayLevel.ERROR) return "error";
+      if (level == HighlightDisplayLevel.WARNING) return "warning";
+      return "note";
+    }
+  }
+}
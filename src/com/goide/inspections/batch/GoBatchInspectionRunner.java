@@ -0,0 +1,212 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.inspections.batch;
+
+import com.goide.GoFileType;
+import com.goide.GoLanguage;
+import com.intellij.codeInspection.*;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.Processor;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.containers.MultiMap;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs Go inspections over all Go files of a project without an editor.
+ * <p/>
+ * Files are sharded by package (directory) and packages are processed concurrently, each in its own read action,
+ * so the project indices are shared between workers.
+ */
+public class GoBatchInspectionRunner {
+  private static final Logger LOG = Logger.getInstance(GoBatchInspectionRunner.class);
+
+  @NotNull private final Project myProject;
+  @NotNull private final List<LocalInspectionTool> myTools;
+  @NotNull private final GoBatchInspectionReport myReport;
+  private final ConcurrentMap<String, AtomicLong> myTimings = ContainerUtil.newConcurrentMap();
+
+  public GoBatchInspectionRunner(@NotNull Project project,
+                                 @NotNull List<LocalInspectionTool> tools,
+                                 @NotNull GoBatchInspectionReport report) {
+    myProject = project;
+    myTools = tools;
+    myReport = report;
+    for (LocalInspectionTool tool : tools) {
+      myTimings.put(tool.getShortName(), new AtomicLong());
+    }
+  }
+
+  /**
+   * @param shortNames inspections to run, all Go inspections enabled by default if empty
+   */
+  @NotNull
+  public static List<LocalInspectionTool> getGoInspections(@NotNull Collection<String> shortNames) {
+    List<LocalInspectionTool> result = ContainerUtil.newArrayList();
+    for (LocalInspectionEP ep : LocalInspectionEP.LOCAL_INSPECTION.getExtensions()) {
+      if (!GoLanguage.INSTANCE.getID().equals(ep.language)) continue;
+      if (shortNames.isEmpty() ? !ep.enabledByDefault : !shortNames.contains(ep.getShortName())) continue;
+      InspectionProfileEntry tool = ep.instantiateTool();
+      if (tool instanceof LocalInspectionTool) {
+        result.add((LocalInspectionTool)tool);
+      }
+    }
+    return result;
+  }
+
+  public void run(@NotNull ProgressIndicator indicator) throws IOException {
+    long start = System.currentTimeMillis();
+    List<List<VirtualFile>> packages = ApplicationManager.getApplication().runReadAction(new Computable<List<List<VirtualFile>>>() {
+      @Override
+      public List<List<VirtualFile>> compute() {
+        return collectPackages();
+      }
+    });
+    int filesCount = 0;
+    for (List<VirtualFile> files : packages) {
+      filesCount += files.size();
+    }
+
+    myReport.start(myTools);
+    final List<IOException> errors = Collections.synchronizedList(ContainerUtil.<IOException>newArrayList());
+    boolean completed = JobLauncher.getInstance().invokeConcurrentlyUnderProgress(packages, indicator, true, false,
+                                                                                  new Processor<List<VirtualFile>>() {
+      @Override
+      public boolean process(@NotNull List<VirtualFile> files) {
+        try {
+          for (VirtualFile file : files) {
+            inspectFile(file);
+          }
+          return true;
+        }
+        catch (IOException e) {
+          errors.add(e);
+          return false;
+        }
+      }
+    });
+    if (!errors.isEmpty()) throw errors.get(0);
+    if (!completed) throw new ProcessCanceledException();
+
+    Map<String, Long> timings = ContainerUtil.newLinkedHashMap();
+    for (LocalInspectionTool tool : myTools) {
+      timings.put(tool.getShortName(), TimeUnit.NANOSECONDS.toMillis(myTimings.get(tool.getShortName()).get()));
+    }
+    myReport.finish(timings, filesCount, System.currentTimeMillis() - start);
+  }
+
+  /**
+   * Project Go files grouped by directory, largest packages first to keep workers evenly loaded
+   */
+  @NotNull
+  private List<List<VirtualFile>> collectPackages() {
+    MultiMap<VirtualFile, VirtualFile> byDirectory = MultiMap.createLinked();
+    for (VirtualFile file : FileTypeIndex.getFiles(GoFileType.INSTANCE, GlobalSearchScope.projectScope(myProject))) {
+      byDirectory.putValue(file.getParent(), file);
+    }
+    List<List<VirtualFile>> result = ContainerUtil.newArrayList();
+    for (Map.Entry<VirtualFile, Collection<VirtualFile>> entry : byDirectory.entrySet()) {
+      result.add(ContainerUtil.newArrayList(entry.getValue()));
+    }
+    Collections.sort(result, new Comparator<List<VirtualFile>>() {
+      @Override
+      public int compare(@NotNull List<VirtualFile> o1, @NotNull List<VirtualFile> o2) {
+        return o2.size() - o1.size();
+      }
+    });
+    return result;
+  }
+
+  private void inspectFile(@NotNull VirtualFile virtualFile) throws IOException {
+    ProgressManager.checkCanceled();
+    PsiFile file = virtualFile.isValid() ? PsiManager.getInstance(myProject).findFile(virtualFile) : null;
+    if (file == null) return;
+    List<PsiElement> elements = SyntaxTraverser.psiTraverser(file).toList();
+    InspectionManager manager = InspectionManager.getInstance(myProject);
+    for (LocalInspectionTool tool : myTools) {
+      ProgressManager.checkCanceled();
+      long start = System.nanoTime();
+      ProblemsHolder holder = new ProblemsHolder(manager, file, false);
+      LocalInspectionToolSession session = new LocalInspectionToolSession(file, 0, file.getTextLength());
+      try {
+        tool.inspectionStarted(session, false);
+        PsiElementVisitor visitor = tool.buildVisitor(holder, false, session);
+        for (PsiElement element : elements) {
+          element.accept(visitor);
+        }
+        tool.inspectionFinished(session, holder);
+      }
+      catch (ProcessCanceledException e) {
+        throw e;
+      }
+      catch (Exception e) {
+        LOG.error("Inspection " + tool.getShortName() + " failed on " + virtualFile.getPath(), e);
+      }
+      finally {
+        myTimings.get(tool.getShortName()).addAndGet(System.nanoTime() - start);
+      }
+      for (ProblemDescriptor descriptor : holder.getResults()) {
+        reportProblem(tool, file, descriptor);
+      }
+    }
+  }
+
+  private void reportProblem(@NotNull LocalInspectionTool tool, @NotNull PsiFile file, @NotNull ProblemDescriptor descriptor)
+    throws IOException {
+    PsiElement element = descriptor.getPsiElement();
+    int offset = 0;
+    if (element != null) {
+      TextRange rangeInElement = descriptor.getTextRangeInElement();
+      offset = element.getTextRange().getStartOffset() + (rangeInElement != null ? rangeInElement.getStartOffset() : 0);
+    }
+    Document document = PsiDocumentManager.getInstance(myProject).getDocument(file);
+    int line = 0;
+    int column = offset;
+    if (document != null && offset <= document.getTextLength()) {
+      line = document.getLineNumber(offset);
+      column = offset - document.getLineStartOffset(line);
+    }
+    String message = ProblemDescriptorUtil.renderDescriptionMessage(descriptor, element);
+    myReport.problem(tool, getPath(file.getVirtualFile()), line, column, message);
+  }
+
+  @NotNull
+  private String getPath(@NotNull VirtualFile file) {
+    VirtualFile baseDir = myProject.getBaseDir();
+    String relativePath = baseDir != null ? VfsUtilCore.getRelativePath(file, baseDir) : null;
+    return relativePath != null ? relativePath : file.getPath();
+  }
+}
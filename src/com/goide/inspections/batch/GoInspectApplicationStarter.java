@@ -0,0 +1,122 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.inspections.batch;
+
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.openapi.application.ApplicationStarterEx;
+import com.intellij.openapi.application.ex.ApplicationManagerEx;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.CharsetToolkit;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Command line entry point: {@code goinspect <project path> [-format json|sarif] [-output <file>] [-inspections <name,...>]}
+ */
+public class GoInspectApplicationStarter extends ApplicationStarterEx {
+  private static final String USAGE = "Usage: goinspect <project path> [-format json|sarif] [-output <file>] [-inspections <name,...>]";
+
+  @Override
+  public String getCommandName() {
+    return "goinspect";
+  }
+
+  @Override
+  public boolean isHeadless() {
+    return true;
+  }
+
+  @Override
+  public void premain(String[] args) {
+    if (args.length < 2) {
+      System.err.println(USAGE);
+      System.exit(1);
+    }
+  }
+
+  @Override
+  public void main(String[] args) {
+    int exitCode;
+    try {
+      exitCode = run(args);
+    }
+    catch (Throwable e) {
+      e.printStackTrace();
+      exitCode = 1;
+    }
+    System.exit(exitCode);
+  }
+
+  private static int run(@NotNull String[] args) throws IOException {
+    String projectPath = null;
+    String format = GoBatchInspectionReport.JSON;
+    String output = null;
+    Collection<String> inspections = Collections.emptyList();
+    for (int i = 1; i < args.length; i++) {
+      String arg = args[i];
+      boolean hasValue = i + 1 < args.length;
+      if ("-format".equals(arg) && hasValue) {
+        format = args[++i];
+      }
+      else if ("-output".equals(arg) && hasValue) {
+        output = args[++i];
+      }
+      else if ("-inspections".equals(arg) && hasValue) {
+        inspections = StringUtil.split(args[++i], ",");
+      }
+      else if (projectPath == null && !arg.startsWith("-")) {
+        projectPath = arg;
+      }
+      else {
+        System.err.println(USAGE);
+        return 1;
+      }
+    }
+    if (projectPath == null) {
+      System.err.println(USAGE);
+      return 1;
+    }
+
+    ApplicationManagerEx.getApplicationEx().setSaveAllowed(false);
+    Project project = ProjectUtil.openOrImport(projectPath, null, false);
+    if (project == null) {
+      System.err.println("Unable to open project: " + projectPath);
+      return 1;
+    }
+    List<LocalInspectionTool> tools = GoBatchInspectionRunner.getGoInspections(inspections);
+    Writer writer = new OutputStreamWriter(output != null ? new FileOutputStream(output) : System.out, CharsetToolkit.UTF8_CHARSET);
+    GoBatchInspectionReport report = GoBatchInspectionReport.create(format, writer);
+    try {
+      new GoBatchInspectionRunner(project, tools, report).run(new EmptyProgressIndicator());
+    }
+    finally {
+      report.close();
+      ProjectUtil.closeAndDispose(project);
+    }
+    return 0;
+  }
+}
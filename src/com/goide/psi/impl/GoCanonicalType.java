@@ -0,0 +1,403 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.psi.impl;
+
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * PSI-independent representation of a Go type.
+ * <p/>
+ * Instances are interned by {@link GoCanonicalTypes}, so two types are identical in the sense of
+ * https://golang.org/ref/spec#Type_identity if and only if they are the same resolved object.
+ * Unresolved types and types built from them are never identical to anything, see {@link #isResolved()}.
+ * Underlying types and method sets of named types are computed once and kept on the instance.
+ */
+public final class GoCanonicalType {
+  public enum Kind {BASIC, NAMED, POINTER, ARRAY, SLICE, MAP, CHAN, FUNC, STRUCT, INTERFACE, TUPLE, UNKNOWN}
+
+  public enum ChanDirection {BOTH, SEND, RECEIVE}
+
+  public static final GoCanonicalType UNKNOWN = new GoCanonicalType(Kind.UNKNOWN, "?", null, null, null,
+                                                                    Collections.<GoCanonicalType>emptyList(),
+                                                                    Collections.<GoCanonicalType>emptyList(), false,
+                                                                    ChanDirection.BOTH, Collections.<Field>emptyList(),
+                                                                    Collections.<String, GoCanonicalType>emptyMap());
+
+  @NotNull private final Kind myKind;
+  @NotNull private final String myKey;
+  @Nullable private final String myName;
+  @Nullable private final GoCanonicalType myElement;
+  @Nullable private final GoCanonicalType myKeyType;
+  @NotNull private final List<GoCanonicalType> myParameters;
+  @NotNull private final List<GoCanonicalType> myResults;
+  private final boolean myVariadic;
+  @NotNull private final ChanDirection myDirection;
+  @NotNull private final List<Field> myFields;
+  @NotNull private final Map<String, GoCanonicalType> myInterfaceMethods;
+  private final boolean myResolved;
+
+  @Nullable private volatile NamedTypeLoader myLoader;
+  @Nullable private volatile GoCanonicalType myUnderlying;
+  @Nullable private volatile Map<String, GoCanonicalType> myValueMethods;
+  @Nullable private volatile Map<String, GoCanonicalType> myPointerMethods;
+  @Nullable private volatile Map<String, GoCanonicalType> myMethodSet;
+
+  GoCanonicalType(@NotNull Kind kind,
+                  @NotNull String key,
+                  @Nullable String name,
+                  @Nullable GoCanonicalType element,
+                  @Nullable GoCanonicalType keyType,
+                  @NotNull List<GoCanonicalType> parameters,
+                  @NotNull List<GoCanonicalType> results,
+                  boolean variadic,
+                  @NotNull ChanDirection direction,
+                  @NotNull List<Field> fields,
+                  @NotNull Map<String, GoCanonicalType> interfaceMethods) {
+    myKind = kind;
+    myKey = key;
+    myName = name;
+    myElement = element;
+    myKeyType = keyType;
+    myParameters = parameters;
+    myResults = results;
+    myVariadic = variadic;
+    myDirection = direction;
+    myFields = fields;
+    myInterfaceMethods = interfaceMethods;
+    myResolved = kind != Kind.UNKNOWN && isResolved(element) && isResolved(keyType) && areResolved(parameters) && areResolved(results) &&
+                 areResolved(interfaceMethods.values()) && areFieldsResolved(fields);
+  }
+
+  private static boolean isResolved(@Nullable GoCanonicalType type) {
+    return type == null || type.myResolved;
+  }
+
+  private static boolean areResolved(@NotNull Collection<GoCanonicalType> types) {
+    for (GoCanonicalType type : types) {
+      if (!type.myResolved) return false;
+    }
+    return true;
+  }
+
+  private static boolean areFieldsResolved(@NotNull List<Field> fields) {
+    for (Field field : fields) {
+      if (!field.myType.myResolved) return false;
+    }
+    return true;
+  }
+
+  @NotNull
+  static GoCanonicalType named(@NotNull String key, @NotNull String name, @NotNull NamedTypeLoader loader) {
+    GoCanonicalType type = new GoCanonicalType(Kind.NAMED, key, name, null, null, Collections.<GoCanonicalType>emptyList(),
+                                               Collections.<GoCanonicalType>emptyList(), false, ChanDirection.BOTH,
+                                               Collections.<Field>emptyList(), Collections.<String, GoCanonicalType>emptyMap());
+    type.myLoader = loader;
+    return type;
+  }
+
+  @NotNull
+  public Kind getKind() {
+    return myKind;
+  }
+
+  /**
+   * Canonical textual form of the type, named types are qualified with their import path
+   */
+  @NotNull
+  public String getKey() {
+    return myKey;
+  }
+
+  /**
+   * Name of a named or basic type, {@code null} for type literals
+   */
+  @Nullable
+  public String getName() {
+    return myKind == Kind.NAMED || myKind == Kind.BASIC ? myName : null;
+  }
+
+  /**
+   * Element type of pointers, arrays, slices, channels and maps (map value type)
+   */
+  @Nullable
+  public GoCanonicalType getElementType() {
+    return myElement;
+  }
+
+  @Nullable
+  public GoCanonicalType getMapKeyType() {
+    return myKeyType;
+  }
+
+  /**
+   * Parameters of a function type or components of a tuple
+   */
+  @NotNull
+  public List<GoCanonicalType> getParameters() {
+    return myParameters;
+  }
+
+  @NotNull
+  public List<GoCanonicalType> getResults() {
+    return myResults;
+  }
+
+  public boolean isVariadic() {
+    return myVariadic;
+  }
+
+  @NotNull
+  public ChanDirection getChanDirection() {
+    return myDirection;
+  }
+
+  @NotNull
+  public List<Field> getFields() {
+    return myFields;
+  }
+
+  public boolean isNamed() {
+    return myKind == Kind.NAMED || myKind == Kind.BASIC;
+  }
+
+  public boolean isUnknown() {
+    return myKind == Kind.UNKNOWN;
+  }
+
+  /**
+   * @return false if the type or any of its components could not be resolved, such types have no identity
+   */
+  public boolean isResolved() {
+    return myResolved;
+  }
+
+  /**
+   * https://golang.org/ref/spec#Type_identity
+   */
+  public boolean isIdenticalTo(@NotNull GoCanonicalType other) {
+    return this == other && myResolved;
+  }
+
+  @NotNull
+  public GoCanonicalType getUnderlyingType() {
+    if (myKind != Kind.NAMED) return this;
+    GoCanonicalType underlying = myUnderlying;
+    if (underlying == null) {
+      NamedTypeLoader loader = myLoader;
+      underlying = loader != null ? loader.loadUnderlyingType(this) : UNKNOWN;
+      // a named type declared in terms of itself has no meaningful underlying type
+      if (underlying == this) underlying = UNKNOWN;
+      myUnderlying = underlying;
+    }
+    return underlying;
+  }
+
+  public boolean isInterface() {
+    return getUnderlyingType().myKind == Kind.INTERFACE;
+  }
+
+  /**
+   * https://golang.org/ref/spec#Method_sets
+   */
+  @NotNull
+  public Map<String, GoCanonicalType> getMethodSet() {
+    Map<String, GoCanonicalType> methodSet = myMethodSet;
+    if (methodSet == null) {
+      methodSet = Collections.unmodifiableMap(calcMethodSet(ContainerUtil.<GoCanonicalType>newHashSet()));
+      myMethodSet = methodSet;
+    }
+    return methodSet;
+  }
+
+  @NotNull
+  private Map<String, GoCanonicalType> calcMethodSet(@NotNull Set<GoCanonicalType> visited) {
+    if (!visited.add(this)) return Collections.emptyMap();
+    GoCanonicalType underlying = getUnderlyingType();
+    if (underlying.myKind == Kind.INTERFACE) return underlying.myInterfaceMethods;
+
+    Map<String, GoCanonicalType> result = ContainerUtil.newLinkedHashMap();
+    if (myKind == Kind.NAMED) {
+      result.putAll(getDeclaredMethods(false));
+      addPromotedMethods(underlying, false, result, visited);
+    }
+    else if (myKind == Kind.POINTER && myElement != null && myElement.myKind == Kind.NAMED && !myElement.isInterface()) {
+      result.putAll(myElement.getDeclaredMethods(true));
+      addPromotedMethods(myElement.getUnderlyingType(), true, result, visited);
+    }
+    else if (myKind == Kind.STRUCT) {
+      addPromotedMethods(this, false, result, visited);
+    }
+    return result;
+  }
+
+  private static void addPromotedMethods(@NotNull GoCanonicalType struct,
+                                         boolean addressable,
+                                         @NotNull Map<String, GoCanonicalType> result,
+                                         @NotNull Set<GoCanonicalType> visited) {
+    if (struct.myKind != Kind.STRUCT) return;
+    for (Field field : struct.myFields) {
+      if (!field.isEmbedded()) continue;
+      GoCanonicalType type = field.getType();
+      if (addressable && type.myKind == Kind.NAMED && !type.isInterface()) {
+        type = pointerTo(type);
+      }
+      for (Map.Entry<String, GoCanonicalType> entry : type.calcMethodSet(visited).entrySet()) {
+        // methods of the outer type shadow promoted ones
+        if (!result.containsKey(entry.getKey())) {
+          result.put(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+  }
+
+  @NotNull
+  private static GoCanonicalType pointerTo(@NotNull GoCanonicalType type) {
+    NamedTypeLoader loader = type.myLoader;
+    return loader != null ? loader.pointerTo(type) : UNKNOWN;
+  }
+
+  @NotNull
+  private Map<String, GoCanonicalType> getDeclaredMethods(boolean withPointerReceivers) {
+    Map<String, GoCanonicalType> values = myValueMethods;
+    Map<String, GoCanonicalType> pointers = myPointerMethods;
+    if (values == null || pointers == null) {
+      values = ContainerUtil.newLinkedHashMap();
+      pointers = ContainerUtil.newLinkedHashMap();
+      NamedTypeLoader loader = myLoader;
+      if (loader != null) {
+        loader.loadMethods(this, values, pointers);
+      }
+      myValueMethods = values;
+      myPointerMethods = pointers;
+    }
+    if (!withPointerReceivers) return values;
+    Map<String, GoCanonicalType> result = ContainerUtil.newLinkedHashMap(values);
+    result.putAll(pointers);
+    return result;
+  }
+
+  /**
+   * https://golang.org/ref/spec#Interface_types, a type implements an interface if its method set is a superset of the interface
+   */
+  public boolean implementsInterface(@NotNull GoCanonicalType iface) {
+    if (myKind == Kind.UNKNOWN || iface.myKind == Kind.UNKNOWN) return true;
+    if (!iface.isInterface()) return false;
+    Map<String, GoCanonicalType> methodSet = getMethodSet();
+    for (Map.Entry<String, GoCanonicalType> entry : iface.getMethodSet().entrySet()) {
+      GoCanonicalType method = methodSet.get(entry.getKey());
+      if (method != entry.getValue() && (method == null || !method.isIdenticalOrUnresolved(entry.getValue()))) return false;
+    }
+    return true;
+  }
+
+  /**
+   * https://golang.org/ref/spec#Assignability. Unresolved types are assignable to and from anything
+   * in order to avoid false positives.
+   */
+  public boolean isAssignableTo(@NotNull GoCanonicalType target) {
+    if (this == target || !myResolved || !target.myResolved) return true;
+    GoCanonicalType underlying = getUnderlyingType();
+    GoCanonicalType targetUnderlying = target.getUnderlyingType();
+    if (underlying == targetUnderlying && (!isNamed() || !target.isNamed())) return true;
+    if (targetUnderlying.myKind == Kind.INTERFACE) return implementsInterface(target);
+    return underlying.myKind == Kind.CHAN && targetUnderlying.myKind == Kind.CHAN &&
+           underlying.myDirection == ChanDirection.BOTH &&
+           underlying.myElement == targetUnderlying.myElement &&
+           (!isNamed() || !target.isNamed());
+  }
+
+  private boolean isIdenticalOrUnresolved(@NotNull GoCanonicalType other) {
+    if (myKind == Kind.UNKNOWN || other.myKind == Kind.UNKNOWN) return true;
+    if (myKind != other.myKind || myKind == Kind.NAMED || myKind == Kind.BASIC) return false;
+    if (myVariadic != other.myVariadic || myDirection != other.myDirection) return false;
+    if (!sameOrUnknown(myElement, other.myElement) || !sameOrUnknown(myKeyType, other.myKeyType)) return false;
+    return sameOrUnknown(myParameters, other.myParameters) && sameOrUnknown(myResults, other.myResults);
+  }
+
+  private static boolean sameOrUnknown(@Nullable GoCanonicalType a, @Nullable GoCanonicalType b) {
+    return a == b || a != null && b != null && a.isIdenticalOrUnresolved(b);
+  }
+
+  private static boolean sameOrUnknown(@NotNull List<GoCanonicalType> a, @NotNull List<GoCanonicalType> b) {
+    if (a.size() != b.size()) return false;
+    for (int i = 0; i < a.size(); i++) {
+      if (!sameOrUnknown(a.get(i), b.get(i))) return false;
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return myKey;
+  }
+
+  public static final class Field {
+    @NotNull private final String myName;
+    @NotNull private final GoCanonicalType myType;
+    private final boolean myEmbedded;
+    @Nullable private final String myTag;
+
+    Field(@NotNull String name, @NotNull GoCanonicalType type, boolean embedded, @Nullable String tag) {
+      myName = name;
+      myType = type;
+      myEmbedded = embedded;
+      myTag = tag;
+    }
+
+    @NotNull
+    public String getName() {
+      return myName;
+    }
+
+    @NotNull
+    public GoCanonicalType getType() {
+      return myType;
+    }
+
+    public boolean isEmbedded() {
+      return myEmbedded;
+    }
+
+    @Nullable
+    public String getTag() {
+      return myTag;
+    }
+  }
+
+  /**
+   * Lazily supplies the parts of a named type that require resolving its declaration
+   */
+  interface NamedTypeLoader {
+    @NotNull
+    GoCanonicalType loadUnderlyingType(@NotNull GoCanonicalType type);
+
+    void loadMethods(@NotNull GoCanonicalType type,
+                     @NotNull Map<String, GoCanonicalType> valueMethods,
+                     @NotNull Map<String, GoCanonicalType> pointerMethods);
+
+    @NotNull
+    GoCanonicalType pointerTo(@NotNull GoCanonicalType type);
+  }
+}
@@ -0,0 +1,434 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.psi.impl;
+
+import com.goide.psi.*;
+import com.goide.psi.impl.GoCanonicalType.ChanDirection;
+import com.goide.psi.impl.GoCanonicalType.Field;
+import com.goide.psi.impl.GoCanonicalType.Kind;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.RecursionManager;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds {@link GoCanonicalType} instances from PSI and interns them.
+ * <p/>
+ * A table lives until the next PSI modification, types obtained from different tables must not be compared.
+ * Every unresolved type gets its own instance with a unique key, so that composite types built from unresolved parts
+ * are never interned together.
+ */
+public class GoCanonicalTypes {
+  private final ConcurrentMap<String, GoCanonicalType> myTypes = ContainerUtil.newConcurrentMap();
+  private final ConcurrentMap<GoCanonicalType, GoTypeSpec> myDeclarations = ContainerUtil.newConcurrentMap();
+  private final ConcurrentMap<GoType, GoCanonicalType> myPsiTypes = ContainerUtil.newConcurrentMap();
+  private final GoCanonicalType.NamedTypeLoader myLoader = new Loader();
+  private final AtomicInteger myUnknownCount = new AtomicInteger();
+
+  @NotNull
+  public static GoCanonicalType of(@Nullable GoType type) {
+    if (type == null || !type.isValid()) return GoCanonicalType.UNKNOWN;
+    return getInstance(type.getProject()).get(type);
+  }
+
+  @NotNull
+  public static GoCanonicalType of(@Nullable GoTypeSpec spec) {
+    if (spec == null || !spec.isValid()) return GoCanonicalType.UNKNOWN;
+    return getInstance(spec.getProject()).named(spec);
+  }
+
+  @NotNull
+  static GoCanonicalTypes getInstance(@NotNull Project project) {
+    return CachedValuesManager.getManager(project).getCachedValue(project, new CachedValueProvider<GoCanonicalTypes>() {
+      @Nullable
+      @Override
+      public Result<GoCanonicalTypes> compute() {
+        return Result.create(new GoCanonicalTypes(), PsiModificationTracker.MODIFICATION_COUNT);
+      }
+    });
+  }
+
+  @NotNull
+  GoCanonicalType get(@NotNull GoType type) {
+    GoCanonicalType result = myPsiTypes.get(type);
+    if (result == null) {
+      result = calcType(type);
+      if (!(type instanceof GoLightType)) {
+        myPsiTypes.put(type, result);
+      }
+    }
+    return result;
+  }
+
+  @NotNull
+  private GoCanonicalType getOrUnknown(@Nullable GoType type) {
+    return type != null ? get(type) : unknown();
+  }
+
+  @NotNull
+  private GoCanonicalType unknown() {
+    return new GoCanonicalType(Kind.UNKNOWN, "?" + myUnknownCount.incrementAndGet(), null, null, null,
+                               Collections.<GoCanonicalType>emptyList(), Collections.<GoCanonicalType>emptyList(), false,
+                               ChanDirection.BOTH, Collections.<Field>emptyList(), Collections.<String, GoCanonicalType>emptyMap());
+  }
+
+  @NotNull
+  private GoCanonicalType calcType(@NotNull GoType type) {
+    if (type instanceof GoParType) {
+      return get(((GoParType)type).getActualType());
+    }
+    if (type instanceof GoSpecType) {
+      PsiElement parent = type.getParent();
+      return parent instanceof GoTypeSpec ? named((GoTypeSpec)parent) : unknown();
+    }
+    if (type instanceof GoPointerType) {
+      return pointer(getOrUnknown(((GoPointerType)type).getType()));
+    }
+    if (type instanceof GoArrayOrSliceType) {
+      GoArrayOrSliceType array = (GoArrayOrSliceType)type;
+      GoCanonicalType element = getOrUnknown(array.getType());
+      GoExpression length = array.getExpression();
+      if (length == null && array.getTripleDot() == null) {
+        return intern(Kind.SLICE, "[]" + element.getKey(), element, null);
+      }
+      Long value = length != null ? GoConstantEvaluator.evaluateInteger(length) : getImplicitArrayLength(array);
+      if (value == null || value < 0) return unknown();
+      return intern(Kind.ARRAY, "[" + value + "]" + element.getKey(), element, null);
+    }
+    if (type instanceof GoMapType) {
+      GoCanonicalType key = getOrUnknown(((GoMapType)type).getKeyType());
+      GoCanonicalType value = getOrUnknown(((GoMapType)type).getValueType());
+      return intern(Kind.MAP, "map[" + key.getKey() + "]" + value.getKey(), value, key);
+    }
+    if (type instanceof GoChannelType) {
+      return channel((GoChannelType)type);
+    }
+    if (type instanceof GoFunctionType) {
+      return function(((GoFunctionType)type).getSignature());
+    }
+    if (type instanceof GoStructType) {
+      return struct((GoStructType)type);
+    }
+    if (type instanceof GoInterfaceType) {
+      return iface((GoInterfaceType)type);
+    }
+    if (type instanceof GoTypeList) {
+      return tuple(((GoTypeList)type).getTypeList());
+    }
+    if (type instanceof GoCType) {
+      return unknown();
+    }
+    GoTypeReferenceExpression reference = type.getTypeReferenceExpression();
+    PsiElement resolve = reference != null ? reference.resolve() : null;
+    return resolve instanceof GoTypeSpec ? named((GoTypeSpec)resolve) : unknown();
+  }
+
+  /**
+   * Length of {@code [...]T{...}}, the largest index of the literal plus one
+   */
+  @Nullable
+  private static Long getImplicitArrayLength(@NotNull GoArrayOrSliceType array) {
+    PsiElement parent = array.getParent();
+    GoLiteralValue literal = parent instanceof GoCompositeLit ? ((GoCompositeLit)parent).getLiteralValue() : null;
+    if (literal == null) return null;
+    long index = 0;
+    long length = 0;
+    for (GoElement element : literal.getElementList()) {
+      GoKey key = element.getKey();
+      if (key != null) {
+        GoExpression keyExpression = key.getExpression();
+        Long keyValue = keyExpression != null ? GoConstantEvaluator.evaluateInteger(keyExpression) : null;
+        if (keyValue == null) return null;
+        index = keyValue;
+      }
+      length = Math.max(length, ++index);
+    }
+    return length;
+  }
+
+  @NotNull
+  GoCanonicalType named(@NotNull GoTypeSpec spec) {
+    String name = spec.getName();
+    if (name == null) return unknown();
+    GoFile file = spec.getContainingFile();
+    if (GoPsiImplUtil.isBuiltinFile(file) && !"error".equals(name)) {
+      String basicName = "byte".equals(name) ? "uint8" : "rune".equals(name) ? "int32" : name;
+      return intern(new GoCanonicalType(Kind.BASIC, basicName, basicName, null, null, Collections.<GoCanonicalType>emptyList(),
+                                        Collections.<GoCanonicalType>emptyList(), false, ChanDirection.BOTH,
+                                        Collections.<Field>emptyList(), Collections.<String, GoCanonicalType>emptyMap()));
+    }
+    String key = GoPsiImplUtil.isBuiltinFile(file) ? name : getPackageKey(file) + "." + name;
+    if (PsiTreeUtil.getParentOfType(spec, GoBlock.class) != null) {
+      // types declared in function bodies are distinct even if they share a name
+      key += "@" + spec.getTextOffset();
+    }
+    GoCanonicalType type = myTypes.get(key);
+    if (type == null) {
+      type = intern(GoCanonicalType.named(key, name, myLoader));
+    }
+    myDeclarations.putIfAbsent(type, spec);
+    return type;
+  }
+
+  /**
+   * Non-exported field and method names from different packages are always different
+   */
+  @NotNull
+  private static String qualifiedName(@NotNull String name, @NotNull String packageKey) {
+    return StringUtil.isCapitalized(name) ? name : packageKey + "." + name;
+  }
+
+  @NotNull
+  private static String getPackageKey(@NotNull PsiElement element) {
+    PsiFile file = element.getContainingFile();
+    return file instanceof GoFile ? getPackageKey((GoFile)file) : "";
+  }
+
+  @NotNull
+  private static String getPackageKey(@NotNull GoFile file) {
+    String importPath = file.getImportPath(false);
+    if (StringUtil.isNotEmpty(importPath)) return importPath;
+    PsiDirectory directory = file.getParent();
+    return directory != null ? directory.getVirtualFile().getPath() : StringUtil.notNullize(file.getPackageName());
+  }
+
+  @NotNull
+  private GoCanonicalType pointer(@NotNull GoCanonicalType element) {
+    return intern(Kind.POINTER, "*" + element.getKey(), element, null);
+  }
+
+  @NotNull
+  private GoCanonicalType channel(@NotNull GoChannelType type) {
+    GoCanonicalType element = getOrUnknown(type.getType());
+    PsiElement arrow = type.getSendChannel();
+    PsiElement chan = type.getChan();
+    ChanDirection direction = arrow == null || chan == null
+                              ? ChanDirection.BOTH
+                              : arrow.getTextOffset() < chan.getTextOffset() ? ChanDirection.RECEIVE : ChanDirection.SEND;
+    String prefix = direction == ChanDirection.BOTH ? "chan " : direction == ChanDirection.RECEIVE ? "<-chan " : "chan<- ";
+    return intern(new GoCanonicalType(Kind.CHAN, prefix + element.getKey(), null, element, null,
+                                      Collections.<GoCanonicalType>emptyList(), Collections.<GoCanonicalType>emptyList(), false,
+                                      direction, Collections.<Field>emptyList(), Collections.<String, GoCanonicalType>emptyMap()));
+  }
+
+  @NotNull
+  private GoCanonicalType function(@Nullable GoSignature signature) {
+    List<GoCanonicalType> parameters = ContainerUtil.newArrayList();
+    List<GoCanonicalType> results = ContainerUtil.newArrayList();
+    boolean variadic = false;
+    if (signature != null) {
+      variadic = addParameters(signature.getParameters(), parameters);
+      GoResult result = signature.getResult();
+      if (result != null) {
+        GoParameters resultParameters = result.getParameters();
+        if (resultParameters != null) {
+          addParameters(resultParameters, results);
+        }
+        else {
+          GoType resultType = result.getType();
+          if (resultType instanceof GoTypeList) {
+            for (GoType type : ((GoTypeList)resultType).getTypeList()) {
+              results.add(get(type));
+            }
+          }
+          else if (resultType != null) {
+            results.add(get(resultType));
+          }
+        }
+      }
+    }
+    StringBuilder key = new StringBuilder("func(");
+    for (int i = 0; i < parameters.size(); i++) {
+      if (i > 0) key.append(",");
+      boolean last = variadic && i == parameters.size() - 1;
+      GoCanonicalType parameter = parameters.get(i);
+      key.append(last && parameter.getElementType() != null ? "..." + parameter.getElementType().getKey() : parameter.getKey());
+    }
+    key.append(")");
+    if (!results.isEmpty()) {
+      key.append("(").append(StringUtil.join(results, ",")).append(")");
+    }
+    return intern(new GoCanonicalType(Kind.FUNC, key.toString(), null, null, null, parameters, results, variadic, ChanDirection.BOTH,
+                                      Collections.<Field>emptyList(), Collections.<String, GoCanonicalType>emptyMap()));
+  }
+
+  private boolean addParameters(@NotNull GoParameters parameters, @NotNull List<GoCanonicalType> result) {
+    boolean variadic = false;
+    for (GoParameterDeclaration declaration : parameters.getParameterDeclarationList()) {
+      GoCanonicalType type = getOrUnknown(declaration.getType());
+      variadic = declaration.isVariadic();
+      if (variadic) {
+        type = intern(Kind.SLICE, "[]" + type.getKey(), type, null);
+      }
+      int count = Math.max(1, declaration.getParamDefinitionList().size());
+      for (int i = 0; i < count; i++) {
+        result.add(type);
+      }
+    }
+    return variadic;
+  }
+
+  @NotNull
+  private GoCanonicalType struct(@NotNull GoStructType type) {
+    String packageKey = getPackageKey(type);
+    List<Field> fields = ContainerUtil.newArrayList();
+    StringBuilder key = new StringBuilder("struct{");
+    for (GoFieldDeclaration declaration : type.getFieldDeclarationList()) {
+      GoTag tag = declaration.getTag();
+      String tagText = tag != null ? tag.getText() : null;
+      GoAnonymousFieldDefinition anonymous = declaration.getAnonymousFieldDefinition();
+      if (anonymous != null) {
+        PsiElement resolve = anonymous.getTypeReferenceExpression().resolve();
+        GoCanonicalType fieldType = resolve instanceof GoTypeSpec ? named((GoTypeSpec)resolve) : unknown();
+        if (anonymous.getMul() != null) fieldType = pointer(fieldType);
+        fields.add(new Field(anonymous.getName(), fieldType, true, tagText));
+        // an embedded type of another package can't be unexported, so the type key already tells the packages apart
+        appendField(key, null, fieldType, tagText);
+        continue;
+      }
+      GoCanonicalType fieldType = getOrUnknown(declaration.getType());
+      for (GoFieldDefinition definition : declaration.getFieldDefinitionList()) {
+        String name = StringUtil.notNullize(definition.getName());
+        fields.add(new Field(name, fieldType, false, tagText));
+        appendField(key, qualifiedName(name, packageKey), fieldType, tagText);
+      }
+    }
+    key.append("}");
+    return intern(new GoCanonicalType(Kind.STRUCT, key.toString(), null, null, null, Collections.<GoCanonicalType>emptyList(),
+                                      Collections.<GoCanonicalType>emptyList(), false, ChanDirection.BOTH, fields,
+                                      Collections.<String, GoCanonicalType>emptyMap()));
+  }
+
+  private static void appendField(@NotNull StringBuilder key,
+                                  @Nullable String name,
+                                  @NotNull GoCanonicalType type,
+                                  @Nullable String tag) {
+    if (name != null) key.append(name).append(" ");
+    key.append(type.getKey());
+    if (tag != null) key.append(" ").append(tag);
+    key.append(";");
+  }
+
+  @NotNull
+  private GoCanonicalType iface(@NotNull GoInterfaceType type) {
+    String packageKey = getPackageKey(type);
+    Map<String, GoCanonicalType> methods = ContainerUtil.newTreeMap();
+    for (GoMethodSpec spec : type.getMethodSpecList()) {
+      String name = spec.getName();
+      if (name == null) continue;
+      if (spec.getIdentifier() != null) {
+        methods.put(name, function(spec.getSignature()));
+        continue;
+      }
+      GoTypeReferenceExpression reference = spec.getTypeReferenceExpression();
+      PsiElement resolve = reference != null ? reference.resolve() : null;
+      if (resolve instanceof GoTypeSpec) {
+        GoCanonicalType embedded = named((GoTypeSpec)resolve);
+        if (embedded.isInterface()) {
+          methods.putAll(embedded.getMethodSet());
+        }
+      }
+    }
+    StringBuilder key = new StringBuilder("interface{");
+    for (Map.Entry<String, GoCanonicalType> entry : methods.entrySet()) {
+      key.append(qualifiedName(entry.getKey(), packageKey)).append(StringUtil.trimStart(entry.getValue().getKey(), "func")).append(";");
+    }
+    key.append("}");
+    return intern(new GoCanonicalType(Kind.INTERFACE, key.toString(), null, null, null, Collections.<GoCanonicalType>emptyList(),
+                                      Collections.<GoCanonicalType>emptyList(), false, ChanDirection.BOTH,
+                                      Collections.<Field>emptyList(), Collections.unmodifiableMap(methods)));
+  }
+
+  @NotNull
+  private GoCanonicalType tuple(@NotNull List<GoType> types) {
+    List<GoCanonicalType> components = ContainerUtil.newArrayList();
+    for (GoType type : types) {
+      components.add(get(type));
+    }
+    return intern(new GoCanonicalType(Kind.TUPLE, "(" + StringUtil.join(components, ",") + ")", null, null, null, components,
+                                      Collections.<GoCanonicalType>emptyList(), false, ChanDirection.BOTH,
+                                      Collections.<Field>emptyList(), Collections.<String, GoCanonicalType>emptyMap()));
+  }
+
+  @NotNull
+  private GoCanonicalType intern(@NotNull Kind kind, @NotNull String key, @Nullable GoCanonicalType element, @Nullable GoCanonicalType keyType) {
+    GoCanonicalType existing = myTypes.get(key);
+    if (existing != null) return existing;
+    return intern(new GoCanonicalType(kind, key, null, element, keyType, Collections.<GoCanonicalType>emptyList(),
+                                      Collections.<GoCanonicalType>emptyList(), false, ChanDirection.BOTH,
+                                      Collections.<Field>emptyList(), Collections.<String, GoCanonicalType>emptyMap()));
+  }
+
+  @NotNull
+  private GoCanonicalType intern(@NotNull GoCanonicalType type) {
+    GoCanonicalType existing = myTypes.putIfAbsent(type.getKey(), type);
+    return existing != null ? existing : type;
+  }
+
+  private class Loader implements GoCanonicalType.NamedTypeLoader {
+    @NotNull
+    @Override
+    public GoCanonicalType loadUnderlyingType(@NotNull GoCanonicalType type) {
+      final GoTypeSpec spec = myDeclarations.get(type);
+      if (spec == null) return GoCanonicalType.UNKNOWN;
+      GoCanonicalType underlying = RecursionManager.doPreventingRecursion(spec, false, new Computable<GoCanonicalType>() {
+        @Override
+        public GoCanonicalType compute() {
+          GoType declared = spec.getSpecType().getType();
+          return declared != null ? get(declared).getUnderlyingType() : GoCanonicalType.UNKNOWN;
+        }
+      });
+      return underlying != null ? underlying : GoCanonicalType.UNKNOWN;
+    }
+
+    @Override
+    public void loadMethods(@NotNull GoCanonicalType type,
+                            @NotNull Map<String, GoCanonicalType> valueMethods,
+                            @NotNull Map<String, GoCanonicalType> pointerMethods) {
+      GoTypeSpec spec = myDeclarations.get(type);
+      if (spec == null) return;
+      for (GoMethodDeclaration method : spec.getMethods()) {
+        String name = method.getName();
+        if (name == null) continue;
+        boolean pointerReceiver = method.getReceiverType() instanceof GoPointerType;
+        (pointerReceiver ? pointerMethods : valueMethods).put(name, function(method.getSignature()));
+      }
+    }
+
+    @NotNull
+    @Override
+    public GoCanonicalType pointerTo(@NotNull GoCanonicalType type) {
+      return pointer(type);
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.psi.impl;
+
+import com.goide.project.GoModuleSettings;
+import com.goide.psi.GoBlock;
+import com.goide.psi.GoFunctionOrMethodDeclaration;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.psi.*;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Splits PSI modifications into changes inside function bodies and everything else.
+ * A change inside a body increments only the tracker of that body, so caches of other bodies survive typing.
+ */
+public class GoCodeBlockModificationTracker {
+  private static final Key<SimpleModificationTracker> BODY_TRACKER = Key.create("GO_BODY_MODIFICATION_TRACKER");
+  private final SimpleModificationTracker myOutOfBodyTracker = new SimpleModificationTracker();
+
+  public GoCodeBlockModificationTracker(@NotNull Project project) {
+    PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+      @Override
+      public void childAdded(@NotNull PsiTreeChangeEvent event) {
+        changed(event.getParent(), event.getChild());
+      }
+
+      @Override
+      public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+        changed(event.getParent(), event.getChild());
+      }
+
+      @Override
+      public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+        PsiElement oldChild = event.getOldChild();
+        changed(event.getParent(), oldChild instanceof GoBlock ? oldChild : event.getNewChild());
+      }
+
+      @Override
+      public void childMoved(@NotNull PsiTreeChangeEvent event) {
+        changed(event.getOldParent());
+        changed(event.getNewParent());
+      }
+
+      @Override
+      public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+        changed(event.getParent());
+      }
+
+      @Override
+      public void propertyChanged(@NotNull PsiTreeChangeEvent event) {
+        myOutOfBodyTracker.incModificationCount();
+      }
+    }, project);
+    project.getMessageBus().connect(project).subscribe(GoModuleSettings.TOPIC, new GoModuleSettings.BuildTargetListener() {
+      @Override
+      public void changed(@NotNull Module module) {
+        myOutOfBodyTracker.incModificationCount();
+      }
+    });
+  }
+
+  public static GoCodeBlockModificationTracker getInstance(@NotNull Project project) {
+    return ServiceManager.getService(project, GoCodeBlockModificationTracker.class);
+  }
+
+  private void changed(@Nullable PsiElement parent, @Nullable PsiElement child) {
+    if (parent instanceof GoFunctionOrMethodDeclaration && child instanceof GoBlock) {
+      // a reparse of the whole body reports the declaration as the parent, yet nothing outside the body has changed
+      getBodyTracker((GoBlock)child).incModificationCount();
+    }
+    else {
+      changed(parent);
+    }
+  }
+
+  private void changed(@Nullable PsiElement element) {
+    GoBlock body = element != null && element.isValid() ? getFunctionBody(element) : null;
+    if (body != null) {
+      getBodyTracker(body).incModificationCount();
+    }
+    else {
+      myOutOfBodyTracker.incModificationCount();
+    }
+  }
+
+  /**
+   * Incremented on every change outside of function bodies
+   */
+  @NotNull
+  public ModificationTracker getOutOfBodyTracker() {
+    return myOutOfBodyTracker;
+  }
+
+  @NotNull
+  public static ModificationTracker getBodyTracker(@NotNull GoBlock body) {
+    SimpleModificationTracker tracker = body.getUserData(BODY_TRACKER);
+    return tracker != null ? tracker : body.putUserDataIfAbsent(BODY_TRACKER, new SimpleModificationTracker());
+  }
+
+  /**
+   * @return the body of the top-level function or method containing the element; function literals belong to their enclosing body
+   */
+  @Nullable
+  public static GoBlock getFunctionBody(@NotNull PsiElement element) {
+    GoFunctionOrMethodDeclaration function = PsiTreeUtil.getParentOfType(element, GoFunctionOrMethodDeclaration.class);
+    GoBlock body = function != null ? function.getBlock() : null;
+    return body != null && PsiTreeUtil.isAncestor(body, element, false) ? body : null;
+  }
+}
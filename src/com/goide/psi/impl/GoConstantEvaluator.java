@@ -0,0 +1,109 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.psi.impl;
+
+import com.goide.psi.*;
+import com.intellij.psi.PsiElement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Evaluates integer constant expressions, https://golang.org/ref/spec#Constant_expressions.
+ * Only what is needed for array lengths and composite literal indices is supported: integer literals,
+ * arithmetic and bitwise operators and references to constants with an explicit value.
+ */
+public class GoConstantEvaluator {
+  private static final int MAX_DEPTH = 32;
+
+  private GoConstantEvaluator() {
+  }
+
+  /**
+   * @return value of the expression or {@code null} if it is not an integer constant or can't be evaluated
+   */
+  @Nullable
+  public static Long evaluateInteger(@NotNull GoExpression expression) {
+    return evaluate(expression, 0);
+  }
+
+  @Nullable
+  private static Long evaluate(@Nullable GoExpression expression, int depth) {
+    if (expression == null || depth > MAX_DEPTH) return null;
+    if (expression instanceof GoParenthesesExpr) {
+      return evaluate(((GoParenthesesExpr)expression).getExpression(), depth + 1);
+    }
+    if (expression instanceof GoLiteral) {
+      return evaluateLiteral((GoLiteral)expression);
+    }
+    if (expression instanceof GoUnaryExpr) {
+      GoUnaryExpr unary = (GoUnaryExpr)expression;
+      Long value = evaluate(unary.getExpression(), depth + 1);
+      if (value == null) return null;
+      if (unary.getPlus() != null) return value;
+      if (unary.getMinus() != null) return -value;
+      if (unary.getBitXor() != null) return ~value;
+      return null;
+    }
+    if (expression instanceof GoAddExpr || expression instanceof GoMulExpr) {
+      Long left = evaluate(((GoBinaryExpr)expression).getLeft(), depth + 1);
+      Long right = left != null ? evaluate(((GoBinaryExpr)expression).getRight(), depth + 1) : null;
+      if (right == null) return null;
+      return expression instanceof GoAddExpr ? evaluateAdd((GoAddExpr)expression, left, right)
+                                             : evaluateMul((GoMulExpr)expression, left, right);
+    }
+    if (expression instanceof GoReferenceExpression) {
+      PsiElement resolve = ((GoReferenceExpression)expression).resolve();
+      // iota and the other predeclared constants have no meaningful value in builtin.go
+      if (!(resolve instanceof GoConstDefinition) || GoPsiImplUtil.builtin(resolve)) return null;
+      return evaluate(((GoConstDefinition)resolve).getValue(), depth + 1);
+    }
+    return null;
+  }
+
+  @Nullable
+  private static Long evaluateLiteral(@NotNull GoLiteral literal) {
+    try {
+      if (literal.getInt() != null) return Long.parseLong(literal.getText());
+      if (literal.getHex() != null) return Long.parseLong(literal.getText().substring(2), 16);
+      if (literal.getOct() != null) return Long.parseLong(literal.getText(), 8);
+    }
+    catch (NumberFormatException ignore) {
+    }
+    return null;
+  }
+
+  @Nullable
+  private static Long evaluateAdd(@NotNull GoAddExpr expression, long left, long right) {
+    if (expression.getPlus() != null) return left + right;
+    if (expression.getMinus() != null) return left - right;
+    if (expression.getBitOr() != null) return left | right;
+    if (expression.getBitXor() != null) return left ^ right;
+    return null;
+  }
+
+  @Nullable
+  private static Long evaluateMul(@NotNull GoMulExpr expression, long left, long right) {
+    if (expression.getMul() != null) return left * right;
+    if (expression.getQuotient() != null) return right != 0 ? left / right : null;
+    if (expression.getRemainder() != null) return right != 0 ? left % right : null;
+    if (expression.getShiftLeft() != null) return right >= 0 && right < 63 ? left << right : null;
+    if (expression.getShiftRight() != null) return right >= 0 ? left >> Math.min(right, 63) : null;
+    if (expression.getBitAnd() != null) return left & right;
+    if (expression.getBitClear() != null) return left & ~right;
+    return null;
+  }
+}
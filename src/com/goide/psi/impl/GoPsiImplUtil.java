@@ -26,6 +26,7 @@ import com.goide.sdk.GoSdkUtil;
 import com.goide.stubs.*;
 import com.goide.stubs.index.GoIdFilter;
 import com.goide.stubs.index.GoMethodIndex;
+import com.goide.util.GoSlowResolveWatchdog;
 import com.goide.util.GoStringLiteralEscaper;
 import com.goide.util.GoUtil;
 import com.intellij.codeInsight.highlighting.ReadWriteAccessDetector;
@@ -314,7 +315,7 @@ public class GoPsiImplUtil {
   }
 
   @Nullable
-  private static GoType unwrapParType(@NotNull GoExpression o, @Nullable ResolveState c) {
+  static GoType unwrapParType(@NotNull GoExpression o, @Nullable ResolveState c) {
     GoType inner = getGoTypeInner(o, c);
     return inner instanceof GoParType ? ((GoParType)inner).getActualType() : inner;
   }
@@ -325,11 +326,19 @@ public class GoPsiImplUtil {
       @Override
       public GoType compute() {
         if (context != null) return unwrapParType(o, context);
+        GoTypeInferenceTable table = GoTypeInferenceTable.forExpression(o);
+        if (table != null) return table.getType(o);
         return CachedValuesManager.getCachedValue(o, new CachedValueProvider<GoType>() {
           @Nullable
           @Override
           public Result<GoType> compute() {
-            return Result.create(unwrapParType(o, createContextOnElement(o)), PsiModificationTracker.MODIFICATION_COUNT);
+            GoSlowResolveWatchdog.Frame frame = GoSlowResolveWatchdog.start(o);
+            try {
+              return Result.create(unwrapParType(o, createContextOnElement(o)), PsiModificationTracker.MODIFICATION_COUNT);
+            }
+            finally {
+              GoSlowResolveWatchdog.finish(frame, "type");
+            }
           }
         });
       }
@@ -19,6 +19,8 @@ package com.goide.psi.impl;
 import com.goide.GoConstants;
 import com.goide.psi.*;
 import com.goide.sdk.GoSdkUtil;
+import com.goide.util.GoSlowResolveWatchdog;
+import com.goide.util.GoStatistics;
 import com.goide.util.GoUtil;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtilCore;
@@ -69,9 +71,17 @@ public class GoReference extends PsiPolyVariantReferenceBase<GoReferenceExpressi
   @NotNull
   private ResolveResult[] resolveInner() {
     if (!myElement.isValid()) return ResolveResult.EMPTY_ARRAY;
-    Collection<ResolveResult> result = new OrderedSet<ResolveResult>();
-    processResolveVariants(createResolveProcessor(result, myElement));
-    return result.toArray(new ResolveResult[result.size()]);
+    long start = GoStatistics.startTimer();
+    GoSlowResolveWatchdog.Frame frame = GoSlowResolveWatchdog.start(myElement);
+    try {
+      Collection<ResolveResult> result = new OrderedSet<ResolveResult>();
+      processResolveVariants(createResolveProcessor(result, myElement));
+      return result.toArray(new ResolveResult[result.size()]);
+    }
+    finally {
+      GoSlowResolveWatchdog.finish(frame, "resolve");
+      GoStatistics.stopTimer("GoReference.resolveInner", start);
+    }
   }
   
   @Override
@@ -105,7 +115,13 @@ public class GoReference extends PsiPolyVariantReferenceBase<GoReferenceExpressi
   @NotNull
   public ResolveResult[] multiResolve(boolean incompleteCode) {
     if (!myElement.isValid()) return ResolveResult.EMPTY_ARRAY;
-    return ResolveCache.getInstance(myElement.getProject()).resolveWithCaching(this, MY_RESOLVER, false, false);
+    long start = GoStatistics.startTimer();
+    try {
+      return ResolveCache.getInstance(myElement.getProject()).resolveWithCaching(this, MY_RESOLVER, false, false);
+    }
+    finally {
+      GoStatistics.stopTimer("GoReference.multiResolve", start);
+    }
   }
 
   @NotNull
@@ -162,21 +178,31 @@ public class GoReference extends PsiPolyVariantReferenceBase<GoReferenceExpressi
     Boolean result = RecursionManager.doPreventingRecursion(type, true, new Computable<Boolean>() {
       @Override
       public Boolean compute() {
-        if (type instanceof GoParType) return processGoType(((GoParType)type).getActualType(), processor, state);
-        if (!processExistingType(type, processor, state)) return false;
-        if (type instanceof GoPointerType) {
-          if (!processPointer((GoPointerType)type, processor, state.put(POINTER, true))) return false;
-          GoType pointer = ((GoPointerType)type).getType();
-          if (pointer instanceof GoPointerType) {
-            return processPointer((GoPointerType)pointer, processor, state.put(POINTER, true));
-          }
+        GoSlowResolveWatchdog.typeEntered();
+        try {
+          return processGoTypeInner(type, processor, state);
+        }
+        finally {
+          GoSlowResolveWatchdog.typeExited();
         }
-        return processTypeRef(type, processor, state);
       }
     });
     return Boolean.TRUE.equals(result);
   }
 
+  private boolean processGoTypeInner(@NotNull GoType type, @NotNull GoScopeProcessor processor, @NotNull ResolveState state) {
+    if (type instanceof GoParType) return processGoType(((GoParType)type).getActualType(), processor, state);
+    if (!processExistingType(type, processor, state)) return false;
+    if (type instanceof GoPointerType) {
+      if (!processPointer((GoPointerType)type, processor, state.put(POINTER, true))) return false;
+      GoType pointer = ((GoPointerType)type).getType();
+      if (pointer instanceof GoPointerType) {
+        return processPointer((GoPointerType)pointer, processor, state.put(POINTER, true));
+      }
+    }
+    return processTypeRef(type, processor, state);
+  }
+
   private boolean processPointer(@NotNull GoPointerType type, @NotNull GoScopeProcessor processor, @NotNull ResolveState state) {
     GoType pointer = type.getType();
     return pointer == null || processExistingType(pointer, processor, state) && processTypeRef(pointer, processor, state);
@@ -289,7 +315,9 @@ public class GoReference extends PsiPolyVariantReferenceBase<GoReferenceExpressi
     for (PsiFile f : dir.getFiles()) {
       if (!(f instanceof GoFile) || Comparing.equal(getPath(f), filePath)) continue;
       if (packageName != null && !packageName.equals(((GoFile)f).getPackageName())) continue;
-      if (allowed(f, file, module) && !processFileEntities((GoFile)f, processor, state, localProcessing)) return false;
+      if (!allowed(f, file, module)) continue;
+      GoSlowResolveWatchdog.fileVisited();
+      if (!processFileEntities((GoFile)f, processor, state, localProcessing)) return false;
     }
     return true;
   }
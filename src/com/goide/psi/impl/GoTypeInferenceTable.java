@@ -0,0 +1,98 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.psi.impl;
+
+import com.goide.psi.GoBlock;
+import com.goide.psi.GoExpression;
+import com.goide.psi.GoType;
+import com.goide.util.GoSlowResolveWatchdog;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootModificationTracker;
+import com.intellij.openapi.util.RecursionGuard;
+import com.intellij.openapi.util.RecursionManager;
+import com.intellij.psi.SyntaxTraverser;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.util.ObjectUtils;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Types of all expressions of a function body. The first request infers the whole body in one traversal,
+ * so shared sub-expressions are computed once; the table lives until the body itself or something outside
+ * of function bodies is changed (see {@link GoCodeBlockModificationTracker}).
+ */
+class GoTypeInferenceTable {
+  private static final Object NULL_TYPE = ObjectUtils.NULL;
+
+  private final ConcurrentMap<GoExpression, Object> myTypes = ContainerUtil.newConcurrentMap();
+  private final AtomicBoolean myInferred = new AtomicBoolean();
+
+  @Nullable
+  static GoTypeInferenceTable forExpression(@NotNull GoExpression o) {
+    final GoBlock body = GoCodeBlockModificationTracker.getFunctionBody(o);
+    if (body == null) return null;
+    final Project project = body.getProject();
+    return CachedValuesManager.getCachedValue(body, new CachedValueProvider<GoTypeInferenceTable>() {
+      @Nullable
+      @Override
+      public Result<GoTypeInferenceTable> compute() {
+        return Result.create(new GoTypeInferenceTable(),
+                             GoCodeBlockModificationTracker.getInstance(project).getOutOfBodyTracker(),
+                             GoCodeBlockModificationTracker.getBodyTracker(body),
+                             ProjectRootModificationTracker.getInstance(project));
+      }
+    });
+  }
+
+  @Nullable
+  GoType getType(@NotNull GoExpression o) {
+    inferAll(o);
+    Object cached = myTypes.get(o);
+    if (cached != null) return cached == NULL_TYPE ? null : (GoType)cached;
+
+    RecursionGuard.StackStamp stamp = RecursionManager.createGuard("goTypeInference").markStack();
+    GoType type;
+    GoSlowResolveWatchdog.Frame frame = GoSlowResolveWatchdog.start(o);
+    try {
+      type = GoPsiImplUtil.unwrapParType(o, GoPsiImplUtil.createContextOnElement(o));
+    }
+    finally {
+      GoSlowResolveWatchdog.finish(frame, "type");
+    }
+    if (stamp.mayCacheNow()) {
+      myTypes.put(o, type != null ? type : NULL_TYPE);
+    }
+    return type;
+  }
+
+  /**
+   * Non-physical copies (e.g. completion) are usually asked about a single expression, don't infer the whole body there
+   */
+  private void inferAll(@NotNull GoExpression o) {
+    if (!o.isPhysical() || !myInferred.compareAndSet(false, true)) return;
+    GoBlock body = GoCodeBlockModificationTracker.getFunctionBody(o);
+    if (body == null) return;
+    for (GoExpression expression : SyntaxTraverser.psiTraverser(body).filter(GoExpression.class)) {
+      expression.getGoType(null);
+    }
+  }
+}
@@ -20,6 +20,7 @@ import com.goide.GoConstants;
 import com.goide.GoTypes;
 import com.goide.psi.*;
 import com.goide.sdk.GoSdkUtil;
+import com.goide.util.GoStatistics;
 import com.goide.util.GoUtil;
 import com.intellij.openapi.util.Condition;
 import com.intellij.openapi.util.TextRange;
@@ -56,17 +57,23 @@ public class GoTypeReference extends PsiPolyVariantReferenceBase<GoTypeReference
 
   @NotNull
   private ResolveResult[] resolveInner() {
-    Collection<ResolveResult> result = new OrderedSet<ResolveResult>();
-    processResolveVariants(GoReference.createResolveProcessor(result, myElement));
-    
-    if (result.isEmpty() && myElement.getParent() instanceof GoReceiverType) {
-      PsiElement resolve = new GoReference(myElement).resolve();
-      if (resolve != null) {
-        return PsiElementResolveResult.createResults(resolve);
+    long start = GoStatistics.startTimer();
+    try {
+      Collection<ResolveResult> result = new OrderedSet<ResolveResult>();
+      processResolveVariants(GoReference.createResolveProcessor(result, myElement));
+
+      if (result.isEmpty() && myElement.getParent() instanceof GoReceiverType) {
+        PsiElement resolve = new GoReference(myElement).resolve();
+        if (resolve != null) {
+          return PsiElementResolveResult.createResults(resolve);
+        }
       }
+
+      return result.toArray(new ResolveResult[result.size()]);
+    }
+    finally {
+      GoStatistics.stopTimer("GoTypeReference.resolveInner", start);
     }
-    
-    return result.toArray(new ResolveResult[result.size()]);
   }
   
   @Override
@@ -43,4 +43,22 @@ public class GoTypeUtil {
     GoType underlyingType = type != null ? type.getUnderlyingType() : null;
     return underlyingType != null && underlyingType.textMatches("string") && GoPsiImplUtil.builtin(underlyingType);
   }
+
+  /**
+   * https://golang.org/ref/spec#Type_identity, unresolved types are not identical to any type
+   */
+  public static boolean areIdentical(@Nullable GoType left, @Nullable GoType right) {
+    return GoCanonicalTypes.of(left).isIdenticalTo(GoCanonicalTypes.of(right));
+  }
+
+  /**
+   * https://golang.org/ref/spec#Assignability
+   */
+  public static boolean isAssignable(@Nullable GoType from, @Nullable GoType to) {
+    return GoCanonicalTypes.of(from).isAssignableTo(GoCanonicalTypes.of(to));
+  }
+
+  public static boolean implementsInterface(@Nullable GoType type, @Nullable GoType iface) {
+    return GoCanonicalTypes.of(type).implementsInterface(GoCanonicalTypes.of(iface));
+  }
 }
@@ -19,15 +19,18 @@ package com.goide.psi.impl.imports;
 import com.goide.codeInsight.imports.GoGetPackageFix;
 import com.goide.completion.GoCompletionUtil;
 import com.goide.quickfix.GoDeleteImportQuickFix;
+import com.goide.sdk.GoImportPathCache;
 import com.goide.sdk.GoPackageUtil;
 import com.intellij.codeInsight.completion.CompletionUtil;
 import com.intellij.codeInsight.daemon.quickFix.CreateFileFix;
 import com.intellij.codeInspection.LocalQuickFix;
 import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
 import com.intellij.psi.impl.source.resolve.reference.impl.providers.FileReference;
 import com.intellij.psi.impl.source.resolve.reference.impl.providers.FileReferenceSet;
 import com.intellij.util.ArrayUtil;
+import com.intellij.util.Function;
 import com.intellij.util.IncorrectOperationException;
 import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
@@ -65,6 +68,13 @@ public class GoImportReference extends FileReference {
       }
     }
 
+    if (caseSensitive) {
+      ResolveResult[] cached = resolveWithImportPathCache();
+      if (cached != null) {
+        return cached;
+      }
+    }
+
     String referenceText = getText();
     Set<ResolveResult> result = ContainerUtil.newLinkedHashSet();
     Set<ResolveResult> innerResult = ContainerUtil.newLinkedHashSet();
@@ -84,6 +94,48 @@ public class GoImportReference extends FileReference {
     return result.isEmpty() ? ResolveResult.EMPTY_ARRAY : result.toArray(new ResolveResult[result.size()]);
   }
 
+  /**
+   * Resolves the import path up to this reference with the shared table, see {@link GoImportPathCache}.
+   *
+   * @return {@code null} if the path is not a plain import path
+   */
+  @Nullable
+  private ResolveResult[] resolveWithImportPathCache() {
+    FileReferenceSet referenceSet = getFileReferenceSet();
+    if (!(referenceSet instanceof GoImportReferenceSet) || ((GoImportReferenceSet)referenceSet).isRelativeImport() ||
+        referenceSet.isAbsolutePathReference()) {
+      return null;
+    }
+    FileReference[] references = referenceSet.getAllReferences();
+    StringBuilder path = new StringBuilder();
+    for (int i = 0; i <= getIndex() && i < references.length; i++) {
+      String text = references[i].getText();
+      if (text.isEmpty() || ".".equals(text) || "..".equals(text)) return null;
+      if (i > 0) path.append('/');
+      path.append(text);
+    }
+
+    List<VirtualFile> roots = ContainerUtil.mapNotNull(referenceSet.getDefaultContexts(), new Function<PsiFileSystemItem, VirtualFile>() {
+      @Override
+      public VirtualFile fun(PsiFileSystemItem context) {
+        return context.getVirtualFile();
+      }
+    });
+    PsiManager manager = getElement().getManager();
+    List<ResolveResult> result = ContainerUtil.newSmartList();
+    for (VirtualFile file : GoImportPathCache.getInstance(manager.getProject()).resolve(roots, path.toString())) {
+      PsiDirectory directory = file.isDirectory() ? manager.findDirectory(file) : null;
+      if (directory != null) {
+        PsiElementResolveResult resolveResult = new PsiElementResolveResult(directory);
+        if (isLast()) {
+          return new ResolveResult[]{resolveResult};
+        }
+        result.add(resolveResult);
+      }
+    }
+    return result.isEmpty() ? ResolveResult.EMPTY_ARRAY : result.toArray(new ResolveResult[result.size()]);
+  }
+
   @Override
   public boolean isReferenceTo(PsiElement element) {
     if (super.isReferenceTo(element)) {
@@ -57,6 +57,7 @@ public class GoTestConsoleProperties extends SMTRunnerConsoleProperties implemen
   public GoTestConsoleProperties(@NotNull GoTestRunConfiguration configuration, @NotNull Executor executor) {
     super(configuration, configuration.getTestFramework().getName(), executor);
     setPrintTestingStartedTime(false);
+    setIdBasedTestTree(configuration.getTestFramework().isIdBasedTestTree());
   }
 
   @NotNull
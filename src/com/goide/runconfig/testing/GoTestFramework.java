@@ -20,6 +20,7 @@ import com.goide.psi.GoFunctionOrMethodDeclaration;
 import com.goide.runconfig.testing.frameworks.gobench.GobenchFramework;
 import com.goide.runconfig.testing.frameworks.gocheck.GocheckFramework;
 import com.goide.runconfig.testing.frameworks.gotest.GotestFramework;
+import com.goide.runconfig.testing.frameworks.gotestjson.GotestJsonFramework;
 import com.intellij.execution.runners.ExecutionEnvironment;
 import com.intellij.execution.testframework.TestConsoleProperties;
 import com.intellij.execution.testframework.sm.runner.OutputToGeneralTestEventsConverter;
@@ -39,7 +40,7 @@ public abstract class GoTestFramework {
   private static class Lazy {
 
     private static final ArrayList<GoTestFramework> ALL_FRAMEWORKS = ContainerUtil.newArrayList(
-      GotestFramework.INSTANCE, GocheckFramework.INSTANCE, GobenchFramework.INSTANCE
+      GotestFramework.INSTANCE, GocheckFramework.INSTANCE, GobenchFramework.INSTANCE, GotestJsonFramework.INSTANCE
     );
   }
   public static List<GoTestFramework> all() {
@@ -75,4 +76,11 @@ public abstract class GoTestFramework {
 
   @NotNull
   public abstract OutputToGeneralTestEventsConverter createTestEventsConverter(@NotNull TestConsoleProperties consoleProperties);
+
+  /**
+   * Frameworks reporting interleaved events of nested tests identify them with {@code nodeId} and {@code parentNodeId} attributes
+   */
+  public boolean isIdBasedTestTree() {
+    return false;
+  }
 }
@@ -59,6 +59,8 @@ import java.util.List;
 public class GoTestRunningState extends GoRunningState<GoTestRunConfiguration> {
   private String myCoverageFilePath;
   private String myFailedTestsPattern;
+  private String myCpuProfilePath;
+  private String myMemoryProfilePath;
 
   public GoTestRunningState(@NotNull ExecutionEnvironment env, @NotNull Module module, @NotNull GoTestRunConfiguration configuration) {
     super(env, module, configuration);
@@ -105,7 +107,8 @@ public class GoTestRunningState extends GoRunningState<GoTestRunConfiguration> {
                                                        File.separatorChar);
         // TODO Once Go gets support for covering multiple packages the ternary condition should be reverted
         // See https://golang.org/issues/6909
-        String pathSuffix = myCoverageFilePath == null ? "..." : ".";
+        // Profiling flags are not supported for multiple packages either
+        String pathSuffix = myCoverageFilePath == null && myCpuProfilePath == null && myMemoryProfilePath == null ? "..." : ".";
         if (relativePath != null && !".".equals(relativePath)) {
           executor.withParameters("./" + relativePath + "/" + pathSuffix);
         }
@@ -143,6 +146,12 @@ public class GoTestRunningState extends GoRunningState<GoTestRunConfiguration> {
     if (myCoverageFilePath != null) {
       executor.withParameters("-coverprofile=" + myCoverageFilePath, "-covermode=atomic");
     }
+    if (myCpuProfilePath != null) {
+      executor.withParameters("-cpuprofile=" + myCpuProfilePath);
+    }
+    if (myMemoryProfilePath != null) {
+      executor.withParameters("-memprofile=" + myMemoryProfilePath);
+    }
 
     return executor;
   }
@@ -166,6 +175,11 @@ public class GoTestRunningState extends GoRunningState<GoTestRunConfiguration> {
     myCoverageFilePath = coverageFile;
   }
 
+  public void setProfileFilePaths(@Nullable String cpuProfile, @Nullable String memoryProfile) {
+    myCpuProfilePath = cpuProfile;
+    myMemoryProfilePath = memoryProfile;
+  }
+
   public void setFailedTests(@NotNull List<AbstractTestProxy> failedTests) {
     myFailedTestsPattern = "^" + StringUtil.join(failedTests, new Function<AbstractTestProxy, String>() {
       @Override
@@ -26,15 +26,15 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.roots.FileIndexFacade;
 import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.util.Computable;
-import com.intellij.openapi.util.Factory;
 import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.openapi.vfs.VirtualFileVisitor;
+import com.intellij.openapi.vfs.VirtualFileWithId;
 import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiFile;
 import com.intellij.rt.coverage.data.ProjectData;
 import com.intellij.util.Processor;
 import com.intellij.util.containers.ContainerUtil;
+import gnu.trove.TIntObjectHashMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
@@ -42,14 +42,14 @@ import org.jetbrains.annotations.TestOnly;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.Locale;
-import java.util.Map;
+import java.util.Set;
 
 public class GoCoverageAnnotator extends BaseCoverageAnnotator {
   private static final String STATEMENTS_SUFFIX = "% statements";
   private static final String FILES_SUFFIX = "% files";
 
-  private final Map<String, FileCoverageInfo> myFileCoverageInfos = ContainerUtil.newHashMap();
-  private final Map<String, DirCoverageInfo> myDirCoverageInfos = ContainerUtil.newHashMap();
+  private final TIntObjectHashMap<FileCoverageInfo> myFileCoverageInfos = new TIntObjectHashMap<FileCoverageInfo>();
+  private final TIntObjectHashMap<DirCoverageInfo> myDirCoverageInfos = new TIntObjectHashMap<DirCoverageInfo>();
 
   public GoCoverageAnnotator(@NotNull Project project) {
     super(project);
@@ -64,7 +64,7 @@ public class GoCoverageAnnotator extends BaseCoverageAnnotator {
   public String getDirCoverageInformationString(@NotNull PsiDirectory directory,
                                                 @NotNull CoverageSuitesBundle bundle,
                                                 @NotNull CoverageDataManager manager) {
-    DirCoverageInfo dirCoverageInfo = myDirCoverageInfos.get(directory.getVirtualFile().getPath());
+    DirCoverageInfo dirCoverageInfo = getDirectoryInfo(directory.getVirtualFile());
     if (dirCoverageInfo == null) {
       return null;
     }
@@ -94,7 +94,7 @@ public class GoCoverageAnnotator extends BaseCoverageAnnotator {
   @Nullable
   @TestOnly
   public String getDirCoverageInformationString(@NotNull VirtualFile file) {
-    DirCoverageInfo coverageInfo = myDirCoverageInfos.get(file.getPath());
+    DirCoverageInfo coverageInfo = getDirectoryInfo(file);
     return coverageInfo != null ? getDirCoverageString(coverageInfo) : null;
   }
 
@@ -103,7 +103,7 @@ public class GoCoverageAnnotator extends BaseCoverageAnnotator {
   public String getFileCoverageInformationString(@NotNull PsiFile file,
                                                  @NotNull CoverageSuitesBundle bundle,
                                                  @NotNull CoverageDataManager manager) {
-    FileCoverageInfo coverageInfo = myFileCoverageInfos.get(file.getVirtualFile().getPath());
+    FileCoverageInfo coverageInfo = getFileInfo(file.getVirtualFile());
     if (coverageInfo == null) {
       return null;
     }
@@ -118,7 +118,7 @@ public class GoCoverageAnnotator extends BaseCoverageAnnotator {
   @Nullable
   @TestOnly
   public String getFileCoverageInformationString(@NotNull VirtualFile file) {
-    FileCoverageInfo coverageInfo = myFileCoverageInfos.get(file.getPath());
+    FileCoverageInfo coverageInfo = getFileInfo(file);
     return coverageInfo != null ? getStatementsCoverageString(coverageInfo) : null;
   }
 
@@ -154,24 +154,25 @@ public class GoCoverageAnnotator extends BaseCoverageAnnotator {
     };
   }
 
-  @NotNull
-  private DirCoverageInfo getOrCreateDirectoryInfo(VirtualFile file) {
-    return ContainerUtil.getOrCreate(myDirCoverageInfos, file.getPath(), new Factory<DirCoverageInfo>() {
-      @Override
-      public DirCoverageInfo create() {
-        return new DirCoverageInfo();
-      }
-    });
+  @Nullable
+  private FileCoverageInfo getFileInfo(@Nullable VirtualFile file) {
+    return file instanceof VirtualFileWithId ? myFileCoverageInfos.get(((VirtualFileWithId)file).getId()) : null;
+  }
+
+  @Nullable
+  private DirCoverageInfo getDirectoryInfo(@Nullable VirtualFile file) {
+    return file instanceof VirtualFileWithId ? myDirCoverageInfos.get(((VirtualFileWithId)file).getId()) : null;
   }
 
   @NotNull
-  private FileCoverageInfo getOrCreateFileInfo(VirtualFile file) {
-    return ContainerUtil.getOrCreate(myFileCoverageInfos, file.getPath(), new Factory<FileCoverageInfo>() {
-      @Override
-      public FileCoverageInfo create() {
-        return new FileCoverageInfo();
-      }
-    });
+  private DirCoverageInfo getOrCreateDirectoryInfo(@NotNull VirtualFile file) {
+    int id = ((VirtualFileWithId)file).getId();
+    DirCoverageInfo info = myDirCoverageInfos.get(id);
+    if (info == null) {
+      info = new DirCoverageInfo();
+      myDirCoverageInfos.put(id, info);
+    }
+    return info;
   }
 
   @Nullable
@@ -193,58 +194,52 @@ public class GoCoverageAnnotator extends BaseCoverageAnnotator {
     return total != 0 ? (double)covered / total : 0;
   }
 
-  public void annotateAllFiles(@NotNull final GoCoverageProjectData data,
-                               @Nullable VirtualFile... contentRoots) {
-    if (contentRoots != null) {
-      for (VirtualFile root : contentRoots) {
-        VfsUtilCore.visitChildrenRecursively(root, new VirtualFileVisitor() {
-          @NotNull
-          @Override
-          public Result visitFileEx(@NotNull VirtualFile file) {
-            ProgressIndicatorProvider.checkCanceled();
-
-            if (file.isDirectory() && !FileIndexFacade.getInstance(getProject()).isInContent(file)) {
-              return SKIP_CHILDREN;
-            }
-            if (!file.isDirectory() && GoCoverageEngine.INSTANCE.coverageProjectViewStatisticsApplicableTo(file)) {
-              DirCoverageInfo dirCoverageInfo = getOrCreateDirectoryInfo(file.getParent());
-              final FileCoverageInfo fileCoverageInfo = getOrCreateFileInfo(file);
-              data.processFile(file.getPath(), new Processor<GoCoverageProjectData.RangeData>() {
-                @Override
-                public boolean process(GoCoverageProjectData.RangeData rangeData) {
-                  if (rangeData.hits > 0) {
-                    fileCoverageInfo.coveredLineCount += rangeData.statements;
-                  }
-                  fileCoverageInfo.totalLineCount += rangeData.statements;
-                  return true;
-                }
-              });
-
-              if (fileCoverageInfo.totalLineCount > 0) {
-                dirCoverageInfo.totalLineCount += fileCoverageInfo.totalLineCount;
-                dirCoverageInfo.totalFilesCount++;
-              }
-              if (fileCoverageInfo.coveredLineCount > 0) {
-                dirCoverageInfo.coveredLineCount += fileCoverageInfo.coveredLineCount;
-                dirCoverageInfo.coveredFilesCount++;
-              }
-            }
-            return CONTINUE;
+  public void annotateAllFiles(@NotNull GoCoverageProjectData data, @Nullable VirtualFile... contentRoots) {
+    if (contentRoots == null || contentRoots.length == 0) {
+      return;
+    }
+    final Set<VirtualFile> roots = ContainerUtil.newHashSet(contentRoots);
+    final FileIndexFacade fileIndex = FileIndexFacade.getInstance(getProject());
+    data.processFiles(new Processor<GoCoverageProjectData.FileData>() {
+      @Override
+      public boolean process(GoCoverageProjectData.FileData fileData) {
+        ProgressIndicatorProvider.checkCanceled();
+        VirtualFile file = fileData.getFile();
+        if (!(file instanceof VirtualFileWithId) || !VfsUtilCore.isUnder(file, roots) || !fileIndex.isInContent(file) ||
+            !GoCoverageEngine.INSTANCE.coverageProjectViewStatisticsApplicableTo(file)) {
+          return true;
+        }
+        FileCoverageInfo fileCoverageInfo = new FileCoverageInfo();
+        for (int i = 0; i < fileData.getRangeCount(); i++) {
+          int statements = fileData.getStatements(i);
+          if (fileData.getHits(i) > 0) {
+            fileCoverageInfo.coveredLineCount += statements;
           }
+          fileCoverageInfo.totalLineCount += statements;
+        }
+        myFileCoverageInfos.put(((VirtualFileWithId)file).getId(), fileCoverageInfo);
+        addToDirectories(file, fileCoverageInfo, roots);
+        return true;
+      }
+    });
+  }
 
-          @Override
-          public void afterChildrenVisited(@NotNull VirtualFile file) {
-            if (file.isDirectory()) {
-              DirCoverageInfo currentCoverageInfo = getOrCreateDirectoryInfo(file);
-              DirCoverageInfo parentCoverageInfo = getOrCreateDirectoryInfo(file.getParent());
-              parentCoverageInfo.totalFilesCount += currentCoverageInfo.totalFilesCount;
-              parentCoverageInfo.coveredFilesCount += currentCoverageInfo.coveredFilesCount;
-              parentCoverageInfo.totalLineCount += currentCoverageInfo.totalLineCount;
-              parentCoverageInfo.coveredLineCount += currentCoverageInfo.coveredLineCount;
-            }
-          }
-        });
+  private void addToDirectories(@NotNull VirtualFile file, @NotNull FileCoverageInfo fileCoverageInfo, @NotNull Set<VirtualFile> roots) {
+    VirtualFile directory = file.getParent();
+    while (directory instanceof VirtualFileWithId) {
+      DirCoverageInfo dirCoverageInfo = getOrCreateDirectoryInfo(directory);
+      if (fileCoverageInfo.totalLineCount > 0) {
+        dirCoverageInfo.totalLineCount += fileCoverageInfo.totalLineCount;
+        dirCoverageInfo.totalFilesCount++;
+      }
+      if (fileCoverageInfo.coveredLineCount > 0) {
+        dirCoverageInfo.coveredLineCount += fileCoverageInfo.coveredLineCount;
+        dirCoverageInfo.coveredFilesCount++;
+      }
+      if (roots.contains(directory)) {
+        break;
       }
+      directory = directory.getParent();
     }
   }
 }
@@ -17,12 +17,18 @@
 package com.goide.runconfig.testing.coverage;
 
 import com.intellij.openapi.util.Factory;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.rt.coverage.data.CoverageData;
 import com.intellij.rt.coverage.data.ProjectData;
+import com.intellij.util.ArrayUtil;
 import com.intellij.util.Processor;
 import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Map;
 
 public class GoCoverageProjectData extends ProjectData {
@@ -37,25 +43,33 @@ public class GoCoverageProjectData extends ProjectData {
     }
   }
 
-  public void processFile(@NotNull String filePath, @NotNull Processor<RangeData> processor) {
-    FileData fileData = myFilesData.get(filePath);
-    if (fileData != null) {
-      for (RangeData rangeData : fileData.myRangesData.values()) {
-        if (!processor.process(rangeData)) {
-          return;
-        }
-      }
+  public void addData(final String filePath, int startLine, int startColumn, int endLine, int endColumn, int statements, int hits) {
+    getOrCreateFileData(filePath).add(startLine, startColumn, endLine, endColumn, statements, hits);
+  }
+
+  public void addData(@NotNull VirtualFile file, int startLine, int startColumn, int endLine, int endColumn, int statements, int hits) {
+    FileData fileData = getOrCreateFileData(file.getPath());
+    fileData.myFile = file;
+    fileData.add(startLine, startColumn, endLine, endColumn, statements, hits);
+  }
+
+  /**
+   * Sorts ranges of every file, must be called once all data is added: the range getters expect sorted data.
+   */
+  public void sortRanges() {
+    for (Map.Entry<String, FileData> entry : myFilesData.entrySet()) {
+      entry.setValue(entry.getValue().sorted());
     }
   }
 
-  public void addData(final String filePath, int startLine, int startColumn, int endLine, int endColumn, int statements, int hits) {
-    FileData fileData = ContainerUtil.getOrCreate(myFilesData, filePath, new Factory<FileData>() {
+  @NotNull
+  private FileData getOrCreateFileData(@NotNull final String filePath) {
+    return ContainerUtil.getOrCreate(myFilesData, filePath, new Factory<FileData>() {
       @Override
       public FileData create() {
         return new FileData(filePath);
       }
     });
-    fileData.add(startLine, startColumn, endLine, endColumn, statements, hits);
   }
 
   @Override
@@ -66,23 +80,7 @@ public class GoCoverageProjectData extends ProjectData {
         String filePath = entry.getKey();
         FileData fileData = myFilesData.get(filePath);
         FileData fileDataToMerge = entry.getValue();
-        if (fileData != null) {
-          for (Map.Entry<String, RangeData> dataEntry : fileDataToMerge.myRangesData.entrySet()) {
-            RangeData existingRangeData = fileData.myRangesData.get(dataEntry.getKey());
-            if (existingRangeData != null) {
-              fileData.myRangesData.put(dataEntry.getKey(),
-                                        new RangeData(existingRangeData.startLine, existingRangeData.startColumn, existingRangeData.endLine,
-                                                      existingRangeData.endColumn, existingRangeData.statements,
-                                                      existingRangeData.hits + dataEntry.getValue().hits));
-            }
-            else {
-              fileData.myRangesData.put(dataEntry.getKey(), dataEntry.getValue());
-            }
-          }
-        }
-        else {
-          myFilesData.put(filePath, fileDataToMerge);
-        }
+        myFilesData.put(filePath, fileData != null ? fileData.merge(fileDataToMerge) : fileDataToMerge.copy());
       }
     }
   }
@@ -101,90 +99,204 @@ public class GoCoverageProjectData extends ProjectData {
     return myFilesData.hashCode();
   }
 
+  /**
+   * Ranges of a file packed into a single int array sorted by position,
+   * every range takes {@link #RANGE_SIZE} consecutive elements: start line, start column, end line, end column, statements and hits.
+   */
   public static class FileData {
+    private static final int RANGE_SIZE = 6;
+    private static final int STATEMENTS = 4;
+    private static final int HITS = 5;
+
     @NotNull
     public final String myFilePath;
+    @Nullable
+    private VirtualFile myFile;
     @NotNull
-    public final Map<String, RangeData> myRangesData = ContainerUtil.newHashMap();
+    private int[] myRanges = ArrayUtil.EMPTY_INT_ARRAY;
+    private int myRangeCount;
+    private boolean mySorted = true;
 
     public FileData(@NotNull String filePath) {
       myFilePath = filePath;
     }
 
+    private FileData(@NotNull String filePath, @Nullable VirtualFile file, @NotNull int[] ranges, int rangeCount) {
+      myFilePath = filePath;
+      myFile = file;
+      myRanges = ranges;
+      myRangeCount = rangeCount;
+    }
+
+    @Nullable
+    public VirtualFile getFile() {
+      if (myFile == null || !myFile.isValid()) {
+        myFile = LocalFileSystem.getInstance().findFileByPath(myFilePath);
+      }
+      return myFile;
+    }
+
     public void add(int startLine, int startColumn, int endLine, int endColumn, int statements, int hits) {
-      myRangesData.put(rangeKey(startLine, startColumn, endLine, endColumn),
-                       new RangeData(startLine, startColumn, endLine, endColumn, statements, hits));
+      int offset = myRangeCount * RANGE_SIZE;
+      if (offset + RANGE_SIZE > myRanges.length) {
+        myRanges = ArrayUtil.realloc(myRanges, Math.max(RANGE_SIZE * 8, myRanges.length * 3 / 2 / RANGE_SIZE * RANGE_SIZE));
+      }
+      myRanges[offset] = startLine;
+      myRanges[offset + 1] = startColumn;
+      myRanges[offset + 2] = endLine;
+      myRanges[offset + 3] = endColumn;
+      myRanges[offset + STATEMENTS] = statements;
+      myRanges[offset + HITS] = hits;
+      if (myRangeCount > 0 && mySorted && comparePositions(myRanges, offset - RANGE_SIZE, myRanges, offset) >= 0) {
+        mySorted = false;
+      }
+      myRangeCount++;
     }
 
-    @Override
-    public boolean equals(Object o) {
-      if (this == o) return true;
-      if (!(o instanceof FileData)) return false;
+    public int getRangeCount() {
+      assert mySorted : "Ranges of " + myFilePath + " are not sorted";
+      return myRangeCount;
+    }
 
-      FileData fileData = (FileData)o;
+    public int getStartLine(int index) {
+      return myRanges[index * RANGE_SIZE];
+    }
 
-      if (!myFilePath.equals(fileData.myFilePath)) return false;
-      return myRangesData.equals(fileData.myRangesData);
+    public int getStartColumn(int index) {
+      return myRanges[index * RANGE_SIZE + 1];
     }
 
-    @Override
-    public int hashCode() {
-      int result = myFilePath.hashCode();
-      result = 31 * result + myRangesData.hashCode();
-      return result;
+    public int getEndLine(int index) {
+      return myRanges[index * RANGE_SIZE + 2];
+    }
+
+    public int getEndColumn(int index) {
+      return myRanges[index * RANGE_SIZE + 3];
+    }
+
+    public int getStatements(int index) {
+      return myRanges[index * RANGE_SIZE + STATEMENTS];
+    }
+
+    public int getHits(int index) {
+      return myRanges[index * RANGE_SIZE + HITS];
+    }
+
+    /**
+     * Merges two sorted range lists in linear time, hits of equal ranges are summed up.
+     * Neither this nor the given data is modified.
+     */
+    @NotNull
+    public FileData merge(@NotNull FileData other) {
+      FileData left = sorted();
+      FileData right = other.sorted();
+      int[] result = new int[(left.myRangeCount + right.myRangeCount) * RANGE_SIZE];
+      int count = 0;
+      int i = 0;
+      int j = 0;
+      int end = left.myRangeCount * RANGE_SIZE;
+      int otherEnd = right.myRangeCount * RANGE_SIZE;
+      while (i < end || j < otherEnd) {
+        int compare = i >= end ? 1 : j >= otherEnd ? -1 : comparePositions(left.myRanges, i, right.myRanges, j);
+        int offset = count * RANGE_SIZE;
+        if (compare <= 0) {
+          System.arraycopy(left.myRanges, i, result, offset, RANGE_SIZE);
+          if (compare == 0) {
+            result[offset + HITS] += right.myRanges[j + HITS];
+            j += RANGE_SIZE;
+          }
+          i += RANGE_SIZE;
+        }
+        else {
+          System.arraycopy(right.myRanges, j, result, offset, RANGE_SIZE);
+          j += RANGE_SIZE;
+        }
+        count++;
+      }
+      return new FileData(myFilePath, myFile != null ? myFile : other.myFile, result, count);
+    }
+
+    @NotNull
+    private FileData copy() {
+      FileData sorted = sorted();
+      return new FileData(myFilePath, myFile, Arrays.copyOf(sorted.myRanges, sorted.myRangeCount * RANGE_SIZE), sorted.myRangeCount);
     }
-  }
 
-  public static class RangeData {
-    public final int startLine;
-    public final int startColumn;
-    public final int endLine;
-    public final int endColumn;
-    public final int hits;
-    public final int statements;
+    /**
+     * @return this data if its ranges are sorted already, otherwise a sorted copy without duplicated ranges
+     */
+    @NotNull
+    private FileData sorted() {
+      if (mySorted) return this;
+      Integer[] order = new Integer[myRangeCount];
+      for (int i = 0; i < myRangeCount; i++) {
+        order[i] = i;
+      }
+      // stable sort keeps the order of duplicated ranges, so the last one wins below
+      Arrays.sort(order, new Comparator<Integer>() {
+        @Override
+        public int compare(Integer o1, Integer o2) {
+          return comparePositions(myRanges, o1 * RANGE_SIZE, myRanges, o2 * RANGE_SIZE);
+        }
+      });
+      int[] sorted = new int[myRangeCount * RANGE_SIZE];
+      int count = 0;
+      for (Integer index : order) {
+        int offset = count * RANGE_SIZE;
+        if (count > 0 && comparePositions(sorted, offset - RANGE_SIZE, myRanges, index * RANGE_SIZE) == 0) {
+          offset -= RANGE_SIZE;
+          count--;
+        }
+        System.arraycopy(myRanges, index * RANGE_SIZE, sorted, offset, RANGE_SIZE);
+        count++;
+      }
+      return new FileData(myFilePath, myFile, sorted, count);
+    }
 
-    public RangeData(int startLine, int startColumn, int endLine, int endColumn, int statements, int hits) {
-      this.startLine = startLine;
-      this.startColumn = startColumn;
-      this.endLine = endLine;
-      this.endColumn = endColumn;
-      this.hits = hits;
-      this.statements = statements;
+    private static int comparePositions(@NotNull int[] first, int firstOffset, @NotNull int[] second, int secondOffset) {
+      for (int i = 0; i < STATEMENTS; i++) {
+        int compare = first[firstOffset + i] - second[secondOffset + i];
+        if (compare != 0) return compare;
+      }
+      return 0;
     }
 
     @Override
     public boolean equals(Object o) {
       if (this == o) return true;
-      if (!(o instanceof RangeData)) return false;
+      if (!(o instanceof FileData)) return false;
 
-      RangeData data = (RangeData)o;
+      FileData fileData = ((FileData)o).sorted();
+      FileData sorted = sorted();
 
-      if (startLine != data.startLine) return false;
-      if (startColumn != data.startColumn) return false;
-      if (endLine != data.endLine) return false;
-      if (endColumn != data.endColumn) return false;
-      if (hits != data.hits) return false;
-      return statements == data.statements;
+      if (!myFilePath.equals(fileData.myFilePath)) return false;
+      if (sorted.myRangeCount != fileData.myRangeCount) return false;
+      for (int i = 0; i < sorted.myRangeCount * RANGE_SIZE; i++) {
+        if (sorted.myRanges[i] != fileData.myRanges[i]) return false;
+      }
+      return true;
     }
 
     @Override
     public int hashCode() {
-      int result = startLine;
-      result = 31 * result + startColumn;
-      result = 31 * result + endLine;
-      result = 31 * result + endColumn;
-      result = 31 * result + hits;
-      result = 31 * result + statements;
+      FileData sorted = sorted();
+      int result = myFilePath.hashCode();
+      for (int i = 0; i < sorted.myRangeCount * RANGE_SIZE; i++) {
+        result = 31 * result + sorted.myRanges[i];
+      }
       return result;
     }
 
     @Override
     public String toString() {
-      return rangeKey(startLine, startColumn, endLine, endColumn) + "; hits: " + hits + "; statements: " + statements;
+      FileData sorted = sorted();
+      StringBuilder builder = new StringBuilder(myFilePath);
+      for (int i = 0; i < sorted.getRangeCount(); i++) {
+        builder.append("\n").append(sorted.getStartLine(i)).append(':').append(sorted.getStartColumn(i)).append('-')
+          .append(sorted.getEndLine(i)).append(':').append(sorted.getEndColumn(i))
+          .append("; hits: ").append(sorted.getHits(i)).append("; statements: ").append(sorted.getStatements(i));
+      }
+      return builder.toString();
     }
   }
-
-  private static String rangeKey(int startLine, int startColumn, int endLine, int endColumn) {
-    return startLine + ":" + startColumn + "-" + endLine + ":" + endColumn;
-  }
 }
@@ -33,8 +33,6 @@ import com.intellij.rt.coverage.data.ClassData;
 import com.intellij.rt.coverage.data.LineData;
 import com.intellij.rt.coverage.data.ProjectData;
 import com.intellij.util.Processor;
-import gnu.trove.TIntObjectHashMap;
-import gnu.trove.TObjectProcedure;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -98,7 +96,6 @@ public class GoCoverageRunner extends CoverageRunner {
       List<String> fileNameTail = StringUtil.split(line, ":");
       VirtualFile file = GoPackageUtil.findByImportPath(fileNameTail.get(0), project, module);
       if (file == null) continue;
-      String filePath = file.getPath();
 
       List<String> tailParts = StringUtil.split(fileNameTail.get(1), " ");
       if (tailParts.size() != 3) continue;
@@ -117,42 +114,43 @@ public class GoCoverageRunner extends CoverageRunner {
       int lineEnd = Integer.parseInt(offsets.substring(comma + 1, secondDot));
       int columnEnd = Integer.parseInt(offsets.substring(secondDot + 1));
 
-      result.addData(filePath, lineStart, columnStart, lineEnd, columnEnd, statements, hit);
+      result.addData(file, lineStart, columnStart, lineEnd, columnEnd, statements, hit);
     }
+    result.sortRanges();
 
     result.processFiles(new Processor<GoCoverageProjectData.FileData>() {
       @Override
       public boolean process(GoCoverageProjectData.FileData fileData) {
         ClassData classData = result.getOrCreateClassData(fileData.myFilePath);
+        int rangeCount = fileData.getRangeCount();
         int max = -1;
-        TIntObjectHashMap<LineData> linesMap = new TIntObjectHashMap<LineData>();
-        for (GoCoverageProjectData.RangeData rangeData : fileData.myRangesData.values()) {
-          for (int i = rangeData.startLine; i <= rangeData.endLine; i++) {
-            LineData existingData = linesMap.get(i);
+        for (int i = 0; i < rangeCount; i++) {
+          max = Math.max(max, fileData.getEndLine(i));
+        }
+
+        LineData[] linesArray = new LineData[max + 1];
+        for (int i = 0; i < rangeCount; i++) {
+          int hits = fileData.getHits(i);
+          for (int line = fileData.getStartLine(i); line <= fileData.getEndLine(i); line++) {
+            LineData existingData = linesArray[line];
             if (existingData != null) {
-              existingData.setHits(existingData.getHits() + rangeData.hits);
+              existingData.setHits(existingData.getHits() + hits);
               // emulate partial
               existingData.setFalseHits(0, 0);
               existingData.setTrueHits(0, 0);
             }
             else {
-              LineData newData = new LineData(i, null);
-              newData.setHits(newData.getHits() + rangeData.hits);
-              linesMap.put(i, newData);
+              LineData newData = new LineData(line, null);
+              newData.setHits(hits);
+              linesArray[line] = newData;
             }
           }
-          max = Math.max(max, rangeData.endLine);
         }
-
-        final LineData[] linesArray = new LineData[max + 1];
-        linesMap.forEachValue(new TObjectProcedure<LineData>() {
-          @Override
-          public boolean execute(LineData data) {
+        for (LineData data : linesArray) {
+          if (data != null) {
             data.fillArrays();
-            linesArray[data.getLineNumber()] = data;
-            return true;
           }
-        });
+        }
         classData.setLines(linesArray);
         return true;
       }
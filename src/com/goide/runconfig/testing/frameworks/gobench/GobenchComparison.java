@@ -0,0 +1,219 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.runconfig.testing.frameworks.gobench;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.containers.ContainerUtil;
+import gnu.trove.TDoubleArrayList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * benchstat-like comparison of two benchmark runs: for every benchmark and metric it reports mean and relative deviation
+ * of both runs, the delta between the means and the significance of the difference computed with the Mann-Whitney U-test.
+ */
+public class GobenchComparison {
+  public static final double SIGNIFICANCE_LEVEL = 0.05;
+  private static final String[] METRICS = {GobenchResult.NS_PER_OP, GobenchResult.BYTES_PER_OP, GobenchResult.ALLOCS_PER_OP,
+    GobenchResult.MB_PER_SECOND};
+
+  private GobenchComparison() {}
+
+  public static class Row {
+    @NotNull public final String name;
+    @NotNull public final String metric;
+    @NotNull public final Stats oldStats;
+    @NotNull public final Stats newStats;
+    public final double pValue;
+
+    private Row(@NotNull String name, @NotNull String metric, @NotNull Stats oldStats, @NotNull Stats newStats) {
+      this.name = name;
+      this.metric = metric;
+      this.oldStats = oldStats;
+      this.newStats = newStats;
+      pValue = mannWhitneyPValue(oldStats.samples, newStats.samples);
+    }
+
+    public double getDelta() {
+      return oldStats.mean == 0 ? Double.NaN : (newStats.mean - oldStats.mean) / oldStats.mean;
+    }
+
+    public boolean isSignificant() {
+      return pValue < SIGNIFICANCE_LEVEL;
+    }
+  }
+
+  public static class Stats {
+    @NotNull public final double[] samples;
+    public final double mean;
+    public final double variance;
+
+    public Stats(@NotNull double[] samples) {
+      this.samples = samples;
+      double sum = 0;
+      for (double sample : samples) sum += sample;
+      mean = samples.length > 0 ? sum / samples.length : Double.NaN;
+      double squares = 0;
+      for (double sample : samples) squares += (sample - mean) * (sample - mean);
+      variance = samples.length > 1 ? squares / (samples.length - 1) : 0;
+    }
+
+    public double getRelativeDeviation() {
+      return mean == 0 ? 0 : Math.sqrt(variance) / mean;
+    }
+  }
+
+  @NotNull
+  public static List<Row> compare(@NotNull List<GobenchResult> oldResults, @NotNull List<GobenchResult> newResults) {
+    Map<String, List<GobenchResult>> oldByName = groupByName(oldResults);
+    Map<String, List<GobenchResult>> newByName = groupByName(newResults);
+    List<Row> rows = ContainerUtil.newArrayList();
+    for (String metric : METRICS) {
+      for (Map.Entry<String, List<GobenchResult>> entry : newByName.entrySet()) {
+        List<GobenchResult> old = oldByName.get(entry.getKey());
+        if (old == null) continue;
+        double[] oldSamples = samples(old, metric);
+        double[] newSamples = samples(entry.getValue(), metric);
+        if (oldSamples.length > 0 && newSamples.length > 0) {
+          rows.add(new Row(entry.getKey(), metric, new Stats(oldSamples), new Stats(newSamples)));
+        }
+      }
+    }
+    return rows;
+  }
+
+  @Nullable
+  public static String format(@NotNull List<Row> rows) {
+    if (rows.isEmpty()) return null;
+    int nameWidth = "name".length();
+    for (Row row : rows) {
+      nameWidth = Math.max(nameWidth, row.name.length());
+    }
+    StringBuilder result = new StringBuilder();
+    String metric = null;
+    for (Row row : rows) {
+      if (!row.metric.equals(metric)) {
+        metric = row.metric;
+        result.append('\n').append(pad("name", nameWidth)).append("  ").append(pad("old " + metric, 16)).append("  ")
+          .append(pad("new " + metric, 16)).append("  delta\n");
+      }
+      result.append(pad(row.name, nameWidth)).append("  ")
+        .append(pad(formatStats(row.oldStats), 16)).append("  ")
+        .append(pad(formatStats(row.newStats), 16)).append("  ");
+      String counts = "n=" + row.oldStats.samples.length + "+" + row.newStats.samples.length;
+      if (row.isSignificant() && !Double.isNaN(row.getDelta())) {
+        result.append(String.format(Locale.US, "%+.2f%% (p=%.3f %s)", row.getDelta() * 100, row.pValue, counts));
+      }
+      else {
+        result.append(String.format(Locale.US, "~ (p=%.3f %s)", row.pValue, counts));
+      }
+      result.append('\n');
+    }
+    return result.toString();
+  }
+
+  /**
+   * Two-sided p-value of the Mann-Whitney U-test using the normal approximation with tie correction.
+   */
+  public static double mannWhitneyPValue(@NotNull double[] x, @NotNull double[] y) {
+    int n1 = x.length;
+    int n2 = y.length;
+    int n = n1 + n2;
+    if (n1 == 0 || n2 == 0) return 1;
+
+    double[] sorted = new double[n];
+    System.arraycopy(x, 0, sorted, 0, n1);
+    System.arraycopy(y, 0, sorted, n1, n2);
+    Arrays.sort(sorted);
+
+    double tieCorrection = 0;
+    for (int i = 0; i < n; ) {
+      int j = i;
+      while (j < n && sorted[j] == sorted[i]) j++;
+      int t = j - i;
+      tieCorrection += (double)t * t * t - t;
+      i = j;
+    }
+
+    double rankSum = 0;
+    for (double value : x) {
+      rankSum += rank(sorted, value);
+    }
+    double u = rankSum - n1 * (n1 + 1) / 2.0;
+    double mean = n1 * n2 / 2.0;
+    double variance = n1 * n2 / 12.0 * ((n + 1) - tieCorrection / ((double)n * (n - 1)));
+    if (variance <= 0) return 1;
+    double z = (Math.abs(u - mean) - 0.5) / Math.sqrt(variance);
+    if (z <= 0) return 1;
+    return Math.min(1, 2 * (1 - normalCdf(z)));
+  }
+
+  private static double rank(@NotNull double[] sorted, double value) {
+    int first = Arrays.binarySearch(sorted, value);
+    int last = first;
+    while (first > 0 && sorted[first - 1] == value) first--;
+    while (last < sorted.length - 1 && sorted[last + 1] == value) last++;
+    return (first + last) / 2.0 + 1;
+  }
+
+  private static double normalCdf(double z) {
+    // Abramowitz and Stegun 7.1.26
+    double x = Math.abs(z) / Math.sqrt(2);
+    double t = 1 / (1 + 0.3275911 * x);
+    double erf = 1 - ((((1.061405429 * t - 1.453152027) * t + 1.421413741) * t - 0.284496736) * t + 0.254829592) * t * Math.exp(-x * x);
+    return z >= 0 ? (1 + erf) / 2 : (1 - erf) / 2;
+  }
+
+  @NotNull
+  private static Map<String, List<GobenchResult>> groupByName(@NotNull List<GobenchResult> results) {
+    Map<String, List<GobenchResult>> result = ContainerUtil.newLinkedHashMap();
+    for (GobenchResult benchmark : results) {
+      List<GobenchResult> list = result.get(benchmark.name);
+      if (list == null) {
+        list = ContainerUtil.newArrayList();
+        result.put(benchmark.name, list);
+      }
+      list.add(benchmark);
+    }
+    return result;
+  }
+
+  @NotNull
+  private static double[] samples(@NotNull List<GobenchResult> results, @NotNull String metric) {
+    TDoubleArrayList samples = new TDoubleArrayList(results.size());
+    for (GobenchResult result : results) {
+      double value = result.getMetric(metric);
+      if (!Double.isNaN(value)) samples.add(value);
+    }
+    return samples.toNativeArray();
+  }
+
+  @NotNull
+  private static String formatStats(@NotNull Stats stats) {
+    return String.format(Locale.US, "%.2f ±%d%%", stats.mean, Math.round(stats.getRelativeDeviation() * 100));
+  }
+
+  @NotNull
+  private static String pad(@NotNull String text, int width) {
+    return text.length() >= width ? text : text + StringUtil.repeatSymbol(' ', width - text.length());
+  }
+}
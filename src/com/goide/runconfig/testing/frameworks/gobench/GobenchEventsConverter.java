@@ -17,15 +17,28 @@
 package com.goide.runconfig.testing.frameworks.gobench;
 
 import com.goide.GoConstants;
+import com.goide.runconfig.GoRunConfigurationBase;
 import com.goide.runconfig.testing.frameworks.gotest.GoTestEventsConverterBaseImpl;
+import com.intellij.execution.configurations.RunProfile;
+import com.intellij.execution.process.ProcessOutputTypes;
 import com.intellij.execution.testframework.TestConsoleProperties;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vcs.AbstractVcs;
+import com.intellij.openapi.vcs.ProjectLevelVcsManager;
+import com.intellij.openapi.vcs.diff.DiffProvider;
+import com.intellij.openapi.vcs.history.VcsRevisionNumber;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.containers.ContainerUtil;
 import jetbrains.buildServer.messages.serviceMessages.ServiceMessageVisitor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.text.ParseException;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -33,8 +46,12 @@ public class GobenchEventsConverter extends GoTestEventsConverterBaseImpl {
   private static final Pattern RUN = Pattern.compile("^(Benchmark" + GoConstants.IDENTIFIER_REGEX + ")");
   private static final Pattern FAIL = Pattern.compile("^--- FAIL: (Benchmark" + GoConstants.IDENTIFIER_REGEX + ").*");
 
+  @NotNull private final TestConsoleProperties myConsoleProperties;
+  @NotNull private final List<GobenchResult> myResults = ContainerUtil.newArrayList();
+
   public GobenchEventsConverter(@NotNull TestConsoleProperties properties) {
     super(GobenchFramework.NAME, properties);
+    myConsoleProperties = properties;
   }
 
   @Override
@@ -50,9 +67,66 @@ public class GobenchEventsConverter extends GoTestEventsConverterBaseImpl {
       int newStartOffset = findFirstNonWSIndex(line, start + matcher.end(1));
       return newStartOffset != -1 ? newStartOffset : line.length();
     }
+    String currentTestName = getCurrentTestName();
+    if (currentTestName != null) {
+      ContainerUtil.addIfNotNull(myResults, GobenchResult.parse(currentTestName, line.substring(start)));
+    }
     return start;
   }
 
+  @NotNull
+  public List<GobenchResult> getResults() {
+    return myResults;
+  }
+
+  /**
+   * Stores the run in {@link GobenchHistory} and prints the comparison with the previous run of the configuration.
+   * The revision is looked up on a pooled thread: a VCS may need an external command for it and this is called
+   * while the process is being terminated.
+   */
+  @Override
+  protected void finishTesting(@Nullable ServiceMessageVisitor visitor) throws ParseException {
+    RunProfile configuration = myConsoleProperties.getConfiguration();
+    // unnamed configurations, e.g. temporary ones in tests, can't be told apart between runs
+    if (myResults.isEmpty() || StringUtil.isEmpty(configuration.getName())) {
+      return;
+    }
+    final Project project = myConsoleProperties.getProject();
+    final GobenchHistory.Run run = new GobenchHistory.Run(configuration.getName(), System.currentTimeMillis(), null,
+                                                          ContainerUtil.newArrayList(myResults));
+    GobenchHistory.Run previous = GobenchHistory.getInstance(project).addRun(run);
+    if (configuration instanceof GoRunConfigurationBase) {
+      final String workingDirectory = ((GoRunConfigurationBase<?>)configuration).getWorkingDirectory();
+      ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+        @Override
+        public void run() {
+          if (!project.isDisposed()) {
+            run.revision = getRevision(project, workingDirectory);
+          }
+        }
+      });
+    }
+    if (previous != null) {
+      String comparison = GobenchComparison.format(GobenchComparison.compare(previous.results, run.results));
+      if (comparison != null) {
+        String header = "Comparison with the previous run" + (previous.revision != null ? " at revision " + previous.revision : "");
+        processOutput(header + ":\n" + comparison, ProcessOutputTypes.STDOUT, visitor);
+      }
+    }
+  }
+
+  /**
+   * @return revision of the working directory according to its VCS or {@code null} if it isn't under version control
+   */
+  @Nullable
+  private static String getRevision(@NotNull Project project, @NotNull String workingDirectory) {
+    VirtualFile directory = LocalFileSystem.getInstance().findFileByPath(workingDirectory);
+    AbstractVcs vcs = directory != null ? ProjectLevelVcsManager.getInstance(project).getVcsFor(directory) : null;
+    DiffProvider diffProvider = vcs != null ? vcs.getDiffProvider() : null;
+    VcsRevisionNumber revision = diffProvider != null ? diffProvider.getCurrentRevision(directory) : null;
+    return revision != null ? revision.asString() : null;
+  }
+
   @Override
   protected void startTest(@NotNull String testName, @Nullable ServiceMessageVisitor visitor) throws ParseException {
     String currentTestName = getCurrentTestName();
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.runconfig.testing.frameworks.gobench;
+
+import com.intellij.openapi.components.*;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.xmlb.XmlSerializerUtil;
+import com.intellij.util.xmlb.annotations.AbstractCollection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Keeps results of the last benchmark runs per run configuration, so a new run can be compared against the previous one.
+ * Runs remember the VCS revision of the working directory, if any.
+ */
+@State(
+  name = "GobenchHistory",
+  storages = @Storage(id = "default", file = StoragePathMacros.WORKSPACE_FILE)
+)
+public class GobenchHistory implements PersistentStateComponent<GobenchHistory> {
+  private static final int MAX_RUNS_PER_CONFIGURATION = 10;
+
+  @AbstractCollection(surroundWithTag = false)
+  public List<Run> runs = ContainerUtil.newArrayList();
+
+  public static GobenchHistory getInstance(@NotNull Project project) {
+    return ServiceManager.getService(project, GobenchHistory.class);
+  }
+
+  @Nullable
+  @Override
+  public GobenchHistory getState() {
+    return this;
+  }
+
+  @Override
+  public void loadState(GobenchHistory state) {
+    XmlSerializerUtil.copyBean(state, this);
+  }
+
+  /**
+   * Stores the run and returns the previous run of the same configuration.
+   */
+  @Nullable
+  public synchronized Run addRun(@NotNull Run run) {
+    Run previous = getLastRun(run.configuration);
+    runs.add(run);
+    int count = 0;
+    for (int i = runs.size() - 1; i >= 0; i--) {
+      if (run.configuration.equals(runs.get(i).configuration) && ++count > MAX_RUNS_PER_CONFIGURATION) {
+        runs.remove(i);
+      }
+    }
+    return previous;
+  }
+
+  @Nullable
+  public synchronized Run getLastRun(@NotNull String configuration) {
+    for (int i = runs.size() - 1; i >= 0; i--) {
+      if (configuration.equals(runs.get(i).configuration)) {
+        return runs.get(i);
+      }
+    }
+    return null;
+  }
+
+  public static class Run {
+    public String configuration = "";
+    public long timestamp;
+    // filled in once the VCS answers, see GobenchEventsConverter#finishTesting
+    @Nullable public volatile String revision;
+    @AbstractCollection(surroundWithTag = false)
+    public List<GobenchResult> results = ContainerUtil.newArrayList();
+
+    @SuppressWarnings("unused")
+    public Run() {
+    }
+
+    public Run(@NotNull String configuration, long timestamp, @Nullable String revision, @NotNull List<GobenchResult> results) {
+      this.configuration = configuration;
+      this.timestamp = timestamp;
+      this.revision = revision;
+      this.results = results;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.runconfig.testing.frameworks.gobench;
+
+import com.intellij.openapi.util.text.StringUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+
+/**
+ * A single measurement line of a benchmark, e.g. {@code 2000000  612 ns/op  64 B/op  2 allocs/op}.
+ * Metrics which are not reported by the benchmark are {@link Double#NaN}.
+ */
+public class GobenchResult {
+  public static final String NS_PER_OP = "ns/op";
+  public static final String BYTES_PER_OP = "B/op";
+  public static final String ALLOCS_PER_OP = "allocs/op";
+  public static final String MB_PER_SECOND = "MB/s";
+
+  public String name = "";
+  public long iterations;
+  public double nsPerOp = Double.NaN;
+  public double bytesPerOp = Double.NaN;
+  public double allocsPerOp = Double.NaN;
+  public double mbPerSecond = Double.NaN;
+
+  @SuppressWarnings("unused")
+  public GobenchResult() {
+  }
+
+  public GobenchResult(@NotNull String name, long iterations) {
+    this.name = name;
+    this.iterations = iterations;
+  }
+
+  public double getMetric(@NotNull String unit) {
+    if (NS_PER_OP.equals(unit)) return nsPerOp;
+    if (BYTES_PER_OP.equals(unit)) return bytesPerOp;
+    if (ALLOCS_PER_OP.equals(unit)) return allocsPerOp;
+    if (MB_PER_SECOND.equals(unit)) return mbPerSecond;
+    return Double.NaN;
+  }
+
+  private boolean setMetric(@NotNull String unit, double value) {
+    if (NS_PER_OP.equals(unit)) nsPerOp = value;
+    else if (BYTES_PER_OP.equals(unit)) bytesPerOp = value;
+    else if (ALLOCS_PER_OP.equals(unit)) allocsPerOp = value;
+    else if (MB_PER_SECOND.equals(unit)) mbPerSecond = value;
+    else return false;
+    return true;
+  }
+
+  /**
+   * Parses the measurement part of a benchmark output line, i.e. everything after the benchmark name.
+   *
+   * @return null if the text is not a measurement
+   */
+  @Nullable
+  public static GobenchResult parse(@NotNull String benchmarkName, @NotNull String text) {
+    Iterator<String> tokens = StringUtil.tokenize(text, " \t\r\n").iterator();
+    if (!tokens.hasNext()) return null;
+    GobenchResult result;
+    try {
+      result = new GobenchResult(benchmarkName, Long.parseLong(tokens.next()));
+    }
+    catch (NumberFormatException e) {
+      return null;
+    }
+    boolean hasMetrics = false;
+    while (tokens.hasNext()) {
+      String value = tokens.next();
+      if (!tokens.hasNext()) return null;
+      try {
+        hasMetrics |= result.setMetric(tokens.next(), Double.parseDouble(value));
+      }
+      catch (NumberFormatException e) {
+        return null;
+      }
+    }
+    return hasMetrics ? result : null;
+  }
+}
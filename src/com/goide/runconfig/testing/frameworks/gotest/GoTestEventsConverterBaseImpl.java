@@ -76,14 +76,22 @@ public abstract class GoTestEventsConverterBaseImpl extends OutputToGeneralTestE
   }
 
   protected void processOutput(@NotNull String text, Key outputType, ServiceMessageVisitor visitor) throws ParseException {
+    processOutput(myCurrentTestName, text, outputType, visitor);
+  }
+
+  /**
+   * Reports the text as the output of the given test or as a general message if there is no test to attribute it to.
+   */
+  protected void processOutput(@Nullable String testName, @NotNull String text, Key outputType, ServiceMessageVisitor visitor)
+    throws ParseException {
     if (text.isEmpty()) {
       return;
     }
     boolean isErrorMessage = ProcessOutputTypes.STDERR == outputType;
-    if (myCurrentTestName != null) {
-      ServiceMessageBuilder builder = isErrorMessage ? ServiceMessageBuilder.testStdErr(myCurrentTestName)
-                                                     : ServiceMessageBuilder.testStdOut(myCurrentTestName);
-      super.processServiceMessages(builder.addAttribute("out", text).toString(), outputType, visitor);
+    if (testName != null) {
+      ServiceMessageBuilder builder = isErrorMessage ? ServiceMessageBuilder.testStdErr(testName)
+                                                     : ServiceMessageBuilder.testStdOut(testName);
+      processServiceMessage(addTestAttributes(builder, testName).addAttribute("out", text), outputType, visitor);
       return;
     }
 
@@ -97,6 +105,19 @@ public abstract class GoTestEventsConverterBaseImpl extends OutputToGeneralTestE
     super.processServiceMessages(messageBuilder.toString(), outputType, visitor);
   }
 
+  /**
+   * Lets subclasses identify the test of an output message, e.g. with a node id
+   */
+  @NotNull
+  protected ServiceMessageBuilder addTestAttributes(@NotNull ServiceMessageBuilder builder, @NotNull String testName) {
+    return builder;
+  }
+
+  protected final void processServiceMessage(@NotNull ServiceMessageBuilder message, Key outputType, ServiceMessageVisitor visitor)
+    throws ParseException {
+    super.processServiceMessages(message.toString(), outputType, visitor);
+  }
+
   @Override
   public void dispose() {
     myVisitor = null;
@@ -124,6 +145,7 @@ public abstract class GoTestEventsConverterBaseImpl extends OutputToGeneralTestE
           finishTestInner(myCurrentTestName, TestResult.PASSED, myVisitor);
         }
       }
+      finishTesting(myVisitor);
     }
     catch (ParseException ignore) {
     }
@@ -131,6 +153,12 @@ public abstract class GoTestEventsConverterBaseImpl extends OutputToGeneralTestE
     super.flushBufferBeforeTerminating();
   }
 
+  /**
+   * Called once the process has terminated and all the tests are finished.
+   */
+  protected void finishTesting(@Nullable ServiceMessageVisitor visitor) throws ParseException {
+  }
+
   protected void finishTest(@NotNull String name, @NotNull TestResult result, @Nullable ServiceMessageVisitor visitor)
     throws ParseException {
     if (isCurrentlyRunningTest(name)) {
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.runconfig.testing.frameworks.gotestjson;
+
+import com.goide.dlv.JsonReaderEx;
+import com.goide.runconfig.testing.GoTestLocator;
+import com.goide.runconfig.testing.frameworks.gotest.GoTestEventsConverterBaseImpl;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonToken;
+import com.intellij.execution.testframework.TestConsoleProperties;
+import com.intellij.execution.testframework.sm.ServiceMessageBuilder;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.containers.ContainerUtil;
+import jetbrains.buildServer.messages.serviceMessages.ServiceMessageVisitor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.text.ParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Converts the event stream of `go test -json` into test service messages.
+ * Every line is a single event object, so no output matching is needed and interleaved output
+ * of parallel tests and subtests is attributed by the `Test` field of the event.
+ * Tests are identified by node ids, a subtest is nested under the closest running test its name starts with.
+ */
+public class GotestJsonEventsConverter extends GoTestEventsConverterBaseImpl {
+  private static final String ROOT_NODE_ID = "0";
+  private static final Pattern RUN_FRAMING = Pattern.compile("=== (RUN|PAUSE|CONT|NAME) +(\\S+)\\s*");
+  private static final Pattern RESULT_FRAMING = Pattern.compile("\\s*--- (PASS|FAIL|SKIP): (\\S+) \\([0-9.]+s\\)\\s*");
+
+  /**
+   * Started and not yet finished tests, in start order, mapped to their parent node ids
+   */
+  private final Map<String, String> myRunningTests = ContainerUtil.newLinkedHashMap();
+
+  public GotestJsonEventsConverter(@NotNull TestConsoleProperties consoleProperties) {
+    super(GotestJsonFramework.NAME, consoleProperties);
+  }
+
+  @Override
+  protected int processLine(@NotNull String line, int start, Key outputType, ServiceMessageVisitor visitor) throws ParseException {
+    String text = line.substring(start);
+    TestEvent event = TestEvent.parse(StringUtil.trimTrailing(text));
+    if (event == null) {
+      processOutput(null, text, outputType, visitor);
+      return line.length();
+    }
+
+    String testName = event.test;
+    if ("output".equals(event.action)) {
+      if (event.output != null && !isFraming(event)) {
+        processOutput(testName != null && myRunningTests.containsKey(testName) ? testName : null, event.output, outputType, visitor);
+      }
+      return line.length();
+    }
+    if (testName == null) {
+      // package-level events, the summary is already printed as output
+      return line.length();
+    }
+    if ("run".equals(event.action)) {
+      startTestNode(testName, visitor);
+    }
+    else if ("pass".equals(event.action)) {
+      startTestNode(testName, visitor);
+      finishTestNode(testName, null, event.elapsed, visitor);
+    }
+    else if ("fail".equals(event.action)) {
+      startTestNode(testName, visitor);
+      finishTestNode(testName, ServiceMessageBuilder.testFailed(getDisplayName(testName)).addAttribute("message", ""), event.elapsed,
+                     visitor);
+    }
+    else if ("skip".equals(event.action)) {
+      startTestNode(testName, visitor);
+      finishTestNode(testName, ServiceMessageBuilder.testIgnored(getDisplayName(testName)).addAttribute("message", ""), event.elapsed,
+                     visitor);
+    }
+    return line.length();
+  }
+
+  /**
+   * Tests left running when the process terminates, e.g. after a timeout or a kill, are reported as failed, subtests first.
+   */
+  @Override
+  protected void finishTesting(@Nullable ServiceMessageVisitor visitor) throws ParseException {
+    List<String> running = ContainerUtil.newArrayList(myRunningTests.keySet());
+    for (int i = running.size() - 1; i >= 0; i--) {
+      String testName = running.get(i);
+      ServiceMessageBuilder failed = ServiceMessageBuilder.testFailed(getDisplayName(testName)).addAttribute("message", "Test did not finish");
+      finishTestNode(testName, failed, null, visitor);
+    }
+  }
+
+  @NotNull
+  @Override
+  protected ServiceMessageBuilder addTestAttributes(@NotNull ServiceMessageBuilder builder, @NotNull String testName) {
+    return builder.addAttribute("nodeId", testName);
+  }
+
+  private void startTestNode(@NotNull String testName, @Nullable ServiceMessageVisitor visitor) throws ParseException {
+    if (myRunningTests.containsKey(testName)) {
+      return;
+    }
+    String parentId = getParentNodeId(testName);
+    myRunningTests.put(testName, parentId);
+    processServiceMessage(ServiceMessageBuilder.testStarted(getDisplayName(testName))
+                            .addAttribute("nodeId", testName)
+                            .addAttribute("parentNodeId", parentId)
+                            .addAttribute("locationHint", testUrl(testName)), null, visitor);
+  }
+
+  /**
+   * Subtests are shown by their own name under the parent test
+   */
+  @NotNull
+  private String getDisplayName(@NotNull String testName) {
+    String parentId = myRunningTests.get(testName);
+    return parentId == null || ROOT_NODE_ID.equals(parentId) ? testName : testName.substring(parentId.length() + 1);
+  }
+
+  @NotNull
+  private String getParentNodeId(@NotNull String testName) {
+    // subtest names may contain slashes themselves, so the closest running ancestor is the parent
+    int slashIndex = testName.lastIndexOf('/');
+    while (slashIndex > 0) {
+      String candidate = testName.substring(0, slashIndex);
+      if (myRunningTests.containsKey(candidate)) {
+        return candidate;
+      }
+      slashIndex = candidate.lastIndexOf('/');
+    }
+    return ROOT_NODE_ID;
+  }
+
+  private void finishTestNode(@NotNull String testName,
+                              @Nullable ServiceMessageBuilder resultMessage,
+                              @Nullable String elapsed,
+                              @Nullable ServiceMessageVisitor visitor) throws ParseException {
+    if (!myRunningTests.containsKey(testName)) {
+      return;
+    }
+    if (resultMessage != null) {
+      processServiceMessage(resultMessage.addAttribute("nodeId", testName), null, visitor);
+    }
+    ServiceMessageBuilder finishedMessage = ServiceMessageBuilder.testFinished(getDisplayName(testName)).addAttribute("nodeId", testName);
+    String duration = toMillis(elapsed);
+    if (duration != null) {
+      finishedMessage.addAttribute("duration", duration);
+    }
+    processServiceMessage(finishedMessage, null, visitor);
+    myRunningTests.remove(testName);
+  }
+
+  /**
+   * Recent test2json versions mark framing lines with {@code "OutputType":"frame"}. Older ones don't, then only
+   * the exact {@code === RUN} and {@code --- PASS} lines of the event's own test are treated as framing.
+   */
+  private static boolean isFraming(@NotNull TestEvent event) {
+    if (event.outputType != null) {
+      return "frame".equals(event.outputType);
+    }
+    if (event.test == null || event.output == null) {
+      return false;
+    }
+    Matcher matcher = RUN_FRAMING.matcher(event.output);
+    if (!matcher.matches()) {
+      matcher = RESULT_FRAMING.matcher(event.output);
+      if (!matcher.matches()) {
+        return false;
+      }
+    }
+    return event.test.equals(matcher.group(2));
+  }
+
+  @Nullable
+  private static String toMillis(@Nullable String elapsedSeconds) {
+    if (elapsedSeconds == null) {
+      return null;
+    }
+    try {
+      return Long.toString(Math.round(Double.parseDouble(elapsedSeconds) * 1000));
+    }
+    catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  @NotNull
+  private static String testUrl(@NotNull String testName) {
+    // subtests are navigated to the top-level test function they belong to
+    int slashIndex = testName.indexOf('/');
+    return GoTestLocator.PROTOCOL + "://" + (slashIndex > 0 ? testName.substring(0, slashIndex) : testName);
+  }
+
+  private static class TestEvent {
+    @Nullable private String action;
+    @Nullable private String test;
+    @Nullable private String elapsed;
+    @Nullable private String output;
+    @Nullable private String outputType;
+
+    @Nullable
+    private static TestEvent parse(@NotNull String line) {
+      if (!StringUtil.startsWithChar(line, '{')) {
+        return null;
+      }
+      try {
+        TestEvent event = new TestEvent();
+        JsonReaderEx reader = new JsonReaderEx(line);
+        reader.beginObject();
+        while (reader.hasNext()) {
+          String name = reader.nextName();
+          if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+          }
+          else if ("Action".equals(name)) {
+            event.action = reader.nextString();
+          }
+          else if ("Test".equals(name)) {
+            event.test = StringUtil.nullize(reader.nextString());
+          }
+          else if ("Elapsed".equals(name)) {
+            event.elapsed = reader.nextString(true);
+          }
+          else if ("Output".equals(name)) {
+            event.output = reader.nextString();
+          }
+          else if ("OutputType".equals(name)) {
+            event.outputType = reader.nextString();
+          }
+          else {
+            reader.skipValue();
+          }
+        }
+        reader.endObject();
+        return event.action != null ? event : null;
+      }
+      catch (JsonParseException e) {
+        return null;
+      }
+      catch (IllegalStateException e) {
+        return null;
+      }
+    }
+  }
+}
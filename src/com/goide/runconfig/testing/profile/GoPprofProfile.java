@@ -0,0 +1,526 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.runconfig.testing.profile;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.containers.ContainerUtil;
+import gnu.trove.TIntObjectHashMap;
+import gnu.trove.TLongArrayList;
+import gnu.trove.TLongObjectHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Decodes a profile in pprof format (gzipped profile.proto) as written by {@code go test -cpuprofile/-memprofile}
+ * and aggregates its samples per source line and into a top-down call tree of functions.
+ * Only the parts of the format needed for these views are decoded.
+ */
+public class GoPprofProfile {
+  private static final String[] PREFERRED_SAMPLE_TYPES = {"cpu", "alloc_space", "inuse_space"};
+
+  @NotNull private final String mySampleType;
+  @NotNull private final String myUnit;
+  private final long myTotal;
+  @NotNull private final Map<String, TIntObjectHashMap<LineStats>> myFiles;
+  @NotNull private final CallTreeNode myCallTree;
+
+  private GoPprofProfile(@NotNull String sampleType,
+                         @NotNull String unit,
+                         long total,
+                         @NotNull Map<String, TIntObjectHashMap<LineStats>> files,
+                         @NotNull CallTreeNode callTree) {
+    mySampleType = sampleType;
+    myUnit = unit;
+    myTotal = total;
+    myFiles = files;
+    myCallTree = callTree;
+  }
+
+  /**
+   * A function in the call tree: {@code total} includes the callees, {@code self} is spent in the function itself.
+   */
+  public static class CallTreeNode {
+    @NotNull public final String function;
+    public long total;
+    public long self;
+    @NotNull private final Map<String, CallTreeNode> myChildren = ContainerUtil.newLinkedHashMap();
+
+    private CallTreeNode(@NotNull String function) {
+      this.function = function;
+    }
+
+    @NotNull
+    private CallTreeNode getOrCreateChild(@NotNull String function) {
+      CallTreeNode child = myChildren.get(function);
+      if (child == null) {
+        child = new CallTreeNode(function);
+        myChildren.put(function, child);
+      }
+      return child;
+    }
+
+    /**
+     * @return callees, the most expensive first
+     */
+    @NotNull
+    public List<CallTreeNode> getChildren() {
+      List<CallTreeNode> result = ContainerUtil.newArrayList(myChildren.values());
+      Collections.sort(result, new Comparator<CallTreeNode>() {
+        @Override
+        public int compare(CallTreeNode o1, CallTreeNode o2) {
+          return Long.compare(o2.total, o1.total);
+        }
+      });
+      return result;
+    }
+  }
+
+  public static class LineStats {
+    @NotNull public final String filePath;
+    public final int line;
+    @NotNull public String function = "";
+    public long flat;
+    public long cum;
+    private int myLastSample = -1;
+
+    private LineStats(@NotNull String filePath, int line) {
+      this.filePath = filePath;
+      this.line = line;
+    }
+  }
+
+  @NotNull
+  public String getSampleType() {
+    return mySampleType;
+  }
+
+  @NotNull
+  public String getUnit() {
+    return myUnit;
+  }
+
+  public long getTotal() {
+    return myTotal;
+  }
+
+  /**
+   * @return root of the call tree, its children are the outermost functions of the sampled stacks
+   */
+  @NotNull
+  public CallTreeNode getCallTree() {
+    return myCallTree;
+  }
+
+  /**
+   * @param line one-based line number
+   */
+  @Nullable
+  public LineStats getLineStats(@NotNull String filePath, int line) {
+    TIntObjectHashMap<LineStats> lines = myFiles.get(filePath);
+    return lines != null ? lines.get(line) : null;
+  }
+
+  @NotNull
+  public List<LineStats> getAllLineStats() {
+    List<LineStats> result = ContainerUtil.newArrayList();
+    for (TIntObjectHashMap<LineStats> lines : myFiles.values()) {
+      for (Object stats : lines.getValues()) {
+        result.add((LineStats)stats);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Formats lines with the highest flat value as a table, similar to {@code go tool pprof -lines -top}.
+   */
+  @NotNull
+  public String formatTopLines(int limit) {
+    List<LineStats> lines = getAllLineStats();
+    Collections.sort(lines, new Comparator<LineStats>() {
+      @Override
+      public int compare(LineStats o1, LineStats o2) {
+        int result = Long.compare(o2.flat, o1.flat);
+        return result != 0 ? result : Long.compare(o2.cum, o1.cum);
+      }
+    });
+    StringBuilder result = new StringBuilder();
+    result.append("Profile ").append(mySampleType).append(", total ").append(formatValue(myTotal)).append('\n');
+    result.append(String.format(Locale.US, "%12s %7s %12s %7s  %s%n", "flat", "flat%", "cum", "cum%", "location"));
+    for (LineStats stats : ContainerUtil.getFirstItems(lines, limit)) {
+      if (stats.flat == 0) break;
+      result.append(String.format(Locale.US, "%12s %6.2f%% %12s %6.2f%%  %s %s:%d%n",
+                                  formatValue(stats.flat), percent(stats.flat), formatValue(stats.cum), percent(stats.cum),
+                                  stats.function, stats.filePath, stats.line));
+    }
+    return result.toString();
+  }
+
+  /**
+   * Formats the call tree as an indented list, similar to {@code go tool pprof -tree}, hiding calls below {@code minPercent}.
+   */
+  @NotNull
+  public String formatCallTree(double minPercent) {
+    StringBuilder result = new StringBuilder();
+    result.append("Call tree ").append(mySampleType).append(", total ").append(formatValue(myTotal)).append('\n');
+    result.append(String.format(Locale.US, "%12s %7s %12s  %s%n", "cum", "cum%", "flat", "function"));
+    for (CallTreeNode child : myCallTree.getChildren()) {
+      formatCallTree(child, 0, minPercent, result);
+    }
+    return result.toString();
+  }
+
+  private void formatCallTree(@NotNull CallTreeNode node, int depth, double minPercent, @NotNull StringBuilder result) {
+    if (percent(node.total) < minPercent) return;
+    result.append(String.format(Locale.US, "%12s %6.2f%% %12s  %s%s%n", formatValue(node.total), percent(node.total),
+                                formatValue(node.self), StringUtil.repeat("  ", depth), node.function));
+    for (CallTreeNode child : node.getChildren()) {
+      formatCallTree(child, depth + 1, minPercent, result);
+    }
+  }
+
+  public double percent(long value) {
+    return myTotal != 0 ? value * 100.0 / myTotal : 0;
+  }
+
+  @NotNull
+  public String formatValue(long value) {
+    if ("nanoseconds".equals(myUnit)) {
+      return value >= 1000000000L ? String.format(Locale.US, "%.2fs", value / 1e9) : String.format(Locale.US, "%.2fms", value / 1e6);
+    }
+    if ("bytes".equals(myUnit)) {
+      return StringUtil.formatFileSize(value);
+    }
+    return Long.toString(value);
+  }
+
+  @NotNull
+  public static GoPprofProfile load(@NotNull File file) throws IOException {
+    byte[] bytes = FileUtil.loadFileBytes(file);
+    if (bytes.length > 1 && bytes[0] == (byte)0x1f && bytes[1] == (byte)0x8b) {
+      GZIPInputStream stream = new GZIPInputStream(new ByteArrayInputStream(bytes));
+      try {
+        bytes = FileUtil.loadBytes(stream);
+      }
+      finally {
+        stream.close();
+      }
+    }
+    return parse(bytes);
+  }
+
+  @NotNull
+  public static GoPprofProfile parse(@NotNull byte[] bytes) throws IOException {
+    List<String> strings = ContainerUtil.newArrayList();
+    List<long[]> sampleTypes = ContainerUtil.newArrayList();
+    List<Sample> samples = ContainerUtil.newArrayList();
+    TLongObjectHashMap<long[]> locations = new TLongObjectHashMap<long[]>();
+    TLongObjectHashMap<long[]> functions = new TLongObjectHashMap<long[]>();
+
+    ProtoReader reader = new ProtoReader(bytes, 0, bytes.length);
+    while (reader.hasNext()) {
+      int tag = reader.readTag();
+      switch (tag >>> 3) {
+        case 1:
+          sampleTypes.add(readFields(reader.readMessage(), 2));
+          break;
+        case 2:
+          samples.add(readSample(reader.readMessage()));
+          break;
+        case 4:
+          readLocation(reader.readMessage(), locations);
+          break;
+        case 5:
+          long[] function = readFields(reader.readMessage(), 4);
+          functions.put(function[0], function);
+          break;
+        case 6:
+          strings.add(reader.readString());
+          break;
+        default:
+          reader.skip(tag);
+      }
+    }
+
+    int valueIndex = chooseValueIndex(sampleTypes, strings);
+    String sampleType = valueIndex >= 0 ? string(strings, sampleTypes.get(valueIndex)[0]) : "";
+    String unit = valueIndex >= 0 ? string(strings, sampleTypes.get(valueIndex)[1]) : "";
+
+    Map<String, TIntObjectHashMap<LineStats>> files = ContainerUtil.newHashMap();
+    CallTreeNode callTree = new CallTreeNode("");
+    long total = 0;
+    for (int sampleIndex = 0; sampleIndex < samples.size(); sampleIndex++) {
+      Sample sample = samples.get(sampleIndex);
+      if (valueIndex < 0 || valueIndex >= sample.values.length) continue;
+      long value = sample.values[valueIndex];
+      if (value == 0) continue;
+      total += value;
+      addToCallTree(callTree, sample, value, locations, functions, strings);
+      boolean leaf = true;
+      for (long locationId : sample.locations) {
+        long[] lines = locations.get(locationId);
+        if (lines == null) continue;
+        // lines of a location are ordered from the innermost inlined call outward
+        for (int i = 0; i < lines.length; i += 2) {
+          long[] function = functions.get(lines[i]);
+          if (function == null) continue;
+          String filePath = FileUtil.toSystemIndependentName(string(strings, function[3]));
+          int line = (int)lines[i + 1];
+          if (filePath.isEmpty() || line <= 0) continue;
+          LineStats stats = getOrCreate(files, filePath, line);
+          stats.function = string(strings, function[1]);
+          if (leaf) {
+            stats.flat += value;
+            leaf = false;
+          }
+          // recursive frames are counted once per sample
+          if (stats.myLastSample != sampleIndex) {
+            stats.cum += value;
+            stats.myLastSample = sampleIndex;
+          }
+        }
+      }
+    }
+    callTree.total = total;
+    return new GoPprofProfile(sampleType, unit, total, files, callTree);
+  }
+
+  /**
+   * Adds the sample stack to the tree from the outermost call inward, inlined calls are separate nodes.
+   */
+  private static void addToCallTree(@NotNull CallTreeNode root,
+                                    @NotNull Sample sample,
+                                    long value,
+                                    @NotNull TLongObjectHashMap<long[]> locations,
+                                    @NotNull TLongObjectHashMap<long[]> functions,
+                                    @NotNull List<String> strings) {
+    CallTreeNode node = root;
+    for (int i = sample.locations.length - 1; i >= 0; i--) {
+      long[] lines = locations.get(sample.locations[i]);
+      if (lines == null) continue;
+      for (int j = lines.length - 2; j >= 0; j -= 2) {
+        long[] function = functions.get(lines[j]);
+        if (function == null) continue;
+        node = node.getOrCreateChild(string(strings, function[1]));
+        node.total += value;
+      }
+    }
+    if (node != root) {
+      node.self += value;
+    }
+  }
+
+  private static int chooseValueIndex(@NotNull List<long[]> sampleTypes, @NotNull List<String> strings) {
+    for (String preferred : PREFERRED_SAMPLE_TYPES) {
+      for (int i = 0; i < sampleTypes.size(); i++) {
+        if (preferred.equals(string(strings, sampleTypes.get(i)[0]))) {
+          return i;
+        }
+      }
+    }
+    return sampleTypes.size() - 1;
+  }
+
+  @NotNull
+  private static LineStats getOrCreate(@NotNull Map<String, TIntObjectHashMap<LineStats>> files, @NotNull String filePath, int line) {
+    TIntObjectHashMap<LineStats> lines = files.get(filePath);
+    if (lines == null) {
+      lines = new TIntObjectHashMap<LineStats>();
+      files.put(filePath, lines);
+    }
+    LineStats stats = lines.get(line);
+    if (stats == null) {
+      stats = new LineStats(filePath, line);
+      lines.put(line, stats);
+    }
+    return stats;
+  }
+
+  @NotNull
+  private static String string(@NotNull List<String> strings, long index) {
+    return index >= 0 && index < strings.size() ? strings.get((int)index) : "";
+  }
+
+  /**
+   * Reads varint fields with numbers from 1 to {@code count} of a message, other fields are skipped.
+   */
+  @NotNull
+  private static long[] readFields(@NotNull ProtoReader reader, int count) throws IOException {
+    long[] result = new long[count];
+    while (reader.hasNext()) {
+      int tag = reader.readTag();
+      int field = tag >>> 3;
+      if (field >= 1 && field <= count && (tag & 7) == ProtoReader.VARINT) {
+        result[field - 1] = reader.readVarint();
+      }
+      else {
+        reader.skip(tag);
+      }
+    }
+    return result;
+  }
+
+  private static class Sample {
+    @NotNull private final long[] locations;
+    @NotNull private final long[] values;
+
+    private Sample(@NotNull long[] locations, @NotNull long[] values) {
+      this.locations = locations;
+      this.values = values;
+    }
+  }
+
+  @NotNull
+  private static Sample readSample(@NotNull ProtoReader reader) throws IOException {
+    TLongArrayList locations = new TLongArrayList();
+    TLongArrayList values = new TLongArrayList();
+    while (reader.hasNext()) {
+      int tag = reader.readTag();
+      int field = tag >>> 3;
+      if (field == 1 || field == 2) {
+        reader.readRepeatedVarint(tag, field == 1 ? locations : values);
+      }
+      else {
+        reader.skip(tag);
+      }
+    }
+    return new Sample(locations.toNativeArray(), values.toNativeArray());
+  }
+
+  /**
+   * Stores lines of a location as pairs of function id and line number.
+   */
+  private static void readLocation(@NotNull ProtoReader reader, @NotNull TLongObjectHashMap<long[]> locations) throws IOException {
+    long id = 0;
+    TLongArrayList lines = new TLongArrayList();
+    while (reader.hasNext()) {
+      int tag = reader.readTag();
+      int field = tag >>> 3;
+      if (field == 1) {
+        id = reader.readVarint();
+      }
+      else if (field == 4) {
+        long[] line = readFields(reader.readMessage(), 2);
+        lines.add(line[0]);
+        lines.add(line[1]);
+      }
+      else {
+        reader.skip(tag);
+      }
+    }
+    locations.put(id, lines.toNativeArray());
+  }
+
+  /**
+   * Minimal reader of the protocol buffers wire format.
+   */
+  private static class ProtoReader {
+    private static final int VARINT = 0;
+    private static final int FIXED64 = 1;
+    private static final int LENGTH_DELIMITED = 2;
+    private static final int FIXED32 = 5;
+
+    @NotNull private final byte[] myBytes;
+    private int myPosition;
+    private final int myEnd;
+
+    private ProtoReader(@NotNull byte[] bytes, int start, int end) {
+      myBytes = bytes;
+      myPosition = start;
+      myEnd = end;
+    }
+
+    private boolean hasNext() {
+      return myPosition < myEnd;
+    }
+
+    private int readTag() throws IOException {
+      return (int)readVarint();
+    }
+
+    private long readVarint() throws IOException {
+      long result = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        if (myPosition >= myEnd) throw new IOException("Truncated profile");
+        byte b = myBytes[myPosition++];
+        result |= (long)(b & 0x7f) << shift;
+        if ((b & 0x80) == 0) return result;
+      }
+      throw new IOException("Malformed varint in profile");
+    }
+
+    @NotNull
+    private ProtoReader readMessage() throws IOException {
+      int length = readLength();
+      ProtoReader reader = new ProtoReader(myBytes, myPosition, myPosition + length);
+      myPosition += length;
+      return reader;
+    }
+
+    @NotNull
+    private String readString() throws IOException {
+      int length = readLength();
+      String result = new String(myBytes, myPosition, length, "UTF-8");
+      myPosition += length;
+      return result;
+    }
+
+    private void readRepeatedVarint(int tag, @NotNull TLongArrayList result) throws IOException {
+      if ((tag & 7) == LENGTH_DELIMITED) {
+        ProtoReader packed = readMessage();
+        while (packed.hasNext()) {
+          result.add(packed.readVarint());
+        }
+      }
+      else {
+        result.add(readVarint());
+      }
+    }
+
+    private int readLength() throws IOException {
+      long length = readVarint();
+      if (length < 0 || myPosition + length > myEnd) throw new IOException("Truncated profile");
+      return (int)length;
+    }
+
+    private void skip(int tag) throws IOException {
+      switch (tag & 7) {
+        case VARINT:
+          readVarint();
+          break;
+        case FIXED64:
+          myPosition += 8;
+          break;
+        case LENGTH_DELIMITED:
+          myPosition += readLength();
+          break;
+        case FIXED32:
+          myPosition += 4;
+          break;
+        default:
+          throw new IOException("Unsupported wire type " + (tag & 7) + " in profile");
+      }
+    }
+  }
+}
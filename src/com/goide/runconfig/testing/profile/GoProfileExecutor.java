@@ -0,0 +1,88 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.runconfig.testing.profile;
+
+import com.goide.GoIcons;
+import com.intellij.execution.Executor;
+import com.intellij.execution.ExecutorRegistry;
+import com.intellij.openapi.util.IconLoader;
+import com.intellij.openapi.wm.ToolWindowId;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+
+public class GoProfileExecutor extends Executor {
+  public static final String EXECUTOR_ID = "GoProfile";
+
+  public static Executor getInstance() {
+    return ExecutorRegistry.getInstance().getExecutorById(EXECUTOR_ID);
+  }
+
+  @Override
+  public String getToolWindowId() {
+    return ToolWindowId.RUN;
+  }
+
+  @Override
+  public Icon getToolWindowIcon() {
+    return GoIcons.PROFILE;
+  }
+
+  @NotNull
+  @Override
+  public Icon getIcon() {
+    return GoIcons.PROFILE;
+  }
+
+  @Override
+  public Icon getDisabledIcon() {
+    return IconLoader.getDisabledIcon(GoIcons.PROFILE);
+  }
+
+  @Override
+  public String getDescription() {
+    return "Run selected configuration with CPU and memory profiling";
+  }
+
+  @NotNull
+  @Override
+  public String getActionName() {
+    return "Profile";
+  }
+
+  @NotNull
+  @Override
+  public String getId() {
+    return EXECUTOR_ID;
+  }
+
+  @NotNull
+  @Override
+  public String getStartActionText() {
+    return "Profile";
+  }
+
+  @Override
+  public String getContextActionId() {
+    return "GoProfileContext";
+  }
+
+  @Override
+  public String getHelpId() {
+    return null;
+  }
+}
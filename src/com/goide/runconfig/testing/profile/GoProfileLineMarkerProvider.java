@@ -0,0 +1,88 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.runconfig.testing.profile;
+
+import com.intellij.codeHighlighting.Pass;
+import com.intellij.codeInsight.daemon.LineMarkerInfo;
+import com.intellij.codeInsight.daemon.LineMarkerProvider;
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.markup.GutterIconRenderer;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiComment;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiWhiteSpace;
+import com.intellij.util.FunctionUtil;
+import gnu.trove.TIntHashSet;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Marks lines which take a noticeable part of the last profiled run.
+ */
+public class GoProfileLineMarkerProvider implements LineMarkerProvider {
+  private static final double HOT_SPOT_THRESHOLD_PERCENT = 1;
+
+  @Override
+  public LineMarkerInfo getLineMarkerInfo(@NotNull PsiElement element) {
+    return null;
+  }
+
+  @Override
+  public void collectSlowLineMarkers(@NotNull List<PsiElement> elements, @NotNull Collection<LineMarkerInfo> result) {
+    if (elements.isEmpty()) return;
+    PsiElement first = elements.get(0);
+    List<GoPprofProfile> profiles = GoProfileResults.getInstance(first.getProject()).getProfiles();
+    if (profiles.isEmpty()) return;
+    PsiFile file = first.getContainingFile();
+    VirtualFile virtualFile = file != null ? file.getVirtualFile() : null;
+    Document document = file != null ? PsiDocumentManager.getInstance(file.getProject()).getDocument(file) : null;
+    if (virtualFile == null || document == null) return;
+
+    String path = virtualFile.getPath();
+    TIntHashSet lines = new TIntHashSet();
+    for (PsiElement element : elements) {
+      if (element.getFirstChild() != null || element instanceof PsiWhiteSpace || element instanceof PsiComment) continue;
+      int line = document.getLineNumber(element.getTextRange().getStartOffset());
+      if (!lines.add(line)) continue;
+      String tooltip = buildTooltip(profiles, path, line + 1);
+      if (tooltip != null) {
+        result.add(new LineMarkerInfo<PsiElement>(element, element.getTextRange(), AllIcons.General.BalloonWarning,
+                                                  Pass.UPDATE_OVERRIDEN_MARKERS, FunctionUtil.<PsiElement, String>constant(tooltip),
+                                                  null, GutterIconRenderer.Alignment.RIGHT));
+      }
+    }
+  }
+
+  private static String buildTooltip(@NotNull List<GoPprofProfile> profiles, @NotNull String path, int line) {
+    StringBuilder tooltip = null;
+    for (GoPprofProfile profile : profiles) {
+      GoPprofProfile.LineStats stats = profile.getLineStats(path, line);
+      if (stats == null || profile.percent(stats.cum) < HOT_SPOT_THRESHOLD_PERCENT) continue;
+      tooltip = tooltip == null ? new StringBuilder() : tooltip.append('\n');
+      tooltip.append(String.format(Locale.US, "%s: %s flat (%.1f%%), %s cum (%.1f%%)", profile.getSampleType(),
+                                   profile.formatValue(stats.flat), profile.percent(stats.flat),
+                                   profile.formatValue(stats.cum), profile.percent(stats.cum)));
+    }
+    return tooltip != null ? tooltip.toString() : null;
+  }
+}
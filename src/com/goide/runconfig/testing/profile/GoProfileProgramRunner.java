@@ -0,0 +1,130 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.runconfig.testing.profile;
+
+import com.goide.runconfig.testing.GoTestRunConfiguration;
+import com.goide.runconfig.testing.GoTestRunningState;
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.ExecutionResult;
+import com.intellij.execution.configurations.RunProfile;
+import com.intellij.execution.configurations.RunProfileState;
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.execution.runners.ExecutionEnvironment;
+import com.intellij.execution.runners.GenericProgramRunner;
+import com.intellij.execution.runners.RunContentBuilder;
+import com.intellij.execution.ui.ConsoleView;
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.execution.ui.ExecutionConsole;
+import com.intellij.execution.ui.RunContentDescriptor;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Runs test and benchmark configurations with {@code -cpuprofile} and {@code -memprofile}, prints the hottest lines
+ * and the call tree, and marks the hottest lines in the gutter.
+ */
+public class GoProfileProgramRunner extends GenericProgramRunner {
+  private static final Logger LOG = Logger.getInstance(GoProfileProgramRunner.class);
+  private static final String ID = "GoProfileProgramRunner";
+
+  @NotNull
+  @Override
+  public String getRunnerId() {
+    return ID;
+  }
+
+  @Override
+  public boolean canRun(@NotNull String executorId, @NotNull RunProfile profile) {
+    return executorId.equals(GoProfileExecutor.EXECUTOR_ID) && profile instanceof GoTestRunConfiguration;
+  }
+
+  @Nullable
+  @Override
+  protected RunContentDescriptor doExecute(@NotNull RunProfileState state, @NotNull ExecutionEnvironment environment)
+    throws ExecutionException {
+    assert state instanceof GoTestRunningState;
+    FileDocumentManager.getInstance().saveAllDocuments();
+
+    final File cpuProfile;
+    final File memoryProfile;
+    try {
+      cpuProfile = FileUtil.createTempFile("go-cpu", ".pprof", true);
+      memoryProfile = FileUtil.createTempFile("go-mem", ".pprof", true);
+    }
+    catch (IOException e) {
+      throw new ExecutionException("Cannot create profile files", e);
+    }
+    ((GoTestRunningState)state).setProfileFilePaths(cpuProfile.getAbsolutePath(), memoryProfile.getAbsolutePath());
+
+    final ExecutionResult executionResult = state.execute(environment.getExecutor(), this);
+    if (executionResult == null) {
+      return null;
+    }
+    final Project project = environment.getProject();
+    executionResult.getProcessHandler().addProcessListener(new ProcessAdapter() {
+      @Override
+      public void processTerminated(ProcessEvent event) {
+        ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+          @Override
+          public void run() {
+            List<GoPprofProfile> profiles = ContainerUtil.newArrayList();
+            ContainerUtil.addIfNotNull(profiles, loadProfile(cpuProfile));
+            ContainerUtil.addIfNotNull(profiles, loadProfile(memoryProfile));
+            GoProfileResults.getInstance(project).setProfiles(profiles);
+            printReport(executionResult.getExecutionConsole(), profiles);
+          }
+        });
+      }
+    });
+    return new RunContentBuilder(executionResult, environment).showRunContent(environment.getContentToReuse());
+  }
+
+  @Nullable
+  private static GoPprofProfile loadProfile(@NotNull File file) {
+    try {
+      return file.length() > 0 ? GoPprofProfile.load(file) : null;
+    }
+    catch (IOException e) {
+      LOG.warn("Cannot read profile " + file, e);
+      return null;
+    }
+    finally {
+      FileUtil.delete(file);
+    }
+  }
+
+  private static void printReport(@Nullable ExecutionConsole console, @NotNull List<GoPprofProfile> profiles) {
+    if (!(console instanceof ConsoleView)) {
+      return;
+    }
+    for (GoPprofProfile profile : profiles) {
+      ((ConsoleView)console).print("\n" + profile.formatTopLines(20), ConsoleViewContentType.SYSTEM_OUTPUT);
+      ((ConsoleView)console).print("\n" + profile.formatCallTree(1), ConsoleViewContentType.SYSTEM_OUTPUT);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.runconfig.testing.profile;
+
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Profiles of the last profiled run, shown as gutter hot spots by {@link GoProfileLineMarkerProvider}.
+ */
+public class GoProfileResults {
+  @NotNull private final Project myProject;
+  @NotNull private volatile List<GoPprofProfile> myProfiles = Collections.emptyList();
+
+  public GoProfileResults(@NotNull Project project) {
+    myProject = project;
+  }
+
+  public static GoProfileResults getInstance(@NotNull Project project) {
+    return ServiceManager.getService(project, GoProfileResults.class);
+  }
+
+  @NotNull
+  public List<GoPprofProfile> getProfiles() {
+    return myProfiles;
+  }
+
+  public void setProfiles(@NotNull List<GoPprofProfile> profiles) {
+    myProfiles = Collections.unmodifiableList(profiles);
+    ApplicationManager.getApplication().invokeLater(new Runnable() {
+      @Override
+      public void run() {
+        if (!myProject.isDisposed()) {
+          DaemonCodeAnalyzer.getInstance(myProject).restart();
+        }
+      }
+    });
+  }
+}
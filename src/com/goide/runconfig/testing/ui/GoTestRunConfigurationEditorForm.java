@@ -21,6 +21,7 @@ import com.goide.runconfig.testing.GoTestRunConfiguration;
 import com.goide.runconfig.testing.frameworks.gobench.GobenchFramework;
 import com.goide.runconfig.testing.frameworks.gocheck.GocheckFramework;
 import com.goide.runconfig.testing.frameworks.gotest.GotestFramework;
+import com.goide.runconfig.testing.frameworks.gotestjson.GotestJsonFramework;
 import com.goide.runconfig.ui.GoCommonSettingsPanel;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.options.ConfigurationException;
@@ -57,6 +58,7 @@ public class GoTestRunConfigurationEditorForm extends SettingsEditor<GoTestRunCo
   private JRadioButton myGotestFrameworkRadioButton;
   private JRadioButton myGocheckFrameworkRadioButton;
   private JRadioButton myGobenchRadioButton;
+  private JRadioButton myGotestJsonRadioButton;
 
   public GoTestRunConfigurationEditorForm(@NotNull Project project) {
     super(null);
@@ -91,6 +93,7 @@ public class GoTestRunConfigurationEditorForm extends SettingsEditor<GoTestRunCo
     myGotestFrameworkRadioButton.setSelected(configuration.getTestFramework() == GotestFramework.INSTANCE);
     myGocheckFrameworkRadioButton.setSelected(configuration.getTestFramework() == GocheckFramework.INSTANCE);
     myGobenchRadioButton.setSelected(configuration.getTestFramework() == GobenchFramework.INSTANCE);
+    myGotestJsonRadioButton.setSelected(configuration.getTestFramework() == GotestJsonFramework.INSTANCE);
     myTestKindComboBox.setSelectedItem(configuration.getKind());
     myPackageField.setText(configuration.getPackage());
 
@@ -111,6 +114,8 @@ public class GoTestRunConfigurationEditorForm extends SettingsEditor<GoTestRunCo
       configuration.setTestFramework(GocheckFramework.INSTANCE);
     } else if (myGobenchRadioButton.isSelected()) {
       configuration.setTestFramework(GobenchFramework.INSTANCE);
+    } else if (myGotestJsonRadioButton.isSelected()) {
+      configuration.setTestFramework(GotestJsonFramework.INSTANCE);
     } else {
       configuration.setTestFramework(GotestFramework.INSTANCE);
     }
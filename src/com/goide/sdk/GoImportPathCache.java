@@ -0,0 +1,172 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.sdk;
+
+import com.intellij.ProjectTopics;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootAdapter;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.*;
+import com.intellij.util.Function;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.messages.MessageBusConnection;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shared table of import path resolution: (source roots to look up, import path) → files found, in roots order.
+ * Misses are cached as well. The table is dropped whenever the source model changes: roots change or a directory
+ * under one of the looked up roots is created, copied, deleted, moved or renamed.
+ */
+public class GoImportPathCache extends SimpleModificationTracker {
+  private final ConcurrentMap<String, RootsEntry> myTable = ContainerUtil.newConcurrentMap();
+
+  public GoImportPathCache(@NotNull Project project) {
+    MessageBusConnection connection = project.getMessageBus().connect(project);
+    connection.subscribe(ProjectTopics.PROJECT_ROOTS, new ModuleRootAdapter() {
+      @Override
+      public void rootsChanged(ModuleRootEvent event) {
+        invalidate();
+      }
+    });
+    connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener.Adapter() {
+      @Override
+      public void after(@NotNull List<? extends VFileEvent> events) {
+        for (VFileEvent event : events) {
+          if (changesStructureUnderRoots(event)) {
+            invalidate();
+            return;
+          }
+        }
+      }
+    });
+  }
+
+  public static GoImportPathCache getInstance(@NotNull Project project) {
+    return ServiceManager.getService(project, GoImportPathCache.class);
+  }
+
+  /**
+   * @return files at {@code importPath} relative to each of the roots, in roots order
+   */
+  @NotNull
+  public List<VirtualFile> resolve(@NotNull Collection<VirtualFile> roots, @NotNull String importPath) {
+    String rootsKey = StringUtil.join(roots, new Function<VirtualFile, String>() {
+      @Override
+      public String fun(VirtualFile root) {
+        return root.getUrl();
+      }
+    }, "\n");
+    // read before the table: an invalidation after this point keeps the result out of the table
+    long modificationCount = getModificationCount();
+    RootsEntry entry = myTable.get(rootsKey);
+    if (entry == null) {
+      // root paths are published together with the entry, so events under them invalidate it as soon as it is visible
+      entry = ContainerUtil.cacheOrGet(myTable, rootsKey, new RootsEntry(roots));
+    }
+
+    List<VirtualFile> cached = entry.myImportPaths.get(importPath);
+    if (cached != null && isValid(cached)) return cached;
+
+    List<VirtualFile> files = ContainerUtil.newSmartList();
+    for (VirtualFile root : roots) {
+      VirtualFile file = root.isValid() ? root.findFileByRelativePath(importPath) : null;
+      if (file != null) {
+        files.add(file);
+      }
+    }
+    if (modificationCount == getModificationCount()) {
+      entry.myImportPaths.put(importPath, files);
+    }
+    return files;
+  }
+
+  private static boolean isValid(@NotNull List<VirtualFile> files) {
+    for (VirtualFile file : files) {
+      if (!file.isValid()) return false;
+    }
+    return true;
+  }
+
+  private boolean changesStructureUnderRoots(@NotNull VFileEvent event) {
+    if (event instanceof VFileCreateEvent) {
+      return ((VFileCreateEvent)event).isDirectory() && isUnderRoots(event.getPath());
+    }
+    VirtualFile file = event.getFile();
+    if (file == null || !file.isDirectory()) return false;
+    if (event instanceof VFileCopyEvent) {
+      VFileCopyEvent copy = (VFileCopyEvent)event;
+      return isUnderRoots(copy.getNewParent().getPath() + "/" + copy.getNewChildName());
+    }
+    if (event instanceof VFileDeleteEvent) {
+      return isUnderRoots(file.getPath());
+    }
+    if (event instanceof VFileMoveEvent) {
+      VFileMoveEvent move = (VFileMoveEvent)event;
+      return isUnderRoots(move.getOldParent().getPath() + "/" + file.getName()) ||
+             isUnderRoots(move.getNewParent().getPath() + "/" + file.getName());
+    }
+    if (event instanceof VFilePropertyChangeEvent) {
+      VFilePropertyChangeEvent change = (VFilePropertyChangeEvent)event;
+      if (!VirtualFile.PROP_NAME.equals(change.getPropertyName())) return false;
+      VirtualFile parent = file.getParent();
+      return parent != null && (isUnderRoots(parent.getPath() + "/" + change.getOldValue()) || isUnderRoots(file.getPath()));
+    }
+    return false;
+  }
+
+  /**
+   * Directories above a root count as well: renaming or deleting them changes what the root contains.
+   */
+  private boolean isUnderRoots(@NotNull String path) {
+    for (RootsEntry entry : myTable.values()) {
+      for (String rootPath : entry.myRootPaths) {
+        if (FileUtil.isAncestor(rootPath, path, false) || FileUtil.isAncestor(path, rootPath, true)) return true;
+      }
+    }
+    return false;
+  }
+
+  private void invalidate() {
+    incModificationCount();
+    myTable.clear();
+  }
+
+  private static class RootsEntry {
+    private final List<String> myRootPaths;
+    private final ConcurrentMap<String, List<VirtualFile>> myImportPaths = ContainerUtil.newConcurrentMap();
+
+    RootsEntry(@NotNull Collection<VirtualFile> roots) {
+      myRootPaths = ContainerUtil.map(roots, new Function<VirtualFile, String>() {
+        @Override
+        public String fun(VirtualFile root) {
+          return root.getPath();
+        }
+      });
+    }
+  }
+}
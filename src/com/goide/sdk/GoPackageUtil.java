@@ -150,12 +150,7 @@ public class GoPackageUtil {
       return null;
     }
     importPath = FileUtil.toSystemIndependentName(importPath);
-    for (VirtualFile root : GoSdkUtil.getSourcesPathsToLookup(project, module)) {
-      VirtualFile file = root.findFileByRelativePath(importPath);
-      if (file != null) {
-        return file;
-      }
-    }
-    return null;
+    Collection<VirtualFile> roots = GoSdkUtil.getSourcesPathsToLookup(project, module);
+    return ContainerUtil.getFirstItem(GoImportPathCache.getInstance(project).resolve(roots, importPath));
   }
 }
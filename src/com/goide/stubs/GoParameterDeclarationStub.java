@@ -19,18 +19,17 @@ package com.goide.stubs;
 import com.goide.psi.GoParameterDeclaration;
 import com.intellij.psi.stubs.IStubElementType;
 import com.intellij.psi.stubs.StubElement;
-import com.intellij.util.io.StringRef;
 
 public class GoParameterDeclarationStub extends StubWithText<GoParameterDeclaration> {
   private final boolean myVariadic;
 
-  public GoParameterDeclarationStub(StubElement parent, IStubElementType elementType, StringRef ref, boolean variadic) {
-    super(parent, elementType, ref);
+  public GoParameterDeclarationStub(StubElement parent, IStubElementType elementType, GoStubText text, boolean variadic) {
+    super(parent, elementType, text);
     myVariadic = variadic;
   }
 
   public GoParameterDeclarationStub(StubElement parent, IStubElementType elementType, String text, boolean variadic) {
-    this(parent, elementType, StringRef.fromString(text), variadic);
+    this(parent, elementType, GoStubText.fromString(text), variadic);
   }
 
   public boolean isVariadic() {
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.stubs;
+
+import com.intellij.util.io.StringRef;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Stub text that is decoded on the first {@link #getString()} call, see {@link GoStubTextCodec}.
+ */
+public class GoStubText {
+  // known tokens and raw text are strings, identifiers are name storage references resolved on demand
+  @Nullable private final Object[] myTokens;
+  private volatile String myText;
+
+  private GoStubText(@Nullable Object[] tokens, @Nullable String text) {
+    myTokens = tokens;
+    myText = text;
+  }
+
+  @Contract("null -> null; !null -> !null")
+  @Nullable
+  public static GoStubText fromString(@Nullable String text) {
+    return text == null ? null : new GoStubText(null, text);
+  }
+
+  @NotNull
+  static GoStubText fromTokens(@NotNull Object[] tokens) {
+    return new GoStubText(tokens, null);
+  }
+
+  @NotNull
+  public String getString() {
+    String text = myText;
+    if (text == null) {
+      assert myTokens != null;
+      if (myTokens.length == 1) {
+        text = tokenText(myTokens[0]);
+      }
+      else {
+        StringBuilder builder = new StringBuilder();
+        for (Object token : myTokens) {
+          builder.append(tokenText(token));
+        }
+        text = builder.toString();
+      }
+      myText = text;
+    }
+    return text;
+  }
+
+  @NotNull
+  private static String tokenText(@NotNull Object token) {
+    return token instanceof StringRef ? ((StringRef)token).getString() : (String)token;
+  }
+
+  @Override
+  public String toString() {
+    return getString();
+  }
+}
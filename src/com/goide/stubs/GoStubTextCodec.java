@@ -0,0 +1,123 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.stubs;
+
+import com.goide.GoTypes;
+import com.goide.lexer.GoLexer;
+import com.intellij.psi.stubs.StubInputStream;
+import com.intellij.psi.stubs.StubOutputStream;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.io.StringRef;
+import gnu.trove.TObjectIntHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Token-wise encoding of the source text kept in signature, type, parameter, result and constant stubs.
+ * <p/>
+ * Punctuation, keywords and common whitespace are written as a single byte, identifiers go to the shared name storage
+ * of the stub index, so a type such as {@code map[string]error} costs a few bytes instead of its own name storage entry.
+ * Anything else, e.g. literals and comments, is written as is, so decoding restores the original text exactly.
+ * Reading doesn't build the text, it is assembled on the first {@link GoStubText#getString()} call.
+ */
+public class GoStubTextCodec {
+  // the order is a part of the stub format, bump GoFileElementType.VERSION after changing it
+  private static final String[] KNOWN_TOKENS = {
+    " ", "(", ")", ",", ".", "*", "[", "]", "{", "}", ";", "...", "<-", "=", "\n", "\t", "  ",
+    "func", "map", "chan", "struct", "interface", "string", "int", "error", "bool", "byte", "int64", "uint", "uintptr",
+    "float64", "rune", "uint8", "uint32", "uint64", "int32", "_"
+  };
+  private static final TObjectIntHashMap<String> KNOWN_TOKEN_INDICES = new TObjectIntHashMap<String>();
+  private static final int IDENTIFIER = KNOWN_TOKENS.length;
+  private static final int RAW = IDENTIFIER + 1;
+  private static final ThreadLocal<GoLexer> LEXER = new ThreadLocal<GoLexer>() {
+    @Override
+    protected GoLexer initialValue() {
+      return new GoLexer();
+    }
+  };
+
+  static {
+    for (int i = 0; i < KNOWN_TOKENS.length; i++) {
+      KNOWN_TOKEN_INDICES.put(KNOWN_TOKENS[i], i);
+    }
+  }
+
+  private GoStubTextCodec() {}
+
+  public static void writeText(@NotNull StubOutputStream dataStream, @Nullable String text) throws IOException {
+    if (text == null) {
+      dataStream.writeVarInt(0);
+      return;
+    }
+    List<String> tokens = ContainerUtil.newArrayList();
+    List<IElementType> types = ContainerUtil.newArrayList();
+    GoLexer lexer = LEXER.get();
+    lexer.start(text);
+    while (lexer.getTokenType() != null) {
+      // synthetic semicolons are empty
+      if (lexer.getTokenStart() < lexer.getTokenEnd()) {
+        tokens.add(lexer.getTokenText());
+        types.add(lexer.getTokenType());
+      }
+      lexer.advance();
+    }
+    dataStream.writeVarInt(tokens.size() + 1);
+    for (int i = 0; i < tokens.size(); i++) {
+      String token = tokens.get(i);
+      if (KNOWN_TOKEN_INDICES.containsKey(token)) {
+        dataStream.writeByte(KNOWN_TOKEN_INDICES.get(token));
+      }
+      else if (types.get(i) == GoTypes.IDENTIFIER) {
+        dataStream.writeByte(IDENTIFIER);
+        dataStream.writeName(token);
+      }
+      else {
+        dataStream.writeByte(RAW);
+        dataStream.writeUTFFast(token);
+      }
+    }
+  }
+
+  @Nullable
+  public static GoStubText readText(@NotNull StubInputStream dataStream) throws IOException {
+    int count = dataStream.readVarInt() - 1;
+    if (count < 0) return null;
+    Object[] tokens = new Object[count];
+    for (int i = 0; i < count; i++) {
+      tokens[i] = readToken(dataStream);
+    }
+    return GoStubText.fromTokens(tokens);
+  }
+
+  @NotNull
+  private static Object readToken(@NotNull StubInputStream dataStream) throws IOException {
+    int tag = dataStream.readUnsignedByte();
+    if (tag < KNOWN_TOKENS.length) return KNOWN_TOKENS[tag];
+    if (tag == IDENTIFIER) {
+      StringRef name = dataStream.readName();
+      if (name == null) throw new IOException("Missing stub text identifier");
+      return name;
+    }
+    if (tag == RAW) return dataStream.readUTFFast();
+    throw new IOException("Unexpected stub text tag: " + tag);
+  }
+}
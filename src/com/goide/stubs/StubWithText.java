@@ -20,15 +20,14 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.stubs.IStubElementType;
 import com.intellij.psi.stubs.StubBase;
 import com.intellij.psi.stubs.StubElement;
-import com.intellij.util.io.StringRef;
 import org.jetbrains.annotations.Nullable;
 
 abstract public class StubWithText<T extends PsiElement> extends StubBase<T> implements TextHolder {
-  @Nullable private final StringRef myText;
+  @Nullable private final GoStubText myText;
 
-  protected StubWithText(StubElement parent, IStubElementType elementType, @Nullable StringRef ref) {
+  protected StubWithText(StubElement parent, IStubElementType elementType, @Nullable GoStubText text) {
     super(parent, elementType);
-    myText = ref;
+    myText = text;
   }
 
   @Override
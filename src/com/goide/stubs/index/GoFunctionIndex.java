@@ -18,6 +18,7 @@ package com.goide.stubs.index;
 
 import com.goide.GoFileElementType;
 import com.goide.psi.GoFunctionDeclaration;
+import com.goide.util.GoStatistics;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.stubs.StringStubIndexExtension;
@@ -49,7 +50,13 @@ public class GoFunctionIndex extends StringStubIndexExtension<GoFunctionDeclarat
                                                        @NotNull Project project,
                                                        @Nullable GlobalSearchScope scope,
                                                        @Nullable IdFilter idFilter) {
-    return StubIndex.getElements(KEY, name, project, scope, idFilter, GoFunctionDeclaration.class);
+    long start = GoStatistics.startTimer();
+    try {
+      return StubIndex.getElements(KEY, name, project, scope, idFilter, GoFunctionDeclaration.class);
+    }
+    finally {
+      GoStatistics.stopTimer("GoFunctionIndex.find", start);
+    }
   }
 
   public static boolean process(@NotNull String name,
@@ -57,6 +64,12 @@ public class GoFunctionIndex extends StringStubIndexExtension<GoFunctionDeclarat
                                 @Nullable GlobalSearchScope scope,
                                 @Nullable IdFilter idFilter,
                                 @NotNull Processor<GoFunctionDeclaration> processor) {
-    return StubIndex.getInstance().processElements(KEY, name, project, scope, idFilter, GoFunctionDeclaration.class, processor);
+    long start = GoStatistics.startTimer();
+    try {
+      return StubIndex.getInstance().processElements(KEY, name, project, scope, idFilter, GoFunctionDeclaration.class, processor);
+    }
+    finally {
+      GoStatistics.stopTimer("GoFunctionIndex.process", start);
+    }
   }
 }
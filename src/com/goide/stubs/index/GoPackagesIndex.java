@@ -18,9 +18,16 @@ package com.goide.stubs.index;
 
 import com.goide.GoFileElementType;
 import com.goide.psi.GoFile;
+import com.goide.util.GoStatistics;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndex;
 import com.intellij.psi.stubs.StubIndexKey;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
 
 public class GoPackagesIndex extends StringStubIndexExtension<GoFile> {
   public static final StubIndexKey<String, GoFile> KEY = StubIndexKey.createIndexKey("go.packages");
@@ -35,4 +42,15 @@ public class GoPackagesIndex extends StringStubIndexExtension<GoFile> {
   public StubIndexKey<String, GoFile> getKey() {
     return KEY;
   }
+
+  @NotNull
+  public static Collection<GoFile> find(@NotNull String packageName, @NotNull Project project, @Nullable GlobalSearchScope scope) {
+    long start = GoStatistics.startTimer();
+    try {
+      return StubIndex.getElements(KEY, packageName, project, scope, GoFile.class);
+    }
+    finally {
+      GoStatistics.stopTimer("GoPackagesIndex.find", start);
+    }
+  }
 }
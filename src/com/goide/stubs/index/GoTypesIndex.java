@@ -18,6 +18,7 @@ package com.goide.stubs.index;
 
 import com.goide.GoFileElementType;
 import com.goide.psi.GoTypeSpec;
+import com.goide.util.GoStatistics;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.stubs.StringStubIndexExtension;
@@ -48,6 +49,12 @@ public class GoTypesIndex extends StringStubIndexExtension<GoTypeSpec> {
                                             @NotNull Project project,
                                             @Nullable GlobalSearchScope scope,
                                             @Nullable IdFilter idFilter) {
-    return StubIndex.getElements(KEY, name, project, scope, idFilter, GoTypeSpec.class);
+    long start = GoStatistics.startTimer();
+    try {
+      return StubIndex.getElements(KEY, name, project, scope, idFilter, GoTypeSpec.class);
+    }
+    finally {
+      GoStatistics.stopTimer("GoTypesIndex.find", start);
+    }
   }
 }
@@ -21,18 +21,20 @@ import com.goide.psi.GoExpression;
 import com.goide.psi.GoFunctionOrMethodDeclaration;
 import com.goide.psi.impl.GoConstSpecImpl;
 import com.goide.stubs.GoConstSpecStub;
+import com.goide.stubs.GoStubText;
+import com.goide.stubs.GoStubTextCodec;
 import com.intellij.lang.ASTNode;
-import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.stubs.StubElement;
 import com.intellij.psi.stubs.StubInputStream;
 import com.intellij.psi.stubs.StubOutputStream;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.ArrayFactory;
 import com.intellij.util.Function;
-import com.intellij.util.io.StringRef;
+import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
+import java.util.List;
 
 public class GoConstSpecStubElementType extends GoStubElementType<GoConstSpecStub, GoConstSpec> {
   public static final GoConstSpec[] EMPTY_ARRAY = new GoConstSpec[0];
@@ -58,18 +60,22 @@ public class GoConstSpecStubElementType extends GoStubElementType<GoConstSpecStu
   @NotNull
   @Override
   public GoConstSpecStub createStub(@NotNull GoConstSpec psi, StubElement parentStub) {
-    String join = StringUtil.join(psi.getExpressionList(), new Function<GoExpression, String>() {
+    List<GoStubText> expressionTexts = ContainerUtil.map(psi.getExpressionList(), new Function<GoExpression, GoStubText>() {
       @Override
-      public String fun(GoExpression e) {
-        return e.getText();
+      public GoStubText fun(GoExpression e) {
+        return GoStubText.fromString(e.getText());
       }
-    }, ";");
-    return new GoConstSpecStub(parentStub, this, StringRef.fromString(join));
+    });
+    return new GoConstSpecStub(parentStub, this, expressionTexts);
   }
 
   @Override
   public void serialize(@NotNull GoConstSpecStub stub, @NotNull StubOutputStream dataStream) throws IOException {
-    dataStream.writeName(stub.getExpressionsText());
+    List<String> expressionTexts = stub.getExpressionTexts();
+    dataStream.writeVarInt(expressionTexts.size());
+    for (String text : expressionTexts) {
+      GoStubTextCodec.writeText(dataStream, text);
+    }
   }
 
   @Override
@@ -80,6 +86,12 @@ public class GoConstSpecStubElementType extends GoStubElementType<GoConstSpecStu
   @NotNull
   @Override
   public GoConstSpecStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
-    return new GoConstSpecStub(parentStub, this, dataStream.readName());
+    int size = dataStream.readVarInt();
+    List<GoStubText> expressionTexts = ContainerUtil.newArrayListWithCapacity(size);
+    for (int i = 0; i < size; i++) {
+      GoStubText text = GoStubTextCodec.readText(dataStream);
+      expressionTexts.add(text != null ? text : GoStubText.fromString(""));
+    }
+    return new GoConstSpecStub(parentStub, this, expressionTexts);
   }
 }
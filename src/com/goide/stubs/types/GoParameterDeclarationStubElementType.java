@@ -19,6 +19,7 @@ package com.goide.stubs.types;
 import com.goide.psi.GoParameterDeclaration;
 import com.goide.psi.impl.GoParameterDeclarationImpl;
 import com.goide.stubs.GoParameterDeclarationStub;
+import com.goide.stubs.GoStubTextCodec;
 import com.intellij.psi.stubs.StubElement;
 import com.intellij.psi.stubs.StubInputStream;
 import com.intellij.psi.stubs.StubOutputStream;
@@ -45,13 +46,13 @@ public class GoParameterDeclarationStubElementType extends GoStubElementType<GoP
 
   @Override
   public void serialize(@NotNull GoParameterDeclarationStub stub, @NotNull StubOutputStream dataStream) throws IOException {
-    dataStream.writeName(stub.getText());
+    GoStubTextCodec.writeText(dataStream, stub.getText());
     dataStream.writeBoolean(stub.isVariadic());
   }
 
   @NotNull
   @Override
   public GoParameterDeclarationStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
-    return new GoParameterDeclarationStub(parentStub, this, dataStream.readName(), dataStream.readBoolean());
+    return new GoParameterDeclarationStub(parentStub, this, GoStubTextCodec.readText(dataStream), dataStream.readBoolean());
   }
 }
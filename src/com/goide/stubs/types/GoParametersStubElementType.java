@@ -19,6 +19,7 @@ package com.goide.stubs.types;
 import com.goide.psi.GoParameters;
 import com.goide.psi.impl.GoParametersImpl;
 import com.goide.stubs.GoParametersStub;
+import com.goide.stubs.GoStubTextCodec;
 import com.intellij.psi.stubs.StubElement;
 import com.intellij.psi.stubs.StubInputStream;
 import com.intellij.psi.stubs.StubOutputStream;
@@ -45,12 +46,12 @@ public class GoParametersStubElementType extends GoStubElementType<GoParametersS
 
   @Override
   public void serialize(@NotNull GoParametersStub stub, @NotNull StubOutputStream dataStream) throws IOException {
-    dataStream.writeName(stub.getText());
+    GoStubTextCodec.writeText(dataStream, stub.getText());
   }
 
   @NotNull
   @Override
   public GoParametersStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
-    return new GoParametersStub(parentStub, this, dataStream.readName());
+    return new GoParametersStub(parentStub, this, GoStubTextCodec.readText(dataStream));
   }
 }
@@ -19,6 +19,7 @@ package com.goide.stubs.types;
 import com.goide.psi.GoResult;
 import com.goide.psi.impl.GoResultImpl;
 import com.goide.stubs.GoResultStub;
+import com.goide.stubs.GoStubTextCodec;
 import com.intellij.psi.stubs.StubElement;
 import com.intellij.psi.stubs.StubInputStream;
 import com.intellij.psi.stubs.StubOutputStream;
@@ -45,12 +46,12 @@ public class GoResultStubElementType extends GoStubElementType<GoResultStub, GoR
 
   @Override
   public void serialize(@NotNull GoResultStub stub, @NotNull StubOutputStream dataStream) throws IOException {
-    dataStream.writeName(stub.getText());
+    GoStubTextCodec.writeText(dataStream, stub.getText());
   }
 
   @NotNull
   @Override
   public GoResultStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
-    return new GoResultStub(parentStub, this, dataStream.readName());
+    return new GoResultStub(parentStub, this, GoStubTextCodec.readText(dataStream));
   }
 }
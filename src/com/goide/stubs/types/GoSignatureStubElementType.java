@@ -19,6 +19,7 @@ package com.goide.stubs.types;
 import com.goide.psi.GoSignature;
 import com.goide.psi.impl.GoSignatureImpl;
 import com.goide.stubs.GoSignatureStub;
+import com.goide.stubs.GoStubTextCodec;
 import com.intellij.psi.stubs.StubElement;
 import com.intellij.psi.stubs.StubInputStream;
 import com.intellij.psi.stubs.StubOutputStream;
@@ -45,12 +46,12 @@ public class GoSignatureStubElementType extends GoStubElementType<GoSignatureStu
 
   @Override
   public void serialize(@NotNull GoSignatureStub stub, @NotNull StubOutputStream dataStream) throws IOException {
-    dataStream.writeName(stub.getText());
+    GoStubTextCodec.writeText(dataStream, stub.getText());
   }
 
   @NotNull
   @Override
   public GoSignatureStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
-    return new GoSignatureStub(parentStub, this, dataStream.readName());
+    return new GoSignatureStub(parentStub, this, GoStubTextCodec.readText(dataStream));
   }
 }
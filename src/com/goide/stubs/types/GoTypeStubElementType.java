@@ -17,6 +17,7 @@
 package com.goide.stubs.types;
 
 import com.goide.psi.GoType;
+import com.goide.stubs.GoStubTextCodec;
 import com.goide.stubs.GoTypeStub;
 import com.intellij.psi.stubs.StubElement;
 import com.intellij.psi.stubs.StubInputStream;
@@ -38,12 +39,12 @@ public abstract class GoTypeStubElementType extends GoStubElementType<GoTypeStub
 
   @Override
   public void serialize(@NotNull GoTypeStub stub, @NotNull StubOutputStream dataStream) throws IOException {
-    dataStream.writeName(stub.getText());
+    GoStubTextCodec.writeText(dataStream, stub.getText());
   }
 
   @NotNull
   @Override
   public GoTypeStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
-    return new GoTypeStub(parentStub, this, dataStream.readName());
+    return new GoTypeStub(parentStub, this, GoStubTextCodec.readText(dataStream));
   }
 }
@@ -20,6 +20,9 @@ import com.goide.GoIcons;
 import com.goide.psi.*;
 import com.goide.psi.impl.GoPsiImplUtil;
 import com.goide.sdk.GoPackageUtil;
+import com.goide.stubs.GoMethodDeclarationStub;
+import com.goide.stubs.GoTypeStub;
+import com.goide.stubs.TextHolder;
 import com.intellij.ide.structureView.*;
 import com.intellij.ide.structureView.impl.common.PsiTreeElementBase;
 import com.intellij.ide.util.ActionShortcutProvider;
@@ -31,6 +34,8 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.StubBasedPsiElement;
+import com.intellij.psi.stubs.StubElement;
 import com.intellij.util.IncorrectOperationException;
 import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NotNull;
@@ -39,6 +44,7 @@ import org.jetbrains.annotations.Nullable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 public class GoStructureViewFactory implements PsiStructureViewFactory {
   @Nullable
@@ -76,7 +82,11 @@ public class GoStructureViewFactory implements PsiStructureViewFactory {
 
     @Override
     public boolean isAlwaysShowsPlus(StructureViewTreeElement structureViewTreeElement) {
-      return false;
+      // members of structs and interfaces of a file presented from stubs are collected on expanding
+      PsiElement element = structureViewTreeElement instanceof Element ? ((Element)structureViewTreeElement).getElement() : null;
+      if (!(element instanceof GoTypeSpec) || !Element.isStubBased(element)) return false;
+      GoType type = ((GoTypeSpec)element).getSpecType().getType();
+      return type instanceof GoStructType || type instanceof GoInterfaceType;
     }
 
     @Override
@@ -157,7 +167,15 @@ public class GoStructureViewFactory implements PsiStructureViewFactory {
         for (GoConstDefinition o : ((GoFile)element).getConstants()) result.add(new Element(o));
         for (GoVarDefinition o : ((GoFile)element).getVars()) result.add(new Element(o));
         for (GoFunctionDeclaration o : ((GoFile)element).getFunctions()) result.add(new Element(o));
+        Set<String> packageTypes = isStubBased(element) ? getPackageTypeNames((GoFile)element) : null;
         for (GoMethodDeclaration o : ((GoFile)element).getMethods()) {
+          GoMethodDeclarationStub stub = packageTypes != null ? o.getStub() : null;
+          if (stub != null) {
+            if (!packageTypes.contains(stub.getTypeName())) {
+              result.add(new Element(o));
+            }
+            continue;
+          }
           GoType type = o.getReceiverType();
           GoTypeReferenceExpression e = GoPsiImplUtil.getTypeReference(type);
           PsiElement resolve = e != null ? e.resolve() : null;
@@ -201,6 +219,12 @@ public class GoStructureViewFactory implements PsiStructureViewFactory {
       if (element instanceof GoFile) {
         return ((GoFile)element).getName();
       }
+      if (isStubBased(element)) {
+        String stubText = getStubPresentationText(element);
+        if (stubText != null) {
+          return stubText;
+        }
+      }
       if (element instanceof GoNamedSignatureOwner) {
         GoSignature signature = ((GoNamedSignatureOwner)element).getSignature();
         String signatureText = signature != null ? signature.getText() : "";
@@ -222,5 +246,76 @@ public class GoStructureViewFactory implements PsiStructureViewFactory {
       Logger.getInstance(GoStructureViewFactory.class).error("Cannot get presentation for " + element.getClass().getName());
       return null;
     }
+
+    /**
+     * Files whose tree is not loaded are presented from stubs: names, signature and type texts are kept there,
+     * so the tree is shown without parsing and the AST is loaded only on navigation.
+     */
+    static boolean isStubBased(@NotNull PsiElement element) {
+      PsiFile file = element.getContainingFile();
+      return file instanceof GoFile && !((GoFile)file).isContentsLoaded();
+    }
+
+    @Nullable
+    private static String getStubPresentationText(@NotNull PsiElement element) {
+      if (!(element instanceof StubBasedPsiElement) || ((StubBasedPsiElement)element).getStub() == null) return null;
+      String separator = ": ";
+      if (element instanceof GoNamedSignatureOwner) {
+        GoSignature signature = ((GoNamedSignatureOwner)element).getSignature();
+        String signatureText = signature != null ? getStubText(signature) : "";
+        return signatureText != null ? ((GoNamedSignatureOwner)element).getName() + signatureText : null;
+      }
+      if (element instanceof GoTypeSpec) {
+        GoType type = ((GoTypeSpec)element).getSpecType().getType();
+        if (type instanceof GoStructType || type instanceof GoInterfaceType) return ((GoTypeSpec)element).getName();
+        String typeText = getStubText(type);
+        return typeText != null ? ((GoTypeSpec)element).getName() + separator + typeText : null;
+      }
+      if (element instanceof GoNamedElement) {
+        String name = ((GoNamedElement)element).getName();
+        if (element instanceof GoAnonymousFieldDefinition) return name;
+        String typeText = getNextTypeStubText(((StubBasedPsiElement)element).getStub());
+        return typeText != null ? name + separator + typeText : name;
+      }
+      return null;
+    }
+
+    /**
+     * Definitions and their type are siblings in the stub tree: {@code a, b int} is stored as definition, definition, type.
+     */
+    @Nullable
+    private static String getNextTypeStubText(@NotNull StubElement stub) {
+      StubElement parent = stub.getParentStub();
+      if (parent == null) return null;
+      boolean found = false;
+      for (Object child : parent.getChildrenStubs()) {
+        if (child == stub) {
+          found = true;
+        }
+        else if (found && child instanceof GoTypeStub) {
+          String text = ((GoTypeStub)child).getText();
+          return text != null ? text.replaceAll("\\s+", " ") : null;
+        }
+      }
+      return null;
+    }
+
+    @Nullable
+    private static String getStubText(@NotNull PsiElement element) {
+      StubElement stub = element instanceof StubBasedPsiElement ? ((StubBasedPsiElement)element).getStub() : null;
+      String text = stub instanceof TextHolder ? ((TextHolder)stub).getText() : null;
+      return text != null ? text.replaceAll("\\s+", " ") : null;
+    }
+
+    @NotNull
+    private static Set<String> getPackageTypeNames(@NotNull GoFile file) {
+      Set<String> result = ContainerUtil.newHashSet();
+      for (GoFile f : GoPackageUtil.getAllPackageFiles(file)) {
+        for (GoTypeSpec typeSpec : f.getTypes()) {
+          ContainerUtil.addIfNotNull(result, typeSpec.getName());
+        }
+      }
+      return result;
+    }
   }
 }
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.ui;
+
+import com.goide.GoIcons;
+import com.goide.util.GoSlowResolveWatchdog;
+import com.goide.util.GoStatistics;
+import com.intellij.icons.AllIcons;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.util.Condition;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.ScrollPaneFactory;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import com.intellij.ui.table.TableView;
+import com.intellij.util.ui.ColumnInfo;
+import com.intellij.util.ui.ListTableModel;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.io.IOException;
+
+public class GoStatisticsToolWindowFactory implements ToolWindowFactory, DumbAware {
+  public static final String ID = "Go Statistics";
+  private static final String REGISTRY_KEY = "go.statistics.tool.window";
+  private static final Logger LOG = Logger.getInstance(GoStatisticsToolWindowFactory.class);
+
+  @Override
+  public void createToolWindowContent(@NotNull final Project project, @NotNull ToolWindow toolWindow) {
+    final ListTableModel<GoStatistics.Snapshot> model = new ListTableModel<GoStatistics.Snapshot>(
+      new TextColumn<GoStatistics.Snapshot>("Name") {
+        @Override
+        public String valueOf(GoStatistics.Snapshot o) {
+          return o.name;
+        }
+      },
+      new NumberColumn<GoStatistics.Snapshot>("Count") {
+        @Override
+        public Number valueOf(GoStatistics.Snapshot o) {
+          return o.count;
+        }
+      },
+      new NumberColumn<GoStatistics.Snapshot>("Total, ms") {
+        @Override
+        public Number valueOf(GoStatistics.Snapshot o) {
+          return Math.round(o.totalMs);
+        }
+      },
+      new NumberColumn<GoStatistics.Snapshot>("Average, ms") {
+        @Override
+        public Number valueOf(GoStatistics.Snapshot o) {
+          return Math.round(o.averageMs * 1000) / 1000.0;
+        }
+      },
+      new NumberColumn<GoStatistics.Snapshot>("Max, ms") {
+        @Override
+        public Number valueOf(GoStatistics.Snapshot o) {
+          return Math.round(o.maxMs * 1000) / 1000.0;
+        }
+      });
+    model.setItems(GoStatistics.getSnapshots());
+
+    DefaultActionGroup group = new DefaultActionGroup();
+    group.add(new ToggleAction("Collect Statistics", "Collect Go plugin performance statistics", AllIcons.Actions.Execute) {
+      @Override
+      public boolean isSelected(AnActionEvent e) {
+        return GoStatistics.isEnabled();
+      }
+
+      @Override
+      public void setSelected(AnActionEvent e, boolean state) {
+        GoStatistics.setEnabled(state);
+      }
+    });
+    group.add(new AnAction("Refresh", "Refresh statistics", AllIcons.Actions.Refresh) {
+      @Override
+      public void actionPerformed(@NotNull AnActionEvent e) {
+        model.setItems(GoStatistics.getSnapshots());
+      }
+    });
+    group.add(new AnAction("Reset", "Reset all counters", AllIcons.Actions.GC) {
+      @Override
+      public void actionPerformed(@NotNull AnActionEvent e) {
+        GoStatistics.reset();
+        model.setItems(GoStatistics.getSnapshots());
+      }
+    });
+    group.add(new AnAction("Export to JSON", "Export statistics to JSON file", AllIcons.Actions.Menu_saveall) {
+      @Override
+      public void actionPerformed(@NotNull AnActionEvent e) {
+        export(project);
+      }
+    });
+
+    addContent(toolWindow, "Counters", group, new TableView<GoStatistics.Snapshot>(model));
+    addSlowResolveContent(toolWindow);
+    toolWindow.setIcon(GoIcons.ICON);
+  }
+
+  private static void addSlowResolveContent(@NotNull ToolWindow toolWindow) {
+    final ListTableModel<GoSlowResolveWatchdog.Offender> model = new ListTableModel<GoSlowResolveWatchdog.Offender>(
+      new NumberColumn<GoSlowResolveWatchdog.Offender>("Max, ms") {
+        @Override
+        public Number valueOf(GoSlowResolveWatchdog.Offender o) {
+          return Math.round(o.worst.timeMs);
+        }
+      },
+      new NumberColumn<GoSlowResolveWatchdog.Offender>("Hits") {
+        @Override
+        public Number valueOf(GoSlowResolveWatchdog.Offender o) {
+          return o.hits;
+        }
+      },
+      new TextColumn<GoSlowResolveWatchdog.Offender>("Kind") {
+        @Override
+        public String valueOf(GoSlowResolveWatchdog.Offender o) {
+          return o.worst.kind;
+        }
+      },
+      new TextColumn<GoSlowResolveWatchdog.Offender>("Element") {
+        @Override
+        public String valueOf(GoSlowResolveWatchdog.Offender o) {
+          return o.worst.element;
+        }
+      },
+      new TextColumn<GoSlowResolveWatchdog.Offender>("Qualifiers") {
+        @Override
+        public String valueOf(GoSlowResolveWatchdog.Offender o) {
+          return StringUtil.join(o.worst.qualifiers, ".");
+        }
+      },
+      new NumberColumn<GoSlowResolveWatchdog.Offender>("Type depth") {
+        @Override
+        public Number valueOf(GoSlowResolveWatchdog.Offender o) {
+          return o.worst.typeDepth;
+        }
+      },
+      new NumberColumn<GoSlowResolveWatchdog.Offender>("Files visited") {
+        @Override
+        public Number valueOf(GoSlowResolveWatchdog.Offender o) {
+          return o.worst.visitedFiles;
+        }
+      },
+      new TextColumn<GoSlowResolveWatchdog.Offender>("Location") {
+        @Override
+        public String valueOf(GoSlowResolveWatchdog.Offender o) {
+          return o.worst.location;
+        }
+      });
+    model.setItems(GoSlowResolveWatchdog.getOffenders());
+
+    DefaultActionGroup group = new DefaultActionGroup();
+    group.add(new ToggleAction("Detect Slow Resolve",
+                               "Record resolve and type calls slower than " + GoSlowResolveWatchdog.DEFAULT_THRESHOLD_MS + " ms",
+                               AllIcons.Actions.Execute) {
+      @Override
+      public boolean isSelected(AnActionEvent e) {
+        return GoSlowResolveWatchdog.isEnabled();
+      }
+
+      @Override
+      public void setSelected(AnActionEvent e, boolean state) {
+        GoSlowResolveWatchdog.setThreshold(state ? GoSlowResolveWatchdog.DEFAULT_THRESHOLD_MS : 0);
+      }
+    });
+    group.add(new AnAction("Refresh", "Refresh report", AllIcons.Actions.Refresh) {
+      @Override
+      public void actionPerformed(@NotNull AnActionEvent e) {
+        model.setItems(GoSlowResolveWatchdog.getOffenders());
+      }
+    });
+    group.add(new AnAction("Reset", "Clear report", AllIcons.Actions.GC) {
+      @Override
+      public void actionPerformed(@NotNull AnActionEvent e) {
+        GoSlowResolveWatchdog.reset();
+        model.setItems(GoSlowResolveWatchdog.getOffenders());
+      }
+    });
+    addContent(toolWindow, "Slow Resolve", group, new TableView<GoSlowResolveWatchdog.Offender>(model));
+  }
+
+  private static void addContent(@NotNull ToolWindow toolWindow,
+                                 @NotNull String name,
+                                 @NotNull ActionGroup group,
+                                 @NotNull JComponent table) {
+    SimpleToolWindowPanel panel = new SimpleToolWindowPanel(true, true);
+    panel.setToolbar(ActionManager.getInstance().createActionToolbar(ActionPlaces.UNKNOWN, group, true).getComponent());
+    panel.setContent(ScrollPaneFactory.createScrollPane(table));
+    Content content = ContentFactory.SERVICE.getInstance().createContent(panel, name, false);
+    toolWindow.getContentManager().addContent(content);
+  }
+
+  private static void export(@NotNull Project project) {
+    FileSaverDescriptor descriptor = new FileSaverDescriptor("Export Go Statistics", "Save statistics as JSON", "json");
+    VirtualFileWrapper wrapper = FileChooserFactory.getInstance().createSaveFileDialog(descriptor, project)
+      .save(null, "go-statistics.json");
+    if (wrapper == null) return;
+    try {
+      FileUtil.writeToFile(wrapper.getFile(), GoStatistics.toJson());
+    }
+    catch (IOException e) {
+      LOG.info(e);
+      Notifications.Bus.notify(new Notification(ID, "Cannot export statistics", e.getMessage(), NotificationType.ERROR), project);
+    }
+  }
+
+  private abstract static class NumberColumn<T> extends ColumnInfo<T, Number> {
+    public NumberColumn(@NotNull String name) {
+      super(name);
+    }
+
+    @Override
+    public Class<?> getColumnClass() {
+      return Number.class;
+    }
+  }
+
+  private abstract static class TextColumn<T> extends ColumnInfo<T, String> {
+    public TextColumn(@NotNull String name) {
+      super(name);
+    }
+  }
+
+  /**
+   * The condition is checked once when a project is opened, so the collection toggles can't make the tool window appear:
+   * it is shown when the {@code go.statistics.tool.window} registry key is set, in internal mode
+   * or when collection is enabled on startup with a system property.
+   */
+  public static class Available implements Condition<Project> {
+    @Override
+    public boolean value(Project project) {
+      return Registry.is(REGISTRY_KEY) ||
+             ApplicationManager.getApplication().isInternal() ||
+             GoStatistics.isEnabled() ||
+             GoSlowResolveWatchdog.isEnabled();
+    }
+  }
+}
@@ -210,6 +210,7 @@ public class GoExecutor {
     Logger.getInstance(getClass()).assertTrue(myProcessHandler == null, "Process has already run with this executor instance");
     final Ref<Boolean> result = Ref.create(false);
     GeneralCommandLine commandLine = null;
+    long start = GoStatistics.startTimer();
     try {
       commandLine = createCommandLine();
       final GeneralCommandLine finalCommandLine = commandLine;
@@ -276,6 +277,9 @@ public class GoExecutor {
       LOGGER.debug("Finished `" + getPresentableName() + "` with an exception. Commandline: " + commandLineInfo, e);
       return false;
     }
+    finally {
+      GoStatistics.stopTimer("GoExecutor: " + getPresentableName(), start);
+    }
   }
 
   public void executeWithProgress(boolean modal) {
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.util;
+
+import com.goide.psi.GoReferenceExpressionBase;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Opt-in detector of slow {@code GoReference.resolveInner} and {@code GoPsiImplUtil.getGoType} calls.
+ * When a call takes longer than the threshold, its element, file, qualifier chain, the deepest {@code processGoType} recursion
+ * and the number of files visited by {@code processDirectory} are recorded. Only the worst {@link #MAX_OFFENDERS} places are kept.
+ * Enable it with {@code -Dgo.slow.resolve.threshold=<ms>} or from the Slow Resolve tab of the Go Statistics tool window,
+ * which is shown with the {@code go.statistics.tool.window} registry key.
+ */
+public class GoSlowResolveWatchdog {
+  private static final Logger LOG = Logger.getInstance(GoSlowResolveWatchdog.class);
+  public static final int DEFAULT_THRESHOLD_MS = 100;
+  private static final int MAX_OFFENDERS = 100;
+  private static final ThreadLocal<List<Frame>> FRAMES = new ThreadLocal<List<Frame>>() {
+    @Override
+    protected List<Frame> initialValue() {
+      return ContainerUtil.newSmartList();
+    }
+  };
+  private static final Map<String, Offender> OFFENDERS = ContainerUtil.newHashMap();
+  private static volatile long ourThresholdNanos = Long.getLong("go.slow.resolve.threshold", 0) * 1000000;
+
+  private GoSlowResolveWatchdog() {}
+
+  public static boolean isEnabled() {
+    return ourThresholdNanos > 0;
+  }
+
+  public static void setThreshold(int thresholdMs) {
+    ourThresholdNanos = thresholdMs * 1000000L;
+  }
+
+  @Nullable
+  public static Frame start(@NotNull PsiElement element) {
+    if (ourThresholdNanos <= 0) return null;
+    Frame frame = new Frame(element);
+    FRAMES.get().add(frame);
+    return frame;
+  }
+
+  public static void finish(@Nullable Frame frame, @NotNull String kind) {
+    if (frame == null) return;
+    List<Frame> frames = FRAMES.get();
+    frames.remove(frame);
+    long elapsed = System.nanoTime() - frame.myStart;
+    long threshold = ourThresholdNanos;
+    if (threshold > 0 && elapsed > threshold) {
+      report(frame, kind, elapsed);
+    }
+  }
+
+  public static void typeEntered() {
+    if (ourThresholdNanos <= 0) return;
+    for (Frame frame : FRAMES.get()) {
+      frame.myTypeDepth++;
+      frame.myMaxTypeDepth = Math.max(frame.myMaxTypeDepth, frame.myTypeDepth);
+    }
+  }
+
+  public static void typeExited() {
+    if (ourThresholdNanos <= 0) return;
+    for (Frame frame : FRAMES.get()) {
+      frame.myTypeDepth--;
+    }
+  }
+
+  public static void fileVisited() {
+    if (ourThresholdNanos <= 0) return;
+    for (Frame frame : FRAMES.get()) {
+      frame.myVisitedFiles++;
+    }
+  }
+
+  private static void report(@NotNull Frame frame, @NotNull String kind, long elapsed) {
+    PsiElement element = frame.myElement;
+    if (!element.isValid()) return;
+    PsiFile file = element.getContainingFile();
+    VirtualFile virtualFile = file != null ? file.getOriginalFile().getVirtualFile() : null;
+    Document document = file != null ? PsiDocumentManager.getInstance(file.getProject()).getDocument(file) : null;
+    int offset = element.getTextOffset();
+    String location = (virtualFile != null ? virtualFile.getPath() : "<unknown>") +
+                      (document != null && offset <= document.getTextLength() ? ":" + (document.getLineNumber(offset) + 1) : "");
+    Record record = new Record(kind, StringUtil.first(element.getText(), 120, true), location, getQualifierChain(element),
+                               frame.myMaxTypeDepth, frame.myVisitedFiles, elapsed / 1e6);
+    LOG.debug("Slow " + kind + ": " + record.element + " at " + record.location + ", " + record.timeMs + " ms");
+
+    synchronized (OFFENDERS) {
+      String key = kind + "@" + location + ":" + offset;
+      Offender offender = OFFENDERS.get(key);
+      if (offender == null) {
+        OFFENDERS.put(key, offender = new Offender());
+      }
+      offender.add(record);
+      if (OFFENDERS.size() > MAX_OFFENDERS) {
+        removeBest();
+      }
+    }
+  }
+
+  private static void removeBest() {
+    String best = null;
+    double bestTime = Double.MAX_VALUE;
+    for (Map.Entry<String, Offender> entry : OFFENDERS.entrySet()) {
+      if (entry.getValue().worst.timeMs < bestTime) {
+        bestTime = entry.getValue().worst.timeMs;
+        best = entry.getKey();
+      }
+    }
+    OFFENDERS.remove(best);
+  }
+
+  @NotNull
+  private static List<String> getQualifierChain(@NotNull PsiElement element) {
+    List<String> chain = ContainerUtil.newArrayList();
+    GoReferenceExpressionBase qualifier = element instanceof GoReferenceExpressionBase
+                                          ? ((GoReferenceExpressionBase)element).getQualifier()
+                                          : null;
+    while (qualifier != null) {
+      chain.add(0, qualifier.getIdentifier().getText());
+      qualifier = qualifier.getQualifier();
+    }
+    return chain;
+  }
+
+  /**
+   * @return the slowest places first
+   */
+  @NotNull
+  public static List<Offender> getOffenders() {
+    List<Offender> result;
+    synchronized (OFFENDERS) {
+      result = ContainerUtil.newArrayList(OFFENDERS.values());
+    }
+    Collections.sort(result, new Comparator<Offender>() {
+      @Override
+      public int compare(@NotNull Offender o1, @NotNull Offender o2) {
+        return Double.compare(o2.worst.timeMs, o1.worst.timeMs);
+      }
+    });
+    return result;
+  }
+
+  public static void reset() {
+    synchronized (OFFENDERS) {
+      OFFENDERS.clear();
+    }
+  }
+
+  public static class Frame {
+    @NotNull private final PsiElement myElement;
+    private final long myStart = System.nanoTime();
+    private int myTypeDepth;
+    private int myMaxTypeDepth;
+    private int myVisitedFiles;
+
+    private Frame(@NotNull PsiElement element) {
+      myElement = element;
+    }
+  }
+
+  public static class Record {
+    @NotNull public final String kind;
+    @NotNull public final String element;
+    @NotNull public final String location;
+    @NotNull public final List<String> qualifiers;
+    public final int typeDepth;
+    public final int visitedFiles;
+    public final double timeMs;
+
+    public Record(@NotNull String kind,
+                  @NotNull String element,
+                  @NotNull String location,
+                  @NotNull List<String> qualifiers,
+                  int typeDepth,
+                  int visitedFiles,
+                  double timeMs) {
+      this.kind = kind;
+      this.element = element;
+      this.location = location;
+      this.qualifiers = qualifiers;
+      this.typeDepth = typeDepth;
+      this.visitedFiles = visitedFiles;
+      this.timeMs = timeMs;
+    }
+  }
+
+  public static class Offender {
+    public Record worst;
+    public int hits;
+
+    private void add(@NotNull Record record) {
+      hits++;
+      if (worst == null || record.timeMs > worst.timeMs) {
+        worst = record;
+      }
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.util;
+
+import com.google.gson.GsonBuilder;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters and timers of the plugin internals: resolve, index queries, completion, external tools and debugger requests.
+ * Collection is off by default (enable it with {@code -Dgo.statistics.enabled=true} or from the Go Statistics tool window,
+ * which is shown with the {@code go.statistics.tool.window} registry key), when disabled every call costs a single volatile read.
+ * <pre>
+ * long start = GoStatistics.startTimer();
+ * try {
+ *   ...
+ * }
+ * finally {
+ *   GoStatistics.stopTimer("name", start);
+ * }
+ * </pre>
+ */
+public class GoStatistics {
+  private static final long DISABLED = Long.MIN_VALUE;
+  private static final ConcurrentMap<String, Metric> METRICS = ContainerUtil.newConcurrentMap();
+  private static volatile boolean ourEnabled = Boolean.getBoolean("go.statistics.enabled");
+
+  private GoStatistics() {}
+
+  public static boolean isEnabled() {
+    return ourEnabled;
+  }
+
+  public static void setEnabled(boolean enabled) {
+    ourEnabled = enabled;
+  }
+
+  public static long startTimer() {
+    return ourEnabled ? System.nanoTime() : DISABLED;
+  }
+
+  public static void stopTimer(@NotNull String name, long start) {
+    if (start != DISABLED) {
+      getMetric(name).add(System.nanoTime() - start);
+    }
+  }
+
+  public static void count(@NotNull String name) {
+    if (ourEnabled) {
+      getMetric(name).add(0);
+    }
+  }
+
+  public static void reset() {
+    METRICS.clear();
+  }
+
+  @NotNull
+  private static Metric getMetric(@NotNull String name) {
+    Metric metric = METRICS.get(name);
+    if (metric != null) return metric;
+    Metric previous = METRICS.putIfAbsent(name, metric = new Metric());
+    return previous != null ? previous : metric;
+  }
+
+  /**
+   * @return metrics sorted by total time, then by count
+   */
+  @NotNull
+  public static List<Snapshot> getSnapshots() {
+    List<Snapshot> result = ContainerUtil.newArrayList();
+    for (Map.Entry<String, Metric> entry : METRICS.entrySet()) {
+      Metric metric = entry.getValue();
+      result.add(new Snapshot(entry.getKey(), metric.myCount.get(), metric.myTotalNanos.get(), metric.myMaxNanos.get()));
+    }
+    Collections.sort(result, new Comparator<Snapshot>() {
+      @Override
+      public int compare(@NotNull Snapshot o1, @NotNull Snapshot o2) {
+        int result = Double.compare(o2.totalMs, o1.totalMs);
+        return result != 0 ? result : Long.compare(o2.count, o1.count);
+      }
+    });
+    return result;
+  }
+
+  @NotNull
+  public static String toJson() {
+    return new GsonBuilder().setPrettyPrinting().create().toJson(getSnapshots());
+  }
+
+  private static class Metric {
+    private final AtomicLong myCount = new AtomicLong();
+    private final AtomicLong myTotalNanos = new AtomicLong();
+    private final AtomicLong myMaxNanos = new AtomicLong();
+
+    private void add(long nanos) {
+      myCount.incrementAndGet();
+      if (nanos <= 0) return;
+      myTotalNanos.addAndGet(nanos);
+      long max;
+      do {
+        max = myMaxNanos.get();
+      }
+      while (nanos > max && !myMaxNanos.compareAndSet(max, nanos));
+    }
+  }
+
+  public static class Snapshot {
+    @NotNull public final String name;
+    public final long count;
+    public final double totalMs;
+    public final double averageMs;
+    public final double maxMs;
+
+    public Snapshot(@NotNull String name, long count, long totalNanos, long maxNanos) {
+      this.name = name;
+      this.count = count;
+      totalMs = totalNanos / 1e6;
+      averageMs = count > 0 ? totalMs / count : 0;
+      maxMs = maxNanos / 1e6;
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package main
+
+import . "fmt"
+import <error descr="Unused import">. "math"</error>
+
+func main() {
+    Abs := 1
+    Printf("asd", Abs)
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package main
+
+import . "fmt"
+
+func main() {
+    Abs := 1
+    Printf("asd", Abs)
+}
\ No newline at end of file
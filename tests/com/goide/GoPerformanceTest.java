@@ -25,6 +25,10 @@ import com.goide.inspections.unresolved.GoUnusedGlobalVariableInspection;
 import com.goide.inspections.unresolved.GoUnusedVariableInspection;
 import com.goide.project.GoBuildTargetSettings;
 import com.goide.project.GoModuleSettings;
+import com.goide.runconfig.testing.coverage.GoCoverageProjectData;
+import com.goide.stubs.GoConstSpecStub;
+import com.goide.stubs.GoStubTextCodec;
+import com.goide.stubs.TextHolder;
 import com.intellij.analysis.AnalysisScope;
 import com.intellij.codeInsight.completion.CompletionType;
 import com.intellij.codeInspection.InspectionManager;
@@ -32,6 +36,8 @@ import com.intellij.codeInspection.InspectionProfileEntry;
 import com.intellij.codeInspection.ex.InspectionManagerEx;
 import com.intellij.codeInspection.ex.InspectionToolRegistrar;
 import com.intellij.codeInspection.ex.InspectionToolWrapper;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.util.Comparing;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.vfs.LocalFileSystem;
@@ -40,22 +46,34 @@ import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.VirtualFileVisitor;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiFileFactory;
+import com.intellij.psi.codeStyle.CodeStyleManager;
 import com.intellij.psi.impl.DebugUtil;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.stubs.StubInputStream;
+import com.intellij.psi.stubs.StubOutputStream;
 import com.intellij.testFramework.InspectionTestUtil;
 import com.intellij.testFramework.PlatformTestUtil;
 import com.intellij.testFramework.UsefulTestCase;
 import com.intellij.testFramework.fixtures.impl.CodeInsightTestFixtureImpl;
 import com.intellij.testFramework.fixtures.impl.GlobalInspectionContextForTests;
+import com.intellij.util.Processor;
 import com.intellij.util.ThrowableRunnable;
+import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.indexing.FileContentImpl;
 import com.intellij.util.indexing.IndexingDataKeys;
+import com.intellij.util.io.PersistentStringEnumerator;
+import com.intellij.util.io.StringRef;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.junit.experimental.categories.Category;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 @Category(Performance.class)
 public class GoPerformanceTest extends GoCodeInsightFixtureTestCase {
@@ -115,6 +133,194 @@ public class GoPerformanceTest extends GoCodeInsightFixtureTestCase {
     doCompletionTest("package main; func main() { slee<caret> }", 1, TimeUnit.SECONDS.toMillis(5));
   }
 
+  public void testCoverageMerging() {
+    final GoCoverageProjectData[] suites = new GoCoverageProjectData[50];
+    for (int i = 0; i < suites.length; i++) {
+      suites[i] = generateCoverageData(200, 500, i);
+    }
+    PlatformTestUtil.startPerformanceTest(getTestName(true), (int)TimeUnit.SECONDS.toMillis(5), new ThrowableRunnable() {
+      @Override
+      public void run() throws Throwable {
+        GoCoverageProjectData result = new GoCoverageProjectData();
+        for (GoCoverageProjectData suite : suites) {
+          result.merge(suite);
+        }
+      }
+    }).cpuBound().assertTiming();
+  }
+
+  public void testCoverageMergingMemory() {
+    GoCoverageProjectData[] suites = new GoCoverageProjectData[50];
+    for (int i = 0; i < suites.length; i++) {
+      suites[i] = generateCoverageData(200, 500, i);
+    }
+    long before = usedMemory();
+    GoCoverageProjectData result = new GoCoverageProjectData();
+    for (GoCoverageProjectData suite : suites) {
+      result.merge(suite);
+    }
+    long used = usedMemory() - before;
+    // 200 files * 500 ranges * 6 ints for the merged result plus intermediate arrays which are released
+    assertTrue("Merged coverage data takes " + used + " bytes", used < 64 * 1024 * 1024);
+    final int[] files = {0};
+    result.processFiles(new Processor<GoCoverageProjectData.FileData>() {
+      @Override
+      public boolean process(GoCoverageProjectData.FileData data) {
+        files[0]++;
+        return true;
+      }
+    });
+    assertEquals(200, files[0]);
+  }
+
+  public void testStubTextEncoding() throws IOException {
+    List<String> texts = collectStubTexts(new File("testData/mockSdk-1.1.2/src"));
+    long plain = measureStubTexts(texts, false, 0);
+    long compact = measureStubTexts(texts, true, 0);
+    assertTrue("Compact stub texts take " + compact + " bytes, plain ones " + plain, compact < plain);
+  }
+
+  public void testStubTextDecoding() throws IOException {
+    final List<String> texts = collectStubTexts(new File("testData/mockSdk-1.1.2/src"));
+    PlatformTestUtil.startPerformanceTest(getTestName(true), (int)TimeUnit.SECONDS.toMillis(5), new ThrowableRunnable() {
+      @Override
+      public void run() throws Throwable {
+        measureStubTexts(texts, true, 10);
+      }
+    }).cpuBound().assertTiming();
+  }
+
+  public void testFormatSmallRanges() {
+    final PsiFile file = myFixture.configureByText("big.go", generateFormattingSource(1500));
+    final Document document = myFixture.getEditor().getDocument();
+    PlatformTestUtil.startPerformanceTest(getTestName(true), (int)TimeUnit.SECONDS.toMillis(5), new ThrowableRunnable() {
+      @Override
+      public void run() throws Throwable {
+        WriteCommandAction.runWriteCommandAction(myFixture.getProject(), new Runnable() {
+          @Override
+          public void run() {
+            for (int i = 0; i < 50; i++) {
+              int line = document.getLineCount() * i / 50;
+              int start = document.getLineStartOffset(line);
+              int end = document.getLineEndOffset(Math.min(line + 3, document.getLineCount() - 1));
+              CodeStyleManager.getInstance(myFixture.getProject()).reformatText(file, start, end);
+            }
+          }
+        });
+      }
+    }).cpuBound().assertTiming();
+  }
+
+  @NotNull
+  private static String generateFormattingSource(int functions) {
+    StringBuilder builder = new StringBuilder("package main\n\nimport \"fmt\"\n\n");
+    for (int i = 0; i < functions; i++) {
+      builder.append("type T").append(i).append(" struct {\n")
+        .append("  name string\n")
+        .append("  count   int\n")
+        .append("}\n\n")
+        .append("func (t *T").append(i).append(") f").append(i).append("(a, b int) int {\n")
+        .append("  if a>b {\n")
+        .append("    fmt.Println(t.name,a)\n")
+        .append("  }\n")
+        .append("  return a+b*t.count\n")
+        .append("}\n\n");
+    }
+    return builder.toString();
+  }
+
+  @NotNull
+  private List<String> collectStubTexts(@NotNull File root) throws IOException {
+    final List<String> result = ContainerUtil.newArrayList();
+    for (File file : FileUtil.findFilesByMask(Pattern.compile(".*\\.go"), root)) {
+      String text = FileUtil.loadFile(file, "UTF-8", true);
+      PsiFile psi = PsiFileFactory.getInstance(getProject()).createFileFromText(file.getName(), GoFileType.INSTANCE, text);
+      collectStubTexts(GoFileElementType.INSTANCE.getBuilder().buildStubTree(psi), result);
+    }
+    return result;
+  }
+
+  private static void collectStubTexts(@NotNull StubElement<?> stub, @NotNull List<String> result) {
+    if (stub instanceof TextHolder) {
+      ContainerUtil.addIfNotNull(result, ((TextHolder)stub).getText());
+    }
+    else if (stub instanceof GoConstSpecStub) {
+      result.addAll(((GoConstSpecStub)stub).getExpressionTexts());
+    }
+    for (StubElement child : stub.getChildrenStubs()) {
+      collectStubTexts(child, result);
+    }
+  }
+
+  /**
+   * Writes the texts, reads them back {@code readPasses} times and returns the serialized size including the name storage
+   */
+  private static long measureStubTexts(@NotNull List<String> texts, boolean compact, int readPasses) throws IOException {
+    File directory = FileUtil.createTempDirectory("stub-texts", null);
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      PersistentStringEnumerator names = new PersistentStringEnumerator(new File(directory, "names"));
+      try {
+        StubOutputStream out = new StubOutputStream(bytes, names);
+        for (String text : texts) {
+          if (compact) {
+            GoStubTextCodec.writeText(out, text);
+          }
+          else {
+            out.writeName(text);
+          }
+        }
+        out.close();
+
+        for (int i = 0; i < readPasses; i++) {
+          StubInputStream in = new StubInputStream(new ByteArrayInputStream(bytes.toByteArray()), names);
+          for (String text : texts) {
+            // decode the lazy texts as well, the stubs of a loaded tree usually need most of them
+            assertEquals(text, compact ? GoStubTextCodec.readText(in).getString() : StringRef.toString(in.readName()));
+          }
+        }
+      }
+      finally {
+        names.close();
+      }
+
+      long size = bytes.size();
+      File[] files = directory.listFiles();
+      if (files != null) {
+        for (File file : files) {
+          size += file.length();
+        }
+      }
+      return size;
+    }
+    finally {
+      FileUtil.delete(directory);
+    }
+  }
+
+  @NotNull
+  private static GoCoverageProjectData generateCoverageData(int files, int rangesPerFile, int seed) {
+    GoCoverageProjectData data = new GoCoverageProjectData();
+    for (int file = 0; file < files; file++) {
+      String path = "file" + file + ".go";
+      for (int range = 0; range < rangesPerFile; range++) {
+        // every suite covers a shifted subset of ranges, so merging mixes equal and new ranges
+        int line = range * 2 + seed % 3;
+        data.addData(path, line, 1, line + 1, 10, 1, (range + seed) % 4);
+      }
+    }
+    data.sortRanges();
+    return data;
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
   private void doCompletionTest(@NotNull String source, final int invocationCount, long expectation) {
     VirtualFile go = installTestData("go");
     if (go == null) return;
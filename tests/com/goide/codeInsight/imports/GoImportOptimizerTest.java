@@ -34,6 +34,7 @@ public class GoImportOptimizerTest extends GoQuickFixTestBase {
   public void testUnusedImportsWithSemicolon()                           { doTest(); }
   public void testUnusedImplicitImports()                                { doTest(); }
   public void testUsedImplicitImports()                                  { doTest(); }
+  public void testUnusedImplicitImportShadowedByLocal()                  { doTest(); }
   public void testUsedDuplicatedImports()                                { doTest(); }
   public void testDuplicatedImportsWithSameStringAndDifferentQuotes()    { doTest(); }
   public void testDuplicatedImportsWithSameString()                      { doTest(); }
@@ -21,6 +21,7 @@ import com.goide.runconfig.testing.coverage.GoCoverageAnnotator;
 import com.goide.runconfig.testing.coverage.GoCoverageProjectData;
 import com.goide.runconfig.testing.coverage.GoCoverageRunner;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.Processor;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.BufferedReader;
@@ -73,6 +74,28 @@ public class GoCoverageCalculationTest extends GoCodeInsightFixtureTestCase {
     assertEquals("80% statements", mergeAnnotator.getFileCoverageInformationString(file));
   }
 
+  public void testMergingDoesNotModifyUnsortedData() {
+    GoCoverageProjectData unsorted = new GoCoverageProjectData();
+    unsorted.addData("a.go", 5, 1, 5, 10, 1, 1);
+    unsorted.addData("a.go", 1, 1, 1, 10, 1, 2);
+    GoCoverageProjectData sorted = new GoCoverageProjectData();
+    sorted.addData("a.go", 1, 1, 1, 10, 1, 2);
+    sorted.addData("a.go", 5, 1, 5, 10, 1, 1);
+    assertEquals(sorted, unsorted);
+    assertEquals(sorted.hashCode(), unsorted.hashCode());
+
+    GoCoverageProjectData merged = new GoCoverageProjectData();
+    merged.merge(unsorted);
+    assertEquals(sorted, merged);
+    unsorted.processFiles(new Processor<GoCoverageProjectData.FileData>() {
+      @Override
+      public boolean process(GoCoverageProjectData.FileData data) {
+        assertEquals(5, data.getStartLine(0));
+        return true;
+      }
+    });
+  }
+
   private GoCoverageAnnotator annotate() throws IOException {
     return annotate(file());
   }
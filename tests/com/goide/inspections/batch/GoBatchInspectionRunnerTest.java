@@ -0,0 +1,80 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.inspections.batch;
+
+import com.goide.GoCodeInsightFixtureTestCase;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.testFramework.LightProjectDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
+
+public class GoBatchInspectionRunnerTest extends GoCodeInsightFixtureTestCase {
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    setUpProjectSdk();
+    myFixture.addFileToProject("a/a.go", "package a\nimport \"fmt\"\nfunc A() {}");
+    myFixture.addFileToProject("b/b.go", "package b\nfunc B() {}");
+  }
+
+  @Override
+  protected LightProjectDescriptor getProjectDescriptor() {
+    return createMockProjectDescriptor();
+  }
+
+  public void testJson() throws IOException {
+    JsonObject report = run(GoBatchInspectionReport.JSON);
+    JsonArray problems = report.getAsJsonArray("problems");
+    assertEquals(1, problems.size());
+    JsonObject problem = problems.get(0).getAsJsonObject();
+    assertEquals("GoUnusedImport", problem.get("inspection").getAsString());
+    assertEquals(2, problem.get("line").getAsInt());
+    assertEquals(8, problem.get("column").getAsInt());
+    assertEquals(2, report.get("files").getAsInt());
+    assertTrue(report.getAsJsonObject("timings").has("GoUnusedImport"));
+  }
+
+  public void testSarif() throws IOException {
+    JsonObject report = run(GoBatchInspectionReport.SARIF);
+    assertEquals("2.1.0", report.get("version").getAsString());
+    JsonObject run = report.getAsJsonArray("runs").get(0).getAsJsonObject();
+    assertEquals(1, run.getAsJsonObject("tool").getAsJsonObject("driver").getAsJsonArray("rules").size());
+    JsonArray results = run.getAsJsonArray("results");
+    assertEquals(1, results.size());
+    assertEquals("GoUnusedImport", results.get(0).getAsJsonObject().get("ruleId").getAsString());
+    assertTrue(run.getAsJsonObject("properties").getAsJsonObject("timings").has("GoUnusedImport"));
+  }
+
+  @NotNull
+  private JsonObject run(@NotNull String format) throws IOException {
+    List<LocalInspectionTool> tools = GoBatchInspectionRunner.getGoInspections(Collections.singletonList("GoUnusedImport"));
+    assertEquals(1, tools.size());
+    StringWriter writer = new StringWriter();
+    GoBatchInspectionReport report = GoBatchInspectionReport.create(format, writer);
+    new GoBatchInspectionRunner(getProject(), tools, report).run(new EmptyProgressIndicator());
+    report.close();
+    return new JsonParser().parse(writer.toString()).getAsJsonObject();
+  }
+}
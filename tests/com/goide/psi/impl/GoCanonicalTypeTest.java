@@ -0,0 +1,161 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.psi.impl;
+
+import com.goide.GoCodeInsightFixtureTestCase;
+import com.goide.psi.GoFile;
+import com.goide.psi.GoTypeSpec;
+import com.goide.psi.GoVarDefinition;
+import com.intellij.testFramework.LightProjectDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+public class GoCanonicalTypeTest extends GoCodeInsightFixtureTestCase {
+  private static final String TEXT = "package main\n" +
+                                     "type Stringer interface { String() string }\n" +
+                                     "type Named interface { Stringer; Name() string }\n" +
+                                     "type Value struct {}\n" +
+                                     "func (Value) String() string { return \"\" }\n" +
+                                     "type Ptr struct {}\n" +
+                                     "func (*Ptr) String() string { return \"\" }\n" +
+                                     "type Outer struct { Value; n int }\n" +
+                                     "type OuterPtr struct { Ptr }\n" +
+                                     "type Ints []int\n" +
+                                     "type List struct { next *List }\n" +
+                                     "var a []int\n" +
+                                     "var b []int\n" +
+                                     "var c Ints\n" +
+                                     "var d []byte\n" +
+                                     "var e []uint8\n" +
+                                     "var f chan int\n" +
+                                     "var g <-chan int\n" +
+                                     "var h func(int, ...string) (bool, error)\n" +
+                                     "var i func(a int, b ...string) (ok bool, err error)\n" +
+                                     "var p *Ptr\n" +
+                                     "const three = 3\n" +
+                                     "var arr1 [3]int\n" +
+                                     "var arr2 [2+1]int\n" +
+                                     "var arr3 [three]int\n" +
+                                     "var arr4 [0x3]int\n" +
+                                     "var arr5 [4]int\n" +
+                                     "var u1 Unresolved\n" +
+                                     "var u2 []Unresolved\n" +
+                                     "var u3 []Unresolved\n" +
+                                     "var s struct { n int }\n" +
+                                     "var x struct { N int }\n";
+
+  private GoFile myOtherFile;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    setUpProjectSdk();
+    myOtherFile = (GoFile)myFixture.addFileToProject("other/b.go", "package other\n" +
+                                                                   "var s struct { n int }\n" +
+                                                                   "var x struct { N int }\n");
+    myFixture.configureByText("a.go", TEXT);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    myOtherFile = null;
+    super.tearDown();
+  }
+
+  @Override
+  protected LightProjectDescriptor getProjectDescriptor() {
+    return createMockProjectDescriptor();
+  }
+
+  public void testIdentity() {
+    assertSame(var("a"), var("b"));
+    assertNotSame(var("a"), var("c"));
+    assertSame(var("d"), var("e"));
+    assertSame(var("h"), var("i"));
+    assertEquals("[]int", var("a").getKey());
+    assertEquals(GoCanonicalType.Kind.NAMED, var("c").getKind());
+  }
+
+  public void testConstantArrayLength() {
+    assertSame(var("arr1"), var("arr2"));
+    assertSame(var("arr1"), var("arr3"));
+    assertSame(var("arr1"), var("arr4"));
+    assertNotSame(var("arr1"), var("arr5"));
+    assertEquals("[3]int", var("arr2").getKey());
+  }
+
+  public void testUnresolvedTypesAreNotIdentical() {
+    assertFalse(var("u1").isResolved());
+    assertFalse(var("u1").isIdenticalTo(var("u1")));
+    assertFalse(var("u2").isResolved());
+    assertNotSame(var("u2"), var("u3"));
+    assertFalse(var("u2").isIdenticalTo(var("u3")));
+    assertFalse(GoTypeUtil.areIdentical(null, null));
+    assertTrue(var("a").isIdenticalTo(var("b")));
+  }
+
+  public void testUnexportedFieldsOfDifferentPackages() {
+    assertNotSame(var("s"), var(myOtherFile, "s"));
+    assertSame(var("x"), var(myOtherFile, "x"));
+  }
+
+  public void testUnderlyingType() {
+    assertSame(var("a"), var("c").getUnderlyingType());
+    assertSame(type("List"), type("List").getUnderlyingType().getFields().get(0).getType().getElementType());
+    assertTrue(type("Stringer").isInterface());
+  }
+
+  public void testAssignability() {
+    assertTrue(var("a").isAssignableTo(var("c")));
+    assertTrue(var("c").isAssignableTo(var("a")));
+    assertFalse(var("a").isAssignableTo(var("d")));
+    assertTrue(var("f").isAssignableTo(var("g")));
+    assertFalse(var("g").isAssignableTo(var("f")));
+    assertTrue(type("Value").isAssignableTo(type("Stringer")));
+    assertTrue(type("Named").isAssignableTo(type("Stringer")));
+    assertFalse(type("Stringer").isAssignableTo(type("Named")));
+  }
+
+  public void testMethodSets() {
+    assertTrue(type("Value").implementsInterface(type("Stringer")));
+    assertFalse(type("Ptr").implementsInterface(type("Stringer")));
+    assertTrue(var("p").implementsInterface(type("Stringer")));
+    assertTrue(type("Outer").implementsInterface(type("Stringer")));
+    assertFalse(type("OuterPtr").implementsInterface(type("Stringer")));
+    assertEquals(2, type("Named").getMethodSet().size());
+  }
+
+  @NotNull
+  private GoCanonicalType var(@NotNull String name) {
+    return var((GoFile)myFixture.getFile(), name);
+  }
+
+  @NotNull
+  private static GoCanonicalType var(@NotNull GoFile file, @NotNull String name) {
+    for (GoVarDefinition definition : file.getVars()) {
+      if (name.equals(definition.getName())) return GoCanonicalTypes.of(definition.getGoType(null));
+    }
+    throw new AssertionError("No variable " + name);
+  }
+
+  @NotNull
+  private GoCanonicalType type(@NotNull String name) {
+    for (GoTypeSpec spec : ((GoFile)myFixture.getFile()).getTypes()) {
+      if (name.equals(spec.getName())) return GoCanonicalTypes.of(spec);
+    }
+    throw new AssertionError("No type " + name);
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.psi.impl;
+
+import com.goide.GoCodeInsightFixtureTestCase;
+import com.goide.psi.GoExpression;
+import com.goide.psi.GoFile;
+import com.goide.psi.GoFunctionDeclaration;
+import com.goide.psi.GoType;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+
+public class GoTypeInferenceTableTest extends GoCodeInsightFixtureTestCase {
+  private static final String TEXT = "package main\n" +
+                                     "func a() { x := 1; println(x) }\n" +
+                                     "func b() { y := \"s\"; println(y) }\n";
+
+  public void testTypes() {
+    myFixture.configureByText("a.go", TEXT);
+    GoType type = findExpression("println(x)", "x").getGoType(null);
+    assertNotNull(type);
+    assertEquals("int", type.getText());
+    GoType other = findExpression("println(y)", "y").getGoType(null);
+    assertNotNull(other);
+    assertEquals("string", other.getText());
+  }
+
+  public void testEditInAnotherBodyKeepsTable() {
+    myFixture.configureByText("a.go", TEXT);
+    GoExpression x = findExpression("println(x)", "x");
+    GoTypeInferenceTable table = GoTypeInferenceTable.forExpression(x);
+    assertNotNull(table);
+    assertNotNull(x.getGoType(null));
+
+    type("println(y)", " ");
+    assertSame(table, GoTypeInferenceTable.forExpression(findExpression("println(x)", "x")));
+
+    type("println(x)", " ");
+    assertNotSame(table, GoTypeInferenceTable.forExpression(findExpression("println(x)", "x")));
+  }
+
+  public void testEditOutsideBodiesDropsTable() {
+    myFixture.configureByText("a.go", TEXT);
+    GoTypeInferenceTable table = GoTypeInferenceTable.forExpression(findExpression("println(x)", "x"));
+    assertNotNull(table);
+
+    type("func b()", "\ntype T int\n");
+    assertNotSame(table, GoTypeInferenceTable.forExpression(findExpression("println(x)", "x")));
+  }
+
+  public void testBodyReplacementIsInBodyChange() {
+    myFixture.configureByText("a.go", TEXT);
+    GoTypeInferenceTable table = GoTypeInferenceTable.forExpression(findExpression("println(x)", "x"));
+    assertNotNull(table);
+    ModificationTracker outOfBody = GoCodeBlockModificationTracker.getInstance(getProject()).getOutOfBodyTracker();
+    long outOfBodyCount = outOfBody.getModificationCount();
+
+    final GoFunctionDeclaration b = ((GoFile)myFixture.getFile()).getFunctions().get(1);
+    assertEquals("b", b.getName());
+    WriteCommandAction.runWriteCommandAction(getProject(), new Runnable() {
+      @Override
+      public void run() {
+        assertNotNull(b.getBlock());
+        b.getBlock().replace(GoElementFactory.createBlock(getProject()));
+      }
+    });
+
+    assertEquals(outOfBodyCount, outOfBody.getModificationCount());
+    assertSame(table, GoTypeInferenceTable.forExpression(findExpression("println(x)", "x")));
+  }
+
+  public void testNoTableOutsideFunctions() {
+    myFixture.configureByText("a.go", "package main\nvar v = 1 + 2");
+    GoExpression expression = PsiTreeUtil.findChildOfType(myFixture.getFile(), GoExpression.class);
+    assertNotNull(expression);
+    assertNull(GoTypeInferenceTable.forExpression(expression));
+  }
+
+  @NotNull
+  private GoExpression findExpression(@NotNull String context, @NotNull String expression) {
+    int offset = myFixture.getFile().getText().indexOf(context) + context.indexOf(expression);
+    GoExpression result = PsiTreeUtil.getParentOfType(myFixture.getFile().findElementAt(offset), GoExpression.class);
+    assertNotNull(result);
+    return result;
+  }
+
+  private void type(@NotNull String before, @NotNull String text) {
+    myFixture.getEditor().getCaretModel().moveToOffset(myFixture.getFile().getText().indexOf(before));
+    myFixture.type(text);
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+  }
+}
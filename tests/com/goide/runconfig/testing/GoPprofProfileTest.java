@@ -0,0 +1,173 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.runconfig.testing;
+
+import com.goide.runconfig.testing.profile.GoPprofProfile;
+import com.intellij.testFramework.UsefulTestCase;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class GoPprofProfileTest extends UsefulTestCase {
+  private static final String FILE = "/src/main/main.go";
+
+  public void testFlatAndCumulativeValues() throws IOException {
+    ByteArrayOutputStream profile = new ByteArrayOutputStream();
+    // string table: "", samples, count, cpu, nanoseconds, main.loop, main.main, file
+    for (String s : new String[]{"", "samples", "count", "cpu", "nanoseconds", "main.loop", "main.main", FILE}) {
+      writeBytes(profile, 6, s.getBytes("UTF-8"));
+    }
+    writeMessage(profile, 1, valueType(1, 2));
+    writeMessage(profile, 1, valueType(3, 4));
+    writeMessage(profile, 5, function(1, 5, 7));
+    writeMessage(profile, 5, function(2, 6, 7));
+    writeMessage(profile, 4, location(1, 1, 10));
+    writeMessage(profile, 4, location(2, 2, 20));
+    writeMessage(profile, 4, location(3, 1, 11));
+    // main.loop:10 <- main.main:20, 30ms
+    writeMessage(profile, 2, sample(new long[]{1, 2}, new long[]{3, 30000000}));
+    // main.loop:11 <- main.main:20, 10ms
+    writeMessage(profile, 2, sample(new long[]{3, 2}, new long[]{1, 10000000}));
+
+    GoPprofProfile result = GoPprofProfile.parse(profile.toByteArray());
+    assertEquals("cpu", result.getSampleType());
+    assertEquals(40000000, result.getTotal());
+
+    GoPprofProfile.LineStats loop = result.getLineStats(FILE, 10);
+    assertNotNull(loop);
+    assertEquals("main.loop", loop.function);
+    assertEquals(30000000, loop.flat);
+    assertEquals(30000000, loop.cum);
+
+    GoPprofProfile.LineStats main = result.getLineStats(FILE, 20);
+    assertNotNull(main);
+    assertEquals(0, main.flat);
+    assertEquals(40000000, main.cum);
+    assertEquals(100.0, result.percent(main.cum));
+    assertNull(result.getLineStats(FILE, 12));
+  }
+
+  public void testCallTree() throws IOException {
+    ByteArrayOutputStream profile = new ByteArrayOutputStream();
+    for (String s : new String[]{"", "samples", "count", "cpu", "nanoseconds", "main.loop", "main.main", FILE, "main.sum"}) {
+      writeBytes(profile, 6, s.getBytes("UTF-8"));
+    }
+    writeMessage(profile, 1, valueType(1, 2));
+    writeMessage(profile, 1, valueType(3, 4));
+    writeMessage(profile, 5, function(1, 5, 7));
+    writeMessage(profile, 5, function(2, 6, 7));
+    writeMessage(profile, 5, function(3, 8, 7));
+    writeMessage(profile, 4, location(1, 1, 10));
+    writeMessage(profile, 4, location(2, 2, 20));
+    writeMessage(profile, 4, location(3, 3, 30));
+    // main.loop <- main.main, 30ms
+    writeMessage(profile, 2, sample(new long[]{1, 2}, new long[]{3, 30000000}));
+    // main.sum <- main.loop <- main.main, 10ms
+    writeMessage(profile, 2, sample(new long[]{3, 1, 2}, new long[]{1, 10000000}));
+    // main.main, 5ms
+    writeMessage(profile, 2, sample(new long[]{2}, new long[]{1, 5000000}));
+
+    GoPprofProfile.CallTreeNode root = GoPprofProfile.parse(profile.toByteArray()).getCallTree();
+    assertEquals(45000000, root.total);
+    assertSize(1, root.getChildren());
+
+    GoPprofProfile.CallTreeNode main = root.getChildren().get(0);
+    assertEquals("main.main", main.function);
+    assertEquals(45000000, main.total);
+    assertEquals(5000000, main.self);
+
+    GoPprofProfile.CallTreeNode loop = assertOneElement(main.getChildren());
+    assertEquals("main.loop", loop.function);
+    assertEquals(40000000, loop.total);
+    assertEquals(30000000, loop.self);
+
+    GoPprofProfile.CallTreeNode sum = assertOneElement(loop.getChildren());
+    assertEquals("main.sum", sum.function);
+    assertEquals(10000000, sum.total);
+    assertEquals(10000000, sum.self);
+    assertEmpty(sum.getChildren());
+  }
+
+  @NotNull
+  private static byte[] valueType(long type, long unit) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writeVarintField(out, 1, type);
+    writeVarintField(out, 2, unit);
+    return out.toByteArray();
+  }
+
+  @NotNull
+  private static byte[] function(long id, long name, long file) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writeVarintField(out, 1, id);
+    writeVarintField(out, 2, name);
+    writeVarintField(out, 4, file);
+    return out.toByteArray();
+  }
+
+  @NotNull
+  private static byte[] location(long id, long functionId, long line) {
+    ByteArrayOutputStream lineMessage = new ByteArrayOutputStream();
+    writeVarintField(lineMessage, 1, functionId);
+    writeVarintField(lineMessage, 2, line);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writeVarintField(out, 1, id);
+    writeBytes(out, 4, lineMessage.toByteArray());
+    return out.toByteArray();
+  }
+
+  @NotNull
+  private static byte[] sample(@NotNull long[] locations, @NotNull long[] values) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writeBytes(out, 1, packed(locations));
+    writeBytes(out, 2, packed(values));
+    return out.toByteArray();
+  }
+
+  @NotNull
+  private static byte[] packed(@NotNull long[] values) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (long value : values) {
+      writeVarint(out, value);
+    }
+    return out.toByteArray();
+  }
+
+  private static void writeMessage(@NotNull ByteArrayOutputStream out, int field, @NotNull byte[] message) {
+    writeBytes(out, field, message);
+  }
+
+  private static void writeBytes(@NotNull ByteArrayOutputStream out, int field, @NotNull byte[] bytes) {
+    writeVarint(out, field << 3 | 2);
+    writeVarint(out, bytes.length);
+    out.write(bytes, 0, bytes.length);
+  }
+
+  private static void writeVarintField(@NotNull ByteArrayOutputStream out, int field, long value) {
+    writeVarint(out, field << 3);
+    writeVarint(out, value);
+  }
+
+  private static void writeVarint(@NotNull ByteArrayOutputStream out, long value) {
+    while ((value & ~0x7fL) != 0) {
+      out.write((int)(value & 0x7f | 0x80));
+      value >>>= 7;
+    }
+    out.write((int)value);
+  }
+}
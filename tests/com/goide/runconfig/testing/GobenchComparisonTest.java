@@ -0,0 +1,79 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.runconfig.testing;
+
+import com.goide.runconfig.testing.frameworks.gobench.GobenchComparison;
+import com.goide.runconfig.testing.frameworks.gobench.GobenchResult;
+import com.intellij.testFramework.UsefulTestCase;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+public class GobenchComparisonTest extends UsefulTestCase {
+  public void testParseAllMetrics() {
+    GobenchResult result = GobenchResult.parse("BenchmarkRead", "  2000000   612 ns/op   13.10 MB/s   64 B/op   2 allocs/op");
+    assertNotNull(result);
+    assertEquals(2000000, result.iterations);
+    assertEquals(612.0, result.nsPerOp);
+    assertEquals(13.1, result.mbPerSecond);
+    assertEquals(64.0, result.bytesPerOp);
+    assertEquals(2.0, result.allocsPerOp);
+  }
+
+  public void testParseNotMeasurement() {
+    assertNull(GobenchResult.parse("BenchmarkRead", "--- FAIL: BenchmarkRead-4"));
+    assertNull(GobenchResult.parse("BenchmarkRead", "Hellooooo"));
+    assertNull(GobenchResult.parse("BenchmarkRead", "100"));
+  }
+
+  public void testSignificantRegression() {
+    List<GobenchComparison.Row> rows = GobenchComparison.compare(results(100, 101, 99, 100, 102, 98, 100, 101),
+                                                                 results(120, 121, 119, 122, 118, 120, 121, 119));
+    assertSize(1, rows);
+    GobenchComparison.Row row = rows.get(0);
+    assertEquals(GobenchResult.NS_PER_OP, row.metric);
+    assertTrue(row.isSignificant());
+    assertEquals(0.2, row.getDelta(), 0.01);
+  }
+
+  public void testInsignificantDifference() {
+    List<GobenchComparison.Row> rows = GobenchComparison.compare(results(100, 110, 90, 105), results(101, 109, 92, 104));
+    assertSize(1, rows);
+    assertFalse(rows.get(0).isSignificant());
+  }
+
+  public void testDifferentBenchmarksAreNotCompared() {
+    assertEmpty(GobenchComparison.compare(results(100), ContainerUtil.newArrayList(result("BenchmarkOther", 100))));
+  }
+
+  @NotNull
+  private static List<GobenchResult> results(double... nsPerOp) {
+    List<GobenchResult> results = ContainerUtil.newArrayList();
+    for (double value : nsPerOp) {
+      results.add(result("BenchmarkRead", value));
+    }
+    return results;
+  }
+
+  @NotNull
+  private static GobenchResult result(@NotNull String name, double nsPerOp) {
+    GobenchResult result = new GobenchResult(name, 1000);
+    result.nsPerOp = nsPerOp;
+    return result;
+  }
+}
@@ -16,9 +16,19 @@
 
 package com.goide.runconfig.testing;
 
+import com.goide.runconfig.testing.frameworks.gobench.GobenchEventsConverter;
 import com.goide.runconfig.testing.frameworks.gobench.GobenchFramework;
+import com.goide.runconfig.testing.frameworks.gobench.GobenchHistory;
+import com.goide.runconfig.testing.frameworks.gobench.GobenchResult;
+import com.intellij.execution.executors.DefaultRunExecutor;
+import com.intellij.execution.process.ProcessOutputTypes;
+import com.intellij.openapi.util.Disposer;
+import jetbrains.buildServer.messages.serviceMessages.Message;
 import org.jetbrains.annotations.NotNull;
 
+import java.text.ParseException;
+import java.util.List;
+
 public class GobenchEventsConverterTest extends GoEventsConverterTestCase {
   public void testSuccessBenchmark() {
     doTest();
@@ -36,6 +46,56 @@ public class GobenchEventsConverterTest extends GoEventsConverterTestCase {
     doTest();
   }
 
+  public void testResultsAndComparisonWithPreviousRun() throws ParseException {
+    GoTestRunConfiguration configuration = new GoTestRunConfiguration(myFixture.getProject(), "bench",
+                                                                      GoTestRunConfigurationType.getInstance());
+    configuration.setTestFramework(GobenchFramework.INSTANCE);
+    GobenchHistory history = GobenchHistory.getInstance(myFixture.getProject());
+    history.runs.clear();
+
+    StringBuilder firstOutput = new StringBuilder();
+    List<GobenchResult> results = runBenchmarks(configuration, firstOutput, "BenchmarkRead-4    1000    100 ns/op    16 B/op");
+    assertSize(1, results);
+    assertEquals("BenchmarkRead", results.get(0).name);
+    assertEquals(1000, results.get(0).iterations);
+    assertEquals(100.0, results.get(0).nsPerOp);
+    assertEquals(16.0, results.get(0).bytesPerOp);
+    assertFalse(firstOutput.toString().contains("Comparison with the previous run"));
+
+    StringBuilder secondOutput = new StringBuilder();
+    runBenchmarks(configuration, secondOutput, "BenchmarkRead-4    1000    200 ns/op    16 B/op");
+    assertTrue(secondOutput.toString(), secondOutput.toString().contains("Comparison with the previous run"));
+    GobenchHistory.Run last = history.getLastRun("bench");
+    assertNotNull(last);
+    assertEquals(200.0, last.results.get(0).nsPerOp);
+    history.runs.clear();
+  }
+
+  @NotNull
+  private static List<GobenchResult> runBenchmarks(@NotNull GoTestRunConfiguration configuration,
+                                                   @NotNull final StringBuilder output,
+                                                   @NotNull String... lines) throws ParseException {
+    GoTestConsoleProperties properties = new GoTestConsoleProperties(configuration, new DefaultRunExecutor());
+    GobenchEventsConverter converter = (GobenchEventsConverter)properties.createTestEventsConverter("gobench", properties);
+    LoggingServiceMessageVisitor visitor = new LoggingServiceMessageVisitor() {
+      @Override
+      public void visitMessageWithStatus(@NotNull Message message) {
+        output.append(message.getText());
+      }
+    };
+    try {
+      for (String line : lines) {
+        converter.processServiceMessages(line + "\n", ProcessOutputTypes.STDOUT, visitor);
+      }
+      converter.processServiceMessages("PASS\n", ProcessOutputTypes.STDOUT, visitor);
+      converter.flushBufferBeforeTerminating();
+      return converter.getResults();
+    }
+    finally {
+      Disposer.dispose(converter);
+    }
+  }
+
   @NotNull
   @Override
   protected String getBasePath() {
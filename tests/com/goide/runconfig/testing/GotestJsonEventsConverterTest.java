@@ -0,0 +1,42 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.runconfig.testing;
+
+import com.goide.runconfig.testing.frameworks.gotestjson.GotestJsonFramework;
+import org.jetbrains.annotations.NotNull;
+
+public class GotestJsonEventsConverterTest extends GoEventsConverterTestCase {
+  public void testParallelSubtests() {
+    doTest();
+  }
+
+  public void testUnfinishedTests() {
+    doTest();
+  }
+
+  @NotNull
+  @Override
+  protected String getBasePath() {
+    return "testing/gotestjson";
+  }
+
+  @NotNull
+  @Override
+  protected GoTestFramework getTestFramework() {
+    return GotestJsonFramework.INSTANCE;
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.sdk;
+
+import com.goide.GoCodeInsightFixtureTestCase;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.util.ThrowableComputable;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+public class GoImportPathCacheTest extends GoCodeInsightFixtureTestCase {
+  public void testRootsOrder() throws IOException {
+    VirtualFile first = myFixture.getTempDirFixture().findOrCreateDir("first");
+    VirtualFile second = myFixture.getTempDirFixture().findOrCreateDir("second");
+    VirtualFile inSecond = myFixture.getTempDirFixture().findOrCreateDir("second/a/b");
+    VirtualFile inFirst = myFixture.getTempDirFixture().findOrCreateDir("first/a/b");
+    assertEquals(Arrays.asList(inFirst, inSecond), resolve(Arrays.asList(first, second), "a/b"));
+    assertEquals(Arrays.asList(inSecond, inFirst), resolve(Arrays.asList(second, first), "a/b"));
+  }
+
+  public void testMissIsInvalidatedByNewDirectory() throws IOException {
+    VirtualFile root = myFixture.getTempDirFixture().findOrCreateDir("root");
+    assertEmpty(resolve(Arrays.asList(root), "a/b"));
+    assertEmpty(resolve(Arrays.asList(root), "a/b"));
+    VirtualFile directory = myFixture.getTempDirFixture().findOrCreateDir("root/a/b");
+    assertEquals(Arrays.asList(directory), resolve(Arrays.asList(root), "a/b"));
+  }
+
+  public void testDirectoryOutsideRootsKeepsTable() throws IOException {
+    VirtualFile root = myFixture.getTempDirFixture().findOrCreateDir("root");
+    assertEmpty(resolve(Arrays.asList(root), "a/b"));
+    GoImportPathCache cache = GoImportPathCache.getInstance(myFixture.getProject());
+    long modificationCount = cache.getModificationCount();
+    myFixture.getTempDirFixture().findOrCreateDir("other/a/b");
+    assertEquals(modificationCount, cache.getModificationCount());
+    myFixture.getTempDirFixture().findOrCreateDir("root/c");
+    assertTrue(modificationCount < cache.getModificationCount());
+  }
+
+  public void testMissIsInvalidatedByCopiedDirectory() throws IOException {
+    final VirtualFile root = myFixture.getTempDirFixture().findOrCreateDir("root");
+    final VirtualFile source = myFixture.getTempDirFixture().findOrCreateDir("other/b");
+    assertEmpty(resolve(Arrays.asList(root), "b"));
+    VirtualFile copy = ApplicationManager.getApplication().runWriteAction(new ThrowableComputable<VirtualFile, IOException>() {
+      @Override
+      public VirtualFile compute() throws IOException {
+        return source.copy(this, root, "b");
+      }
+    });
+    assertEquals(Arrays.asList(copy), resolve(Arrays.asList(root), "b"));
+  }
+
+  private List<VirtualFile> resolve(List<VirtualFile> roots, String importPath) {
+    return GoImportPathCache.getInstance(myFixture.getProject()).resolve(roots, importPath);
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.stubs;
+
+import com.goide.GoCodeInsightFixtureTestCase;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.psi.stubs.StubInputStream;
+import com.intellij.psi.stubs.StubOutputStream;
+import com.intellij.util.io.PersistentStringEnumerator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+public class GoStubTextCodecTest extends GoCodeInsightFixtureTestCase {
+  public void testRoundTrip() throws IOException {
+    String[] texts = {
+      null,
+      "",
+      "int",
+      "map[string]error",
+      "func(a, b int, c ...interface{}) (n int, err error)",
+      "struct {\n\tName string `json:\"name\"` // comment\n\t/* block */ next *T\n}",
+      "<-chan struct{}",
+      "1 << iota",
+      "\"a;b\"",
+      "[...]fmt.Stringer",
+    };
+    File directory = FileUtil.createTempDirectory("stub-text", null);
+    PersistentStringEnumerator names = new PersistentStringEnumerator(new File(directory, "names"));
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      StubOutputStream out = new StubOutputStream(bytes, names);
+      for (String text : texts) {
+        GoStubTextCodec.writeText(out, text);
+      }
+      out.close();
+
+      StubInputStream in = new StubInputStream(new ByteArrayInputStream(bytes.toByteArray()), names);
+      for (String text : texts) {
+        GoStubText stubText = GoStubTextCodec.readText(in);
+        assertEquals(text, stubText != null ? stubText.getString() : null);
+      }
+      assertEquals(0, in.available());
+    }
+    finally {
+      names.close();
+      FileUtil.delete(directory);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.tree;
+
+import com.goide.GoCodeInsightFixtureTestCase;
+import com.goide.psi.GoFile;
+import com.intellij.ide.structureView.StructureViewTreeElement;
+import com.intellij.ide.util.treeView.smartTree.TreeElement;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.util.Function;
+import com.intellij.util.containers.ContainerUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class GoStructureViewTest extends GoCodeInsightFixtureTestCase {
+  private static final String TEXT = "package main\n" +
+                                     "type T struct { a, b int; c string }\n" +
+                                     "type S string\n" +
+                                     "type I interface { M(x int) error }\n" +
+                                     "func (t *T) Method(p int) (string, error) { return \"\", nil }\n" +
+                                     "func (u *Unknown) Orphan() {}\n" +
+                                     "func F(a int, b ...string) {}\n" +
+                                     "var v, w map[string]int\n" +
+                                     "const c = 1\n";
+
+  public void testStubBasedPresentation() {
+    GoFile file = (GoFile)myFixture.addFileToProject("a.go", TEXT);
+    assertFalse(file.isContentsLoaded());
+
+    GoStructureViewFactory.Element root = new GoStructureViewFactory.Element(file);
+    TreeElement[] children = root.getChildren();
+    assertEquals(Arrays.asList("T", "S: string", "I", "c", "v: map[string]int", "w: map[string]int", "F(a int, b ...string)",
+                               "Orphan()"), texts(children));
+    assertEquals(Arrays.asList("Method(p int) (string, error)", "a: int", "b: int", "c: string"), texts(children[0].getChildren()));
+
+    GoStructureViewFactory.Model model = new GoStructureViewFactory.Model(file, null);
+    try {
+      assertTrue(model.isAlwaysShowsPlus((StructureViewTreeElement)children[0]));
+      assertFalse(model.isAlwaysShowsPlus((StructureViewTreeElement)children[1]));
+      assertTrue(model.isAlwaysShowsPlus((StructureViewTreeElement)children[2]));
+    }
+    finally {
+      Disposer.dispose(model);
+    }
+    assertFalse(file.isContentsLoaded());
+  }
+
+  public void testLoadedFilePresentation() {
+    GoFile file = (GoFile)myFixture.configureByText("a.go", TEXT);
+    assertTrue(file.isContentsLoaded());
+
+    TreeElement[] children = new GoStructureViewFactory.Element(file).getChildren();
+    assertEquals(Arrays.asList("T", "S: string", "I"), texts(children).subList(0, 3));
+    assertEquals("F(a int, b ...string)", children[6].getPresentation().getPresentableText());
+    GoStructureViewFactory.Model model = new GoStructureViewFactory.Model(file, null);
+    try {
+      assertFalse(model.isAlwaysShowsPlus((StructureViewTreeElement)children[0]));
+    }
+    finally {
+      Disposer.dispose(model);
+    }
+  }
+
+  @NotNull
+  private static List<String> texts(@NotNull TreeElement[] elements) {
+    return ContainerUtil.map(elements, new Function<TreeElement, String>() {
+      @Override
+      public String fun(TreeElement element) {
+        return element.getPresentation().getPresentableText();
+      }
+    });
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.util;
+
+import com.goide.GoCodeInsightFixtureTestCase;
+import com.goide.psi.GoReferenceExpression;
+import com.intellij.psi.util.PsiTreeUtil;
+
+import java.util.List;
+
+public class GoSlowResolveWatchdogTest extends GoCodeInsightFixtureTestCase {
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      GoSlowResolveWatchdog.setThreshold(0);
+      GoSlowResolveWatchdog.reset();
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  public void testRecordsSlowCall() throws InterruptedException {
+    myFixture.configureByText("a.go", "package main; func main() { a.b.<caret>c() }");
+    GoReferenceExpression element = PsiTreeUtil.getParentOfType(myFixture.getFile().findElementAt(myFixture.getCaretOffset()),
+                                                                GoReferenceExpression.class);
+    assertNotNull(element);
+    GoSlowResolveWatchdog.setThreshold(1);
+
+    GoSlowResolveWatchdog.Frame frame = GoSlowResolveWatchdog.start(element);
+    GoSlowResolveWatchdog.typeEntered();
+    GoSlowResolveWatchdog.typeEntered();
+    GoSlowResolveWatchdog.typeExited();
+    GoSlowResolveWatchdog.typeExited();
+    GoSlowResolveWatchdog.fileVisited();
+    Thread.sleep(5);
+    GoSlowResolveWatchdog.finish(frame, "resolve");
+
+    List<GoSlowResolveWatchdog.Offender> offenders = GoSlowResolveWatchdog.getOffenders();
+    assertSize(1, offenders);
+    GoSlowResolveWatchdog.Record record = offenders.get(0).worst;
+    assertEquals("resolve", record.kind);
+    assertEquals("a.b.c", record.element);
+    assertOrderedEquals(record.qualifiers, "a", "b");
+    assertEquals(2, record.typeDepth);
+    assertEquals(1, record.visitedFiles);
+    assertTrue(record.location.endsWith("a.go:1"));
+  }
+
+  public void testDisabled() {
+    myFixture.configureByText("a.go", "package main");
+    assertNull(GoSlowResolveWatchdog.start(myFixture.getFile()));
+    assertEmpty(GoSlowResolveWatchdog.getOffenders());
+  }
+}
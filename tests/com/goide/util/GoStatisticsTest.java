@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013-2016 Sergey Ignatov, Alexander Zolotov, Florin Patan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.goide.util;
+
+import com.intellij.testFramework.UsefulTestCase;
+
+import java.util.List;
+
+public class GoStatisticsTest extends UsefulTestCase {
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    GoStatistics.reset();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      GoStatistics.setEnabled(false);
+      GoStatistics.reset();
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  public void testDisabled() {
+    GoStatistics.setEnabled(false);
+    GoStatistics.stopTimer("timer", GoStatistics.startTimer());
+    GoStatistics.count("counter");
+    assertEmpty(GoStatistics.getSnapshots());
+  }
+
+  public void testTimersAndCounters() throws InterruptedException {
+    GoStatistics.setEnabled(true);
+    long start = GoStatistics.startTimer();
+    Thread.sleep(5);
+    GoStatistics.stopTimer("timer", start);
+    GoStatistics.stopTimer("timer", GoStatistics.startTimer());
+    GoStatistics.count("counter");
+
+    List<GoStatistics.Snapshot> snapshots = GoStatistics.getSnapshots();
+    assertSize(2, snapshots);
+    GoStatistics.Snapshot timer = snapshots.get(0);
+    assertEquals("timer", timer.name);
+    assertEquals(2, timer.count);
+    assertTrue(timer.totalMs >= 5);
+    assertTrue(timer.maxMs >= 5);
+    assertEquals(timer.totalMs / 2, timer.averageMs, 0.0001);
+    GoStatistics.Snapshot counter = snapshots.get(1);
+    assertEquals("counter", counter.name);
+    assertEquals(1, counter.count);
+    assertEquals(0.0, counter.totalMs);
+  }
+
+  public void testJson() {
+    GoStatistics.setEnabled(true);
+    GoStatistics.count("GoReference.multiResolve");
+    String json = GoStatistics.toJson();
+    assertTrue(json, json.contains("\"name\": \"GoReference.multiResolve\""));
+    assertTrue(json, json.contains("\"count\": 1"));
+  }
+}